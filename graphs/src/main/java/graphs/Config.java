@@ -1,12 +1,21 @@
 package graphs;
 
-import graphs.graph.Graph;
 import graphs.graph.SparseGraph;
+import graphs.graph.WeightedGraph;
+import graphs.spp.AStarStreetSearcher;
+import graphs.spp.BidirectionalDijkstraStreetSearcher;
+import graphs.spp.ContractionHierarchyStreetSearcher;
 import graphs.spp.DijkstraStreetSearcher;
+import graphs.spp.RadixHeap;
 import graphs.spp.StreetSearcher;
 import java.io.File;
+import java.net.URL;
 
 public final class Config {
+  /* Network to load: a text file or a NetworkSnapshot, on the classpath
+   * or on disk. Run with -Dgraphs.data=<file> to use another one. */
+  public static final String DATA = System.getProperty("graphs.data", "baltimore.streets.txt");
+
   public String from;
   public String to;
   public File data;
@@ -14,35 +23,68 @@ public final class Config {
   private Config(String data, String from, String to) {
     this.from = from;
     this.to = to;
-    this.data = new File(Config.class.getResource("/" + data).getFile());
+    URL resource = Config.class.getResource("/" + data);
+    this.data = resource == null ? new File(data) : new File(resource.getFile());
   }
 
   public static Config getConfig() {
     /* Sample valid endpoints */
-    return new Config("baltimore.streets.txt", "-76.6175,39.3296", "-76.6383,39.3206");
+    return new Config(DATA, "-76.6175,39.3296", "-76.6383,39.3206");
   }
 
   /**
-   * Change this to experiment with different implementations of Graph ADT.
+   * Change this to experiment with different implementations of WeightedGraph ADT.
    *
    * @param <V> Vertex element type.
    * @param <E> Edge element type.
-   * @return an implementation of the Graph ADT.
+   * @return an implementation of the WeightedGraph ADT.
    */
-  public static <V, E> Graph<V, E> getGraph() {
+  public static <V, E> WeightedGraph<V, E> getGraph() {
     return new SparseGraph<>();
   }
 
   /**
    * Change this to experiment with different implementations of StreetSearcher.
    *
-   * @param graph an implementation of the Graph ADT.
+   * @param graph an implementation of the WeightedGraph ADT.
    * @return an implementation of StreetSearcher.
    */
-  public static StreetSearcher getStreetSearcher(Graph<String, String> graph) {
+  public static StreetSearcher getStreetSearcher(WeightedGraph<String, String> graph) {
     return new DijkstraStreetSearcher(graph);
   }
 
+  /**
+   * Pick a StreetSearcher by name, for benchmarks that compare them.
+   *
+   * @param graph an implementation of the WeightedGraph ADT.
+   * @param name  "dijkstra" (settles the whole graph),
+   *              "dijkstra-p2p" (stops once the end is settled),
+   *              "dijkstra-radix" (dijkstra-p2p over lengths kept to
+   *              a hundredth of a unit, queued in radix heaps),
+   *              "astar" (point-to-point, guided by coordinates),
+   *              "bidirectional" (searches from both ends) or
+   *              "ch" (contraction hierarchy, preprocessed at load).
+   * @return an implementation of StreetSearcher.
+   */
+  public static StreetSearcher getStreetSearcher(WeightedGraph<String, String> graph, String name) {
+    switch (name) {
+      case "dijkstra":
+        return new DijkstraStreetSearcher(graph, false);
+      case "dijkstra-p2p":
+        return new DijkstraStreetSearcher(graph, true);
+      case "dijkstra-radix":
+        return new DijkstraStreetSearcher(graph, true, RadixHeap.strategy(100));
+      case "astar":
+        return new AStarStreetSearcher(graph);
+      case "bidirectional":
+        return new BidirectionalDijkstraStreetSearcher(graph);
+      case "ch":
+        return new ContractionHierarchyStreetSearcher(graph);
+      default:
+        throw new IllegalArgumentException("Unknown StreetSearcher: " + name);
+    }
+  }
+
   @Override
   public String toString() {
     return String.format("Config: %s from %s to %s", data.getName(), from, to);
@@ -1,6 +1,6 @@
 package graphs;
 
-import graphs.graph.Graph;
+import graphs.graph.WeightedGraph;
 import graphs.spp.StreetSearcher;
 import java.io.FileNotFoundException;
 
@@ -13,7 +13,7 @@ public class Driver {
    */
   public static void main(String[] args) {
     StreetSearcher.VERBOSE = true;
-    Graph<String, String> graph = Config.getGraph();
+    WeightedGraph<String, String> graph = Config.getGraph();
     StreetSearcher streetSearcher = Config.getStreetSearcher(graph);
     Config config = Config.getConfig();
     System.out.println(config);
@@ -0,0 +1,869 @@
+package graphs.graph;
+
+import exceptions.InsertionException;
+import exceptions.PositionException;
+import exceptions.RemovalException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * An immutable implementation of Graph ADT using compressed sparse row
+ * (CSR) arrays. Vertices are numbered 0..n-1 in insertion order and the
+ * outgoing edges of vertex v are the edge ids offsets[v]..offsets[v+1]-1.
+ * Edge weights are kept in a primitive array instead of boxed labels, and
+ * edge positions are flyweights made from an edge id when they are asked
+ * for, so an edge costs no heap object of its own.
+ *
+ * <p>Use a {@link Builder} to create one; all insert/remove operations
+ * throw UnsupportedOperationException. Labels and weights can still be set.</p>
+ *
+ * @param <V> Vertex element type.
+ * @param <E> Edge element type.
+ */
+public final class CsrGraph<V, E> implements WeightedGraph<V, E> {
+
+  private final int[] offsets;   // n + 1 entries
+  private final int[] targets;   // m entries, end vertex of each edge
+  private final double[] weights; // m entries, weight of each edge
+  private final int[] sources;   // m entries, start vertex of each edge
+  private final int[] inOffsets; // n + 1 entries
+  private final int[] inEdges;   // m entries, edge ids grouped by end vertex
+  private final Object[] edgeData;
+  private final List<Vertex<V>> vertexNodes;
+  private final Object[] vertexLabels;
+  private Object[] edgeLabels; // null until an edge is labeled
+  private long version; // weight changes so far
+
+  // Lay out m edges given in any order; insertion order is kept within
+  // each vertex
+  private CsrGraph(List<V> vertexData, int[] edgeFrom, int[] edgeTo, double[] edgeWeight,
+                   List<E> edgeElements, int m) {
+    int n = vertexData.size();
+    offsets = new int[n + 1];
+    inOffsets = new int[n + 1];
+    // count degrees, then prefix sums
+    for (int i = 0; i < m; i++) {
+      offsets[edgeFrom[i] + 1]++;
+      inOffsets[edgeTo[i] + 1]++;
+    }
+    for (int v = 0; v < n; v++) {
+      offsets[v + 1] += offsets[v];
+      inOffsets[v + 1] += inOffsets[v];
+    }
+    targets = new int[m];
+    weights = new double[m];
+    sources = new int[m];
+    edgeData = new Object[m];
+    inEdges = new int[m];
+    // place edges
+    int[] next = Arrays.copyOf(offsets, n);
+    for (int i = 0; i < m; i++) {
+      int id = next[edgeFrom[i]]++;
+      sources[id] = edgeFrom[i];
+      targets[id] = edgeTo[i];
+      weights[id] = edgeWeight[i];
+      edgeData[id] = edgeElements.get(i);
+    }
+    next = Arrays.copyOf(inOffsets, n);
+    for (int id = 0; id < m; id++) {
+      inEdges[next[targets[id]]++] = id;
+    }
+    vertexNodes = new ArrayList<>(n);
+    for (int v = 0; v < n; v++) {
+      vertexNodes.add(new VertexNode(v, vertexData.get(v)));
+    }
+    vertexLabels = new Object[n];
+  }
+
+  /**
+   * Create a graph straight from CSR arrays, e.g. ones saved from another
+   * CsrGraph. The outgoing edges of vertex v are offsets[v]..offsets[v+1]-1
+   * and get those edge ids. Unlike the Builder, this does not look for
+   * duplicate edges.
+   *
+   * @param vertexData element of each vertex, by vertex id.
+   * @param offsets    n + 1 non-decreasing entries from 0 to m.
+   * @param targets    end vertex of each edge.
+   * @param weights    weight of each edge.
+   * @param edgeData   element of each edge.
+   * @param <V>        Vertex element type.
+   * @param <E>        Edge element type.
+   * @return the graph.
+   * @throws IllegalArgumentException if the arrays do not describe a graph
+   *                                  without self-loops.
+   */
+  public static <V, E> CsrGraph<V, E> fromArrays(List<V> vertexData, int[] offsets,
+                                                 int[] targets, double[] weights,
+                                                 List<E> edgeData) {
+    int n = vertexData.size();
+    int m = targets.length;
+    if (offsets.length != n + 1 || offsets[0] != 0 || offsets[n] != m
+        || weights.length != m || edgeData.size() != m) {
+      throw new IllegalArgumentException("CSR arrays do not match in size");
+    }
+    int[] sources = new int[m];
+    for (int v = 0; v < n; v++) {
+      if (offsets[v] > offsets[v + 1]) {
+        throw new IllegalArgumentException("offsets must not decrease");
+      }
+      for (int id = offsets[v]; id < offsets[v + 1]; id++) {
+        if (targets[id] < 0 || targets[id] >= n || targets[id] == v) {
+          throw new IllegalArgumentException("bad target for edge " + id);
+        }
+        sources[id] = v;
+      }
+    }
+    return new CsrGraph<>(vertexData, sources, targets, weights, edgeData, m);
+  }
+
+  // Converts the vertex back to a VertexNode to use internally
+  private VertexNode convert(Vertex<V> v) throws PositionException {
+    try {
+      @SuppressWarnings("unchecked") // the owner check below catches other graphs
+      VertexNode gv = (VertexNode) v;
+      if (gv.owner() != this) {
+        throw new PositionException();
+      }
+      return gv;
+    } catch (NullPointerException | ClassCastException ex) {
+      throw new PositionException();
+    }
+  }
+
+  // Converts and edge back to a EdgeNode to use internally
+  private EdgeNode convert(Edge<E> e) throws PositionException {
+    try {
+      @SuppressWarnings("unchecked") // the owner check below catches other graphs
+      EdgeNode ge = (EdgeNode) e;
+      if (ge.owner() != this) {
+        throw new PositionException();
+      }
+      return ge;
+    } catch (NullPointerException | ClassCastException ex) {
+      throw new PositionException();
+    }
+  }
+
+  /**
+   * Number of vertices.
+   *
+   * @return the number of vertices in this graph.
+   */
+  @Override
+  public int vertexCount() {
+    return vertexNodes.size();
+  }
+
+  /**
+   * Number of edges.
+   *
+   * @return the number of edges in this graph.
+   */
+  @Override
+  public int edgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * Dense id of a vertex.
+   *
+   * @param v Vertex position to query.
+   * @return id in 0..vertexCount()-1.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public int id(Vertex<V> v) throws PositionException {
+    return convert(v).id;
+  }
+
+  /**
+   * Vertex with the given dense id.
+   *
+   * @param id vertex id in 0..vertexCount()-1.
+   * @return Vertex position for that id.
+   * @throws PositionException If id is out of range.
+   */
+  @Override
+  public Vertex<V> vertex(int id) throws PositionException {
+    if (id < 0 || id >= vertexNodes.size()) {
+      throw new PositionException();
+    }
+    return vertexNodes.get(id);
+  }
+
+  /**
+   * Upper bound on vertex ids.
+   *
+   * @return vertexCount(), since ids are never reused.
+   */
+  @Override
+  public int vertexIdBound() {
+    return vertexNodes.size();
+  }
+
+  /**
+   * Number of changes made to the graph.
+   *
+   * @return the number of weight changes, the only changes allowed.
+   */
+  @Override
+  public long version() {
+    return version;
+  }
+
+  /**
+   * New cursor over the edges at a vertex.
+   *
+   * @return a cursor over the CSR arrays of this graph.
+   */
+  @Override
+  public EdgeCursor<E> cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * Dense id of an edge.
+   *
+   * @param e Edge position to query.
+   * @return id in 0..edgeCount()-1.
+   * @throws PositionException If edge position is invalid.
+   */
+  public int id(Edge<E> e) throws PositionException {
+    return convert(e).id;
+  }
+
+  /**
+   * Edge with the given dense id.
+   *
+   * @param id edge id in 0..edgeCount()-1.
+   * @return Edge position for that id, equal to any other for the same id.
+   * @throws PositionException If id is out of range.
+   */
+  public Edge<E> edge(int id) throws PositionException {
+    if (id < 0 || id >= targets.length) {
+      throw new PositionException();
+    }
+    return new EdgeNode(id);
+  }
+
+  /**
+   * First outgoing edge id of a vertex.
+   *
+   * @param v vertex id.
+   * @return id of the first outgoing edge of v.
+   */
+  public int firstEdge(int v) {
+    return offsets[v];
+  }
+
+  /**
+   * End of the outgoing edge ids of a vertex (exclusive).
+   *
+   * @param v vertex id.
+   * @return one past the id of the last outgoing edge of v.
+   */
+  public int endEdge(int v) {
+    return offsets[v + 1];
+  }
+
+  /**
+   * End vertex id of an edge.
+   *
+   * @param e edge id.
+   * @return id of the vertex the edge leads to.
+   */
+  public int target(int e) {
+    return targets[e];
+  }
+
+  /**
+   * Weight of an edge.
+   *
+   * @param e edge id.
+   * @return the weight of the edge.
+   */
+  public double weight(int e) {
+    return weights[e];
+  }
+
+  /**
+   * Weight of an edge.
+   *
+   * @param e Edge position to query.
+   * @return the weight of the edge.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public double weight(Edge<E> e) throws PositionException {
+    return weights[convert(e).id];
+  }
+
+  /**
+   * Change the weight of an edge.
+   *
+   * @param e      Edge position to change.
+   * @param weight New weight of the edge.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public void weight(Edge<E> e, double weight) throws PositionException {
+    weights[convert(e).id] = weight;
+    version++;
+  }
+
+  /**
+   * Not supported, CsrGraph is immutable.
+   *
+   * @param v Element to insert.
+   * @return never returns.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public Vertex<V> insert(V v) throws InsertionException {
+    throw new UnsupportedOperationException("CsrGraph is immutable");
+  }
+
+  /**
+   * Not supported, CsrGraph is immutable.
+   *
+   * @param from Vertex position where edge starts.
+   * @param to   Vertex position where edge ends.
+   * @param e    Element to insert.
+   * @return never returns.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public Edge<E> insert(Vertex<V> from, Vertex<V> to, E e)
+      throws PositionException, InsertionException {
+    throw new UnsupportedOperationException("CsrGraph is immutable");
+  }
+
+  /**
+   * Not supported, CsrGraph is immutable.
+   *
+   * @param from   Vertex position where edge starts.
+   * @param to     Vertex position where edge ends.
+   * @param e      Element to insert.
+   * @param weight Weight of the new edge.
+   * @return never returns.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public Edge<E> insert(Vertex<V> from, Vertex<V> to, E e, double weight)
+      throws PositionException, InsertionException {
+    throw new UnsupportedOperationException("CsrGraph is immutable");
+  }
+
+  /**
+   * Not supported, CsrGraph is immutable.
+   *
+   * @param v Vertex position to remove.
+   * @return never returns.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public V remove(Vertex<V> v) throws PositionException, RemovalException {
+    throw new UnsupportedOperationException("CsrGraph is immutable");
+  }
+
+  /**
+   * Not supported, CsrGraph is immutable.
+   *
+   * @param e Edge position to remove.
+   * @return never returns.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public E remove(Edge<E> e) throws PositionException {
+    throw new UnsupportedOperationException("CsrGraph is immutable");
+  }
+
+  /**
+   * Vertices of graph.
+   *
+   * @return Iterable over all vertices of the graph (in id order).
+   */
+  @Override
+  public Iterable<Vertex<V>> vertices() {
+    return Collections.unmodifiableList(vertexNodes);
+  }
+
+  /**
+   * Edges of graph.
+   *
+   * @return Iterable over all edges of the graph (in id order).
+   */
+  @Override
+  public Iterable<Edge<E>> edges() {
+    return new EdgeRange(0, targets.length, null);
+  }
+
+  /**
+   * Outgoing edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return Iterable over all outgoing edges of the given vertex
+   *         (in insertion order).
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public Iterable<Edge<E>> outgoing(Vertex<V> v) throws PositionException {
+    int id = convert(v).id;
+    return new EdgeRange(offsets[id], offsets[id + 1], null);
+  }
+
+  /**
+   * Incoming edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return Iterable over all incoming edges of the given vertex
+   *         (in no specific order).
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public Iterable<Edge<E>> incoming(Vertex<V> v) throws PositionException {
+    int id = convert(v).id;
+    return new EdgeRange(inOffsets[id], inOffsets[id + 1], inEdges);
+  }
+
+  /**
+   * Number of outgoing edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return number of edges that start at the given vertex.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public int outDegree(Vertex<V> v) throws PositionException {
+    int id = convert(v).id;
+    return offsets[id + 1] - offsets[id];
+  }
+
+  /**
+   * Number of incoming edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return number of edges that end at the given vertex.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public int inDegree(Vertex<V> v) throws PositionException {
+    int id = convert(v).id;
+    return inOffsets[id + 1] - inOffsets[id];
+  }
+
+  /**
+   * Start vertex of edge.
+   *
+   * @param e Edge position to explore.
+   * @return Vertex position edge starts from.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public Vertex<V> from(Edge<E> e) throws PositionException {
+    return vertexNodes.get(sources[convert(e).id]);
+  }
+
+  /**
+   * End vertex of edge.
+   *
+   * @param e Edge position to explore.
+   * @return Vertex position edge leads to.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public Vertex<V> to(Edge<E> e) throws PositionException {
+    return vertexNodes.get(targets[convert(e).id]);
+  }
+
+  /**
+   * Label vertex with object.
+   *
+   * @param v Vertex position to label.
+   * @param l Label object.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public void label(Vertex<V> v, Object l) throws PositionException {
+    vertexLabels[convert(v).id] = l;
+  }
+
+  /**
+   * Label edge with object.
+   *
+   * @param e Edge position to label.
+   * @param l Label object.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public void label(Edge<E> e, Object l) throws PositionException {
+    int id = convert(e).id;
+    if (edgeLabels == null) {
+      if (l == null) {
+        return; // nothing to clear
+      }
+      edgeLabels = new Object[targets.length];
+    }
+    edgeLabels[id] = l;
+  }
+
+  /**
+   * Vertex label.
+   *
+   * @param v Vertex position to query.
+   * @return Label object (or null if none).
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public Object label(Vertex<V> v) throws PositionException {
+    return vertexLabels[convert(v).id];
+  }
+
+  /**
+   * Edge label.
+   *
+   * @param e Edge position to query.
+   * @return Label object (or null if none).
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public Object label(Edge<E> e) throws PositionException {
+    int id = convert(e).id;
+    return edgeLabels == null ? null : edgeLabels[id];
+  }
+
+  /**
+   * Clear all labels.
+   * All labels are null after this.
+   */
+  @Override
+  public void clearLabels() {
+    Arrays.fill(vertexLabels, null);
+    edgeLabels = null;
+  }
+
+  @Override
+  public String toString() {
+    GraphPrinter<V, E> gp = new GraphPrinter<>(this);
+    return gp.toString();
+  }
+
+
+  /**
+   * Collects vertices and edges, then lays them out as a CsrGraph.
+   * Duplicate vertices, self-loops and duplicate edges are rejected
+   * the same way SparseGraph rejects them.
+   *
+   * @param <V> Vertex element type.
+   * @param <E> Edge element type.
+   */
+  public static final class Builder<V, E> {
+    private final HashMap<V, Integer> ids;
+    private final ArrayList<V> vertexData;
+    private final HashSet<Long> edgeKeys;
+    private final ArrayList<E> edgeData;
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private double[] edgeWeight;
+    private int numEdges;
+
+    /**
+     * Constructor for Builder.
+     */
+    public Builder() {
+      ids = new HashMap<>();
+      vertexData = new ArrayList<>();
+      edgeKeys = new HashSet<>();
+      edgeData = new ArrayList<>();
+      edgeFrom = new int[16];
+      edgeTo = new int[16];
+      edgeWeight = new double[16];
+      numEdges = 0;
+    }
+
+    /**
+     * Insert a new vertex.
+     *
+     * @param v Element to insert.
+     * @return id of the new vertex.
+     * @throws InsertionException If v is null or already inserted.
+     */
+    public int insert(V v) throws InsertionException {
+      if (v == null || ids.containsKey(v)) {
+        throw new InsertionException();
+      }
+      int id = vertexData.size();
+      ids.put(v, id);
+      vertexData.add(v);
+      return id;
+    }
+
+    /**
+     * Number of vertices inserted so far.
+     *
+     * @return the number of vertices.
+     */
+    public int vertexCount() {
+      return vertexData.size();
+    }
+
+    /**
+     * Find a vertex that was already inserted.
+     *
+     * @param v Element to look for.
+     * @return id of the vertex holding v, or -1 if there is none.
+     */
+    public int find(V v) {
+      Integer id = ids.get(v);
+      return id == null ? -1 : id;
+    }
+
+    /**
+     * Insert a new edge.
+     *
+     * @param from   id of the vertex where edge starts.
+     * @param to     id of the vertex where edge ends.
+     * @param e      Element to insert (can be null).
+     * @param weight weight of the edge.
+     * @throws PositionException  If either vertex id is invalid.
+     * @throws InsertionException If insertion would create a self-loop or
+     *                            duplicate edge.
+     */
+    public void insert(int from, int to, E e, double weight)
+        throws PositionException, InsertionException {
+      if (from < 0 || to < 0 || from >= vertexData.size() || to >= vertexData.size()) {
+        throw new PositionException();
+      } else if (from == to) { // self-loop
+        throw new InsertionException();
+      } else if (!edgeKeys.add(((long) from << 32) | to)) {
+        throw new InsertionException(); // duplicate edge
+      }
+      if (numEdges == edgeFrom.length) {
+        edgeFrom = Arrays.copyOf(edgeFrom, 2 * numEdges);
+        edgeTo = Arrays.copyOf(edgeTo, 2 * numEdges);
+        edgeWeight = Arrays.copyOf(edgeWeight, 2 * numEdges);
+      }
+      edgeFrom[numEdges] = from;
+      edgeTo[numEdges] = to;
+      edgeWeight[numEdges] = weight;
+      edgeData.add(e);
+      numEdges++;
+    }
+
+    /**
+     * Build the graph.
+     *
+     * @return a new CsrGraph holding everything inserted so far.
+     */
+    public CsrGraph<V, E> build() {
+      return new CsrGraph<>(vertexData, edgeFrom, edgeTo, edgeWeight, edgeData, numEdges);
+    }
+  }
+
+
+  // Iterable over a range of edge ids, optionally mapped through an index
+  private final class EdgeRange implements Iterable<Edge<E>> {
+    private final int start;
+    private final int end;
+    private final int[] index;
+
+    EdgeRange(int start, int end, int[] index) {
+      this.start = start;
+      this.end = end;
+      this.index = index;
+    }
+
+    @Override
+    public Iterator<Edge<E>> iterator() {
+      return new Iterator<>() {
+        private int cur = start;
+
+        @Override
+        public boolean hasNext() {
+          return cur < end;
+        }
+
+        @Override
+        public Edge<E> next() {
+          if (cur >= end) {
+            throw new NoSuchElementException();
+          }
+          int id = index == null ? cur : index[cur];
+          cur++;
+          return new EdgeNode(id);
+        }
+      };
+    }
+
+    // edges() splits by edge id, which for CSR also groups them by vertex
+    @Override
+    public Spliterator<Edge<E>> spliterator() {
+      return new EdgeSpliterator(start, end, index);
+    }
+  }
+
+
+  // Edge ids lo..hi-1, optionally mapped through an index; splits in half
+  private final class EdgeSpliterator implements Spliterator<Edge<E>> {
+    private int lo;
+    private final int hi;
+    private final int[] index;
+
+    EdgeSpliterator(int lo, int hi, int[] index) {
+      this.lo = lo;
+      this.hi = hi;
+      this.index = index;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Edge<E>> action) {
+      if (lo >= hi) {
+        return false;
+      }
+      action.accept(new EdgeNode(index == null ? lo : index[lo]));
+      lo++;
+      return true;
+    }
+
+    @Override
+    public Spliterator<Edge<E>> trySplit() {
+      int mid = (lo + hi) >>> 1;
+      if (mid <= lo) {
+        return null;
+      }
+      EdgeSpliterator lower = new EdgeSpliterator(lo, mid, index);
+      lo = mid;
+      return lower;
+    }
+
+    @Override
+    public long estimateSize() {
+      return hi - lo;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+  }
+
+
+  // Class for a vertex of type V, one per id
+  private final class VertexNode implements Vertex<V> {
+    final int id;
+    final V data;
+
+    VertexNode(int id, V data) {
+      this.id = id;
+      this.data = data;
+    }
+
+    CsrGraph<V, E> owner() {
+      return CsrGraph.this;
+    }
+
+    @Override
+    public V get() {
+      return this.data;
+    }
+  }
+
+
+  // Cursor over a range of edge ids, like EdgeRange without the iterator
+  private final class Cursor implements EdgeCursor<E> {
+    private int[] index; // null for outgoing, inEdges for incoming
+    private int cur;
+    private int end;
+    private int edge;
+
+    @Override
+    public void outgoing(int id) throws PositionException {
+      checkVertex(id);
+      index = null;
+      cur = offsets[id];
+      end = offsets[id + 1];
+    }
+
+    @Override
+    public void incoming(int id) throws PositionException {
+      checkVertex(id);
+      index = inEdges;
+      cur = inOffsets[id];
+      end = inOffsets[id + 1];
+    }
+
+    @Override
+    public boolean next() {
+      if (cur >= end) {
+        return false;
+      }
+      edge = index == null ? cur : index[cur];
+      cur++;
+      return true;
+    }
+
+    @Override
+    public Edge<E> edge() {
+      return new EdgeNode(edge);
+    }
+
+    @Override
+    public int vertex() {
+      return index == null ? targets[edge] : sources[edge];
+    }
+
+    @Override
+    public double weight() {
+      return weights[edge];
+    }
+
+    // helper method: ids are 0..n-1
+    private void checkVertex(int id) throws PositionException {
+      if (id < 0 || id >= vertexNodes.size()) {
+        throw new PositionException();
+      }
+    }
+  }
+
+
+  // Edge position, made on demand from an edge id and compared by it
+  private final class EdgeNode implements Edge<E> {
+    final int id;
+
+    EdgeNode(int id) {
+      this.id = id;
+    }
+
+    CsrGraph<V, E> owner() {
+      return CsrGraph.this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get() {
+      return (E) edgeData[id];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof CsrGraph.EdgeNode)) {
+        return false;
+      }
+      CsrGraph<?, ?>.EdgeNode other = (CsrGraph<?, ?>.EdgeNode) o;
+      return other.id == id && other.owner() == owner();
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+  }
+}
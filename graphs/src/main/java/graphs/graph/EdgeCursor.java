@@ -0,0 +1,90 @@
+package graphs.graph;
+
+import exceptions.PositionException;
+
+/**
+ * Reusable cursor over the edges at one vertex, for loops that must not
+ * allocate. Point it at a vertex with outgoing() or incoming(), then call
+ * next() until it returns false:
+ *
+ * <pre>
+ *   for (cursor.outgoing(id); cursor.next(); ) {
+ *     relax(id, cursor.vertex(), cursor.weight());
+ *   }
+ * </pre>
+ *
+ * <p>Only edge() may allocate, on graphs that keep no edge objects (see
+ * CsrGraph and OffHeapGraph), so such loops should note the vertex ids at both ends
+ * and look the edge up with find() once it is needed.</p>
+ *
+ * <p>A cursor belongs to the graph that created it and is used by one
+ * thread at a time. The graph must not change while it is in use.</p>
+ *
+ * @param <E> Edge element type.
+ */
+public interface EdgeCursor<E> {
+
+  /**
+   * Start over on the outgoing edges of a vertex.
+   *
+   * @param id Vertex id, as returned by Graph.id(v).
+   * @throws PositionException If no vertex has that id.
+   */
+  void outgoing(int id) throws PositionException;
+
+  /**
+   * Start over on the incoming edges of a vertex.
+   *
+   * @param id Vertex id, as returned by Graph.id(v).
+   * @throws PositionException If no vertex has that id.
+   */
+  void incoming(int id) throws PositionException;
+
+  /**
+   * Move to the next edge.
+   *
+   * @return false once every edge has been visited.
+   */
+  boolean next();
+
+  /**
+   * Current edge. May allocate a new position on every call.
+   *
+   * @return Edge position the cursor is on.
+   */
+  Edge<E> edge();
+
+  /**
+   * Vertex at the other end of the current edge: where it leads to when
+   * going over outgoing edges, where it starts from for incoming edges.
+   *
+   * @return id of that vertex.
+   */
+  int vertex();
+
+  /**
+   * Weight of the current edge.
+   *
+   * @return the weight, as WeightedGraph.weight() would give it.
+   */
+  double weight();
+
+  /**
+   * Edge between two vertices. A graph holds at most one edge from a
+   * vertex to another, so the ends name the edge. Goes over the outgoing
+   * edges of from, which moves the cursor.
+   *
+   * @param from Vertex id where the edge starts.
+   * @param to   Vertex id where the edge ends.
+   * @return Edge position from from to to, or null if there is none.
+   * @throws PositionException If no vertex has id from.
+   */
+  default Edge<E> find(int from, int to) throws PositionException {
+    for (outgoing(from); next(); ) {
+      if (vertex() == to) {
+        return edge();
+      }
+    }
+    return null;
+  }
+}
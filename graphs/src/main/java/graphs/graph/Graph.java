@@ -63,11 +63,28 @@ public interface Graph<V, E> {
 
   /**
    * Edges of graph.
+   * The Iterable is a view, not a copy: it must not be used while the
+   * graph changes. Its spliterator() splits the edges into groups by
+   * start vertex, so they can be streamed in parallel.
    *
    * @return Iterable over all edges of the graph (in no specific order).
    */
   Iterable<Edge<E>> edges();
 
+  /**
+   * Number of vertices, in O(1).
+   *
+   * @return the number of vertices in this graph.
+   */
+  int vertexCount();
+
+  /**
+   * Number of edges, in O(1).
+   *
+   * @return the number of edges in this graph.
+   */
+  int edgeCount();
+
   /**
    * Outgoing edges of vertex.
    *
@@ -88,6 +105,72 @@ public interface Graph<V, E> {
    */
   Iterable<Edge<E>> incoming(Vertex<V> v) throws PositionException;
 
+  /**
+   * Number of outgoing edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return number of edges that start at the given vertex.
+   * @throws PositionException If vertex position is invalid.
+   */
+  int outDegree(Vertex<V> v) throws PositionException;
+
+  /**
+   * Number of incoming edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return number of edges that end at the given vertex.
+   * @throws PositionException If vertex position is invalid.
+   */
+  int inDegree(Vertex<V> v) throws PositionException;
+
+  /**
+   * Dense integer id of vertex.
+   * Ids are in 0..vertexIdBound()-1 and stay the same for as long as
+   * the vertex is in the graph; the id of a removed vertex may be
+   * given to a vertex inserted later.
+   *
+   * @param v Vertex position to query.
+   * @return id of the vertex.
+   * @throws PositionException If vertex position is invalid.
+   */
+  int id(Vertex<V> v) throws PositionException;
+
+  /**
+   * Vertex with the given id.
+   *
+   * @param id Vertex id, as returned by id(v).
+   * @return Vertex position with that id.
+   * @throws PositionException If no vertex has that id.
+   */
+  Vertex<V> vertex(int id) throws PositionException;
+
+  /**
+   * Upper bound on vertex ids.
+   * Arrays of this length can hold per-vertex state indexed by id.
+   *
+   * @return a number greater than every vertex id in use.
+   */
+  int vertexIdBound();
+
+  /**
+   * Number of changes made to the graph.
+   * Goes up with every insert and remove (and every weight change of a
+   * WeightedGraph), so anything computed from the graph can tell when
+   * it is out of date. Labels do not count as changes.
+   *
+   * @return the current version.
+   */
+  long version();
+
+  /**
+   * New cursor over the edges at a vertex.
+   * Create one per thread and reuse it; going over edges with it does
+   * not allocate.
+   *
+   * @return a cursor that is not on any vertex yet.
+   */
+  EdgeCursor<E> cursor();
+
   /**
    * Start vertex of edge.
    *
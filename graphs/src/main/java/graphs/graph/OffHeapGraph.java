@@ -0,0 +1,1057 @@
+package graphs.graph;
+
+import exceptions.InsertionException;
+import exceptions.PositionException;
+import exceptions.RemovalException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * An immutable street graph whose adjacency, weights and names live
+ * outside the Java heap, in direct or memory-mapped ByteBuffers. The layout
+ * is the same CSR layout as CsrGraph: vertices are numbered 0..n-1 and the
+ * outgoing edges of vertex v are the edge ids offsets[v]..offsets[v+1]-1.
+ *
+ * <p>Vertex and Edge positions are small flyweights made on demand from an
+ * id, so they are compared with equals(), not ==. Names are kept as UTF-8
+ * bytes and decoded by get(). The heap only holds labels that were set,
+ * so it stays about the same size however large the network is. Each
+ * buffer is limited to 2 GB, i.e. about 268 million edges.</p>
+ *
+ * <p>Create one with {@link #copyOf} or {@link #wrap}; all insert/remove
+ * operations throw UnsupportedOperationException. Labels and weights can
+ * still be set.</p>
+ */
+public final class OffHeapGraph implements WeightedGraph<String, String> {
+
+  private final int n;
+  private final int m;
+  private final IntBuffer offsets;    // n + 1 entries
+  private final IntBuffer targets;    // m entries, end vertex of each edge
+  private final DoubleBuffer weights; // m entries, weight of each edge
+  private final IntBuffer roadNames;  // m entries, name id of each edge
+  private final IntBuffer sources;    // m entries, start vertex of each edge
+  private final IntBuffer inOffsets;  // n + 1 entries
+  private final IntBuffer inEdges;    // m entries, edge ids grouped by end vertex
+  private final Names vertexNames;
+  private final Names edgeNames;
+  private final IntBuffer nameTable;  // open addressing, vertex id + 1, 0 if empty
+  private final HashMap<Integer, Object> vertexLabels;
+  private final HashMap<Integer, Object> edgeLabels;
+  private long version; // weight changes so far
+
+  // Index the given CSR buffers, which have been checked by wrap()
+  private OffHeapGraph(Names vertexNames, IntBuffer offsets, IntBuffer targets,
+                       DoubleBuffer weights, Names edgeNames, IntBuffer roadNames) {
+    this.n = vertexNames.size();
+    this.m = targets.limit();
+    this.vertexNames = vertexNames;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.edgeNames = edgeNames;
+    this.roadNames = roadNames;
+    // sources, then incoming edges by counting sort on the end vertex
+    sources = allocateInts(m);
+    inOffsets = allocateInts(n + 1);
+    for (int v = 0; v < n; v++) {
+      for (int id = offsets.get(v); id < offsets.get(v + 1); id++) {
+        sources.put(id, v);
+        inOffsets.put(targets.get(id) + 1, inOffsets.get(targets.get(id) + 1) + 1);
+      }
+    }
+    for (int v = 0; v < n; v++) {
+      inOffsets.put(v + 1, inOffsets.get(v + 1) + inOffsets.get(v));
+    }
+    inEdges = allocateInts(m);
+    IntBuffer next = allocateInts(n);
+    for (int v = 0; v < n; v++) {
+      next.put(v, inOffsets.get(v));
+    }
+    for (int id = 0; id < m; id++) {
+      int to = targets.get(id);
+      inEdges.put(next.get(to), id);
+      next.put(to, next.get(to) + 1);
+    }
+    // name -> id table, at most half full
+    nameTable = allocateInts(Integer.highestOneBit(Math.max(2 * n, 1) * 2 - 1));
+    for (int v = 0; v < n; v++) {
+      int slot = vertexNames.hash(v) & (nameTable.limit() - 1);
+      while (nameTable.get(slot) != 0) {
+        if (vertexNames.equal(nameTable.get(slot) - 1, vertexNames, v)) {
+          throw new IllegalArgumentException("duplicate vertex " + vertexNames.get(v));
+        }
+        slot = (slot + 1) & (nameTable.limit() - 1);
+      }
+      nameTable.put(slot, v + 1);
+    }
+    vertexLabels = new HashMap<>();
+    edgeLabels = new HashMap<>();
+  }
+
+  /**
+   * Create a graph over CSR buffers that already hold a network, e.g. the
+   * regions of a memory-mapped file. The buffers are used as they are,
+   * not copied; only the incoming edges and the name index are added
+   * (off-heap). The outgoing edges of vertex v are offsets[v]..offsets[v+1]-1
+   * and get those edge ids.
+   *
+   * @param vertexNames name of each vertex, by vertex id; no duplicates.
+   * @param offsets     n + 1 non-decreasing entries from 0 to m.
+   * @param targets     end vertex of each edge.
+   * @param weights     weight of each edge; writable if weights will be set.
+   * @param edgeNames   distinct edge names.
+   * @param roadNames   index into edgeNames of each edge.
+   * @return the graph.
+   * @throws IllegalArgumentException if the buffers do not describe a
+   *                                  graph without self-loops.
+   */
+  public static OffHeapGraph wrap(Names vertexNames, IntBuffer offsets, IntBuffer targets,
+                                  DoubleBuffer weights, Names edgeNames, IntBuffer roadNames) {
+    int n = vertexNames.size();
+    int m = targets.limit();
+    if (offsets.limit() != n + 1 || offsets.get(0) != 0 || offsets.get(n) != m
+        || weights.limit() != m || roadNames.limit() != m) {
+      throw new IllegalArgumentException("CSR buffers do not match in size");
+    }
+    for (int v = 0; v < n; v++) {
+      if (offsets.get(v) > offsets.get(v + 1)) {
+        throw new IllegalArgumentException("offsets must not decrease");
+      }
+      for (int id = offsets.get(v); id < offsets.get(v + 1); id++) {
+        int to = targets.get(id);
+        int name = roadNames.get(id);
+        if (to < 0 || to >= n || to == v) {
+          throw new IllegalArgumentException("bad target for edge " + id);
+        } else if (name < 0 || name >= edgeNames.size()) {
+          throw new IllegalArgumentException("bad name for edge " + id);
+        }
+      }
+    }
+    return new OffHeapGraph(vertexNames, offsets, targets, weights, edgeNames, roadNames);
+  }
+
+  /**
+   * Copy a graph into direct buffers. Vertices keep the order of their
+   * ids in graph (closing up any gaps) and edges keep their order out of
+   * each vertex, so searches take the same paths in the copy. Labels are
+   * not copied, and no vertex or edge element may be null.
+   *
+   * @param graph graph to copy.
+   * @return the copy.
+   */
+  public static OffHeapGraph copyOf(WeightedGraph<String, String> graph) {
+    int bound = graph.vertexIdBound();
+    int[] newId = new int[bound];
+    Arrays.fill(newId, -1);
+    for (Vertex<String> v : graph.vertices()) {
+      newId[graph.id(v)] = 0;
+    }
+    int n = 0;
+    for (int id = 0; id < bound; id++) {
+      if (newId[id] == 0) {
+        newId[id] = n++;
+      }
+    }
+
+    Names.Writer vertexNames = new Names.Writer(n);
+    Names.Writer edgeNames = new Names.Writer(16);
+    HashMap<String, Integer> distinct = new HashMap<>();
+    int m = graph.edgeCount();
+    IntBuffer offsets = allocateInts(n + 1);
+    IntBuffer targets = allocateInts(m);
+    DoubleBuffer weights = allocateDoubles(m);
+    IntBuffer roadNames = allocateInts(m);
+    EdgeCursor<String> cursor = graph.cursor();
+    int e = 0;
+    for (int id = 0; id < bound; id++) {
+      if (newId[id] < 0) {
+        continue;
+      }
+      vertexNames.add(graph.vertex(id).get());
+      for (cursor.outgoing(id); cursor.next(); e++) {
+        String name = cursor.edge().get();
+        Integer nameId = distinct.get(name);
+        if (nameId == null) {
+          nameId = distinct.size();
+          distinct.put(name, nameId);
+          edgeNames.add(name);
+        }
+        targets.put(e, newId[cursor.vertex()]);
+        weights.put(e, cursor.weight());
+        roadNames.put(e, nameId);
+      }
+      offsets.put(newId[id] + 1, e);
+    }
+    return wrap(vertexNames.build(), offsets, targets, weights, edgeNames.build(), roadNames);
+  }
+
+  // Converts the vertex back to a VertexRef to use internally
+  private VertexRef convert(Vertex<String> v) throws PositionException {
+    try {
+      VertexRef gv = (VertexRef) v;
+      if (gv.owner() != this) {
+        throw new PositionException();
+      }
+      return gv;
+    } catch (NullPointerException | ClassCastException ex) {
+      throw new PositionException();
+    }
+  }
+
+  // Converts and edge back to a EdgeRef to use internally
+  private EdgeRef convert(Edge<String> e) throws PositionException {
+    try {
+      EdgeRef ge = (EdgeRef) e;
+      if (ge.owner() != this) {
+        throw new PositionException();
+      }
+      return ge;
+    } catch (NullPointerException | ClassCastException ex) {
+      throw new PositionException();
+    }
+  }
+
+  /**
+   * Find a vertex by name, using the off-heap name index.
+   *
+   * @param name vertex name.
+   * @return id of the vertex, or -1 if there is none.
+   */
+  public int find(String name) {
+    if (name == null) {
+      return -1;
+    }
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    int mask = nameTable.limit() - 1;
+    for (int slot = Names.hash(bytes) & mask; nameTable.get(slot) != 0; slot = (slot + 1) & mask) {
+      if (vertexNames.equal(nameTable.get(slot) - 1, bytes)) {
+        return nameTable.get(slot) - 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Read-only view from vertex name to vertex, backed by the off-heap
+   * name index rather than a HashMap.
+   *
+   * @return the view.
+   */
+  public Map<String, Vertex<String>> byName() {
+    return new NameView();
+  }
+
+  /**
+   * Number of vertices.
+   *
+   * @return the number of vertices in this graph.
+   */
+  @Override
+  public int vertexCount() {
+    return n;
+  }
+
+  /**
+   * Number of edges.
+   *
+   * @return the number of edges in this graph.
+   */
+  @Override
+  public int edgeCount() {
+    return m;
+  }
+
+  /**
+   * Dense id of a vertex.
+   *
+   * @param v Vertex position to query.
+   * @return id in 0..vertexCount()-1.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public int id(Vertex<String> v) throws PositionException {
+    return convert(v).id;
+  }
+
+  /**
+   * Vertex with the given dense id.
+   *
+   * @param id vertex id in 0..vertexCount()-1.
+   * @return Vertex position for that id.
+   * @throws PositionException If id is out of range.
+   */
+  @Override
+  public Vertex<String> vertex(int id) throws PositionException {
+    if (id < 0 || id >= n) {
+      throw new PositionException();
+    }
+    return new VertexRef(id);
+  }
+
+  /**
+   * Upper bound on vertex ids.
+   *
+   * @return vertexCount(), since ids are never reused.
+   */
+  @Override
+  public int vertexIdBound() {
+    return n;
+  }
+
+  /**
+   * Number of changes made to the graph.
+   *
+   * @return the number of weight changes, the only changes allowed.
+   */
+  @Override
+  public long version() {
+    return version;
+  }
+
+  /**
+   * New cursor over the edges at a vertex.
+   *
+   * @return a cursor over the buffers of this graph.
+   */
+  @Override
+  public EdgeCursor<String> cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * Dense id of an edge.
+   *
+   * @param e Edge position to query.
+   * @return id in 0..edgeCount()-1.
+   * @throws PositionException If edge position is invalid.
+   */
+  public int id(Edge<String> e) throws PositionException {
+    return convert(e).id;
+  }
+
+  /**
+   * Edge with the given dense id.
+   *
+   * @param id edge id in 0..edgeCount()-1.
+   * @return Edge position for that id.
+   * @throws PositionException If id is out of range.
+   */
+  public Edge<String> edge(int id) throws PositionException {
+    if (id < 0 || id >= m) {
+      throw new PositionException();
+    }
+    return new EdgeRef(id);
+  }
+
+  /**
+   * Weight of an edge.
+   *
+   * @param e Edge position to query.
+   * @return the weight of the edge.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public double weight(Edge<String> e) throws PositionException {
+    return weights.get(convert(e).id);
+  }
+
+  /**
+   * Change the weight of an edge.
+   *
+   * @param e      Edge position to change.
+   * @param weight New weight of the edge.
+   * @throws PositionException If edge position is invalid.
+   * @throws java.nio.ReadOnlyBufferException If the weights were wrapped
+   *                                          read-only.
+   */
+  @Override
+  public void weight(Edge<String> e, double weight) throws PositionException {
+    weights.put(convert(e).id, weight);
+    version++;
+  }
+
+  /**
+   * Not supported, OffHeapGraph is immutable.
+   *
+   * @param v Element to insert.
+   * @return never returns.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public Vertex<String> insert(String v) throws InsertionException {
+    throw new UnsupportedOperationException("OffHeapGraph is immutable");
+  }
+
+  /**
+   * Not supported, OffHeapGraph is immutable.
+   *
+   * @param from Vertex position where edge starts.
+   * @param to   Vertex position where edge ends.
+   * @param e    Element to insert.
+   * @return never returns.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public Edge<String> insert(Vertex<String> from, Vertex<String> to, String e)
+      throws PositionException, InsertionException {
+    throw new UnsupportedOperationException("OffHeapGraph is immutable");
+  }
+
+  /**
+   * Not supported, OffHeapGraph is immutable.
+   *
+   * @param from   Vertex position where edge starts.
+   * @param to     Vertex position where edge ends.
+   * @param e      Element to insert.
+   * @param weight Weight of the new edge.
+   * @return never returns.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public Edge<String> insert(Vertex<String> from, Vertex<String> to, String e, double weight)
+      throws PositionException, InsertionException {
+    throw new UnsupportedOperationException("OffHeapGraph is immutable");
+  }
+
+  /**
+   * Not supported, OffHeapGraph is immutable.
+   *
+   * @param v Vertex position to remove.
+   * @return never returns.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public String remove(Vertex<String> v) throws PositionException, RemovalException {
+    throw new UnsupportedOperationException("OffHeapGraph is immutable");
+  }
+
+  /**
+   * Not supported, OffHeapGraph is immutable.
+   *
+   * @param e Edge position to remove.
+   * @return never returns.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public String remove(Edge<String> e) throws PositionException {
+    throw new UnsupportedOperationException("OffHeapGraph is immutable");
+  }
+
+  /**
+   * Vertices of graph.
+   *
+   * @return Iterable over all vertices of the graph (in id order).
+   */
+  @Override
+  public Iterable<Vertex<String>> vertices() {
+    return () -> new Iterator<>() {
+      private int cur = 0;
+
+      @Override
+      public boolean hasNext() {
+        return cur < n;
+      }
+
+      @Override
+      public Vertex<String> next() {
+        if (cur >= n) {
+          throw new NoSuchElementException();
+        }
+        return new VertexRef(cur++);
+      }
+    };
+  }
+
+  /**
+   * Edges of graph.
+   *
+   * @return Iterable over all edges of the graph (in id order).
+   */
+  @Override
+  public Iterable<Edge<String>> edges() {
+    return new EdgeRange(0, m, null);
+  }
+
+  /**
+   * Outgoing edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return Iterable over all outgoing edges of the given vertex
+   *         (in insertion order).
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public Iterable<Edge<String>> outgoing(Vertex<String> v) throws PositionException {
+    int id = convert(v).id;
+    return new EdgeRange(offsets.get(id), offsets.get(id + 1), null);
+  }
+
+  /**
+   * Incoming edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return Iterable over all incoming edges of the given vertex
+   *         (in no specific order).
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public Iterable<Edge<String>> incoming(Vertex<String> v) throws PositionException {
+    int id = convert(v).id;
+    return new EdgeRange(inOffsets.get(id), inOffsets.get(id + 1), inEdges);
+  }
+
+  /**
+   * Number of outgoing edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return number of edges that start at the given vertex.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public int outDegree(Vertex<String> v) throws PositionException {
+    int id = convert(v).id;
+    return offsets.get(id + 1) - offsets.get(id);
+  }
+
+  /**
+   * Number of incoming edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return number of edges that end at the given vertex.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public int inDegree(Vertex<String> v) throws PositionException {
+    int id = convert(v).id;
+    return inOffsets.get(id + 1) - inOffsets.get(id);
+  }
+
+  /**
+   * Start vertex of edge.
+   *
+   * @param e Edge position to explore.
+   * @return Vertex position edge starts from.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public Vertex<String> from(Edge<String> e) throws PositionException {
+    return new VertexRef(sources.get(convert(e).id));
+  }
+
+  /**
+   * End vertex of edge.
+   *
+   * @param e Edge position to explore.
+   * @return Vertex position edge leads to.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public Vertex<String> to(Edge<String> e) throws PositionException {
+    return new VertexRef(targets.get(convert(e).id));
+  }
+
+  /**
+   * Label vertex with object.
+   *
+   * @param v Vertex position to label.
+   * @param l Label object.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public void label(Vertex<String> v, Object l) throws PositionException {
+    setLabel(vertexLabels, convert(v).id, l);
+  }
+
+  /**
+   * Label edge with object.
+   *
+   * @param e Edge position to label.
+   * @param l Label object.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public void label(Edge<String> e, Object l) throws PositionException {
+    setLabel(edgeLabels, convert(e).id, l);
+  }
+
+  /**
+   * Vertex label.
+   *
+   * @param v Vertex position to query.
+   * @return Label object (or null if none).
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public Object label(Vertex<String> v) throws PositionException {
+    return vertexLabels.get(convert(v).id);
+  }
+
+  /**
+   * Edge label.
+   *
+   * @param e Edge position to query.
+   * @return Label object (or null if none).
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public Object label(Edge<String> e) throws PositionException {
+    return edgeLabels.get(convert(e).id);
+  }
+
+  /**
+   * Clear all labels.
+   * All labels are null after this.
+   */
+  @Override
+  public void clearLabels() {
+    vertexLabels.clear();
+    edgeLabels.clear();
+  }
+
+  @Override
+  public String toString() {
+    GraphPrinter<String, String> gp = new GraphPrinter<>(this);
+    return gp.toString();
+  }
+
+  // helper method: only labels that are set take up heap
+  private static void setLabel(HashMap<Integer, Object> labels, int id, Object l) {
+    if (l == null) {
+      labels.remove(id);
+    } else {
+      labels.put(id, l);
+    }
+  }
+
+  // helper method: zeroed ints outside the heap
+  private static IntBuffer allocateInts(int count) {
+    return allocate(4L * count).asIntBuffer();
+  }
+
+  // helper method: zeroed doubles outside the heap
+  private static DoubleBuffer allocateDoubles(int count) {
+    return allocate(8L * count).asDoubleBuffer();
+  }
+
+  // helper method: one direct buffer can hold at most 2 GB
+  private static ByteBuffer allocate(long bytes) {
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("graph too large for one buffer");
+    }
+    return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+  }
+
+
+  /**
+   * A table of strings stored back to back as UTF-8 bytes, addressed by
+   * index. String i is bytes ends[i-1]..ends[i]-1 (from 0 for the first).
+   */
+  public static final class Names {
+    private final IntBuffer ends;
+    private final ByteBuffer bytes;
+
+    /**
+     * Table over buffers that already hold the strings.
+     *
+     * @param ends  end of each string in bytes, non-decreasing.
+     * @param bytes UTF-8 bytes of all the strings.
+     * @throws IllegalArgumentException if ends do not fit bytes.
+     */
+    public Names(IntBuffer ends, ByteBuffer bytes) {
+      int last = 0;
+      for (int i = 0; i < ends.limit(); i++) {
+        if (ends.get(i) < last || ends.get(i) > bytes.limit()) {
+          throw new IllegalArgumentException("bad end for name " + i);
+        }
+        last = ends.get(i);
+      }
+      this.ends = ends;
+      this.bytes = bytes;
+    }
+
+    /**
+     * Number of strings.
+     *
+     * @return the number of strings in the table.
+     */
+    public int size() {
+      return ends.limit();
+    }
+
+    /**
+     * Decode a string.
+     *
+     * @param i index of the string.
+     * @return the string, a new String on every call.
+     */
+    public String get(int i) {
+      byte[] b = new byte[length(i)];
+      bytes.get(start(i), b);
+      return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // helper method: first byte of string i
+    private int start(int i) {
+      return i == 0 ? 0 : ends.get(i - 1);
+    }
+
+    // helper method: number of bytes of string i
+    private int length(int i) {
+      return ends.get(i) - start(i);
+    }
+
+    // helper method: same hash as hash(byte[]) of the string's bytes
+    int hash(int i) {
+      int h = 0x811C9DC5;
+      for (int k = start(i), end = ends.get(i); k < end; k++) {
+        h = (h ^ (bytes.get(k) & 0xFF)) * 0x01000193;
+      }
+      return h ^ (h >>> 16);
+    }
+
+    // helper method: FNV-1a, spread over the low bits
+    static int hash(byte[] b) {
+      int h = 0x811C9DC5;
+      for (byte x : b) {
+        h = (h ^ (x & 0xFF)) * 0x01000193;
+      }
+      return h ^ (h >>> 16);
+    }
+
+    // helper method: string i holds exactly these bytes
+    boolean equal(int i, byte[] b) {
+      if (length(i) != b.length) {
+        return false;
+      }
+      int start = start(i);
+      for (int k = 0; k < b.length; k++) {
+        if (bytes.get(start + k) != b[k]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // helper method: string i equals string j of other
+    boolean equal(int i, Names other, int j) {
+      if (length(i) != other.length(j)) {
+        return false;
+      }
+      for (int k = start(i), l = other.start(j); k < ends.get(i); k++, l++) {
+        if (bytes.get(k) != other.bytes.get(l)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // Appends strings into direct buffers that grow by doubling
+    static final class Writer {
+      private IntBuffer ends;
+      private ByteBuffer bytes;
+      private int count;
+
+      Writer(int capacity) {
+        ends = allocateInts(Math.max(capacity, 1));
+        bytes = allocate(16L * Math.max(capacity, 1));
+      }
+
+      void add(String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        if (count == ends.limit()) {
+          ends = grow(ends, 2L * count);
+        }
+        int start = count == 0 ? 0 : ends.get(count - 1);
+        if ((long) start + b.length > bytes.limit()) {
+          ByteBuffer bigger = allocate(Math.max(2L * bytes.limit(), (long) start + b.length));
+          bigger.put(bytes.position(0).limit(start));
+          bytes = bigger;
+        }
+        bytes.put(start, b);
+        ends.put(count++, start + b.length);
+      }
+
+      Names build() {
+        return new Names(ends.position(0).limit(count).slice(), bytes.clear());
+      }
+
+      // helper method: copy into a larger buffer
+      private static IntBuffer grow(IntBuffer old, long count) {
+        IntBuffer bigger = allocate(4 * count).asIntBuffer();
+        bigger.put(old.position(0));
+        return bigger.clear();
+      }
+    }
+  }
+
+
+  // Read-only Map from name to vertex over the name index
+  private final class NameView extends AbstractMap<String, Vertex<String>> {
+    @Override
+    public Vertex<String> get(Object key) {
+      int id = key instanceof String ? find((String) key) : -1;
+      return id < 0 ? null : new VertexRef(id);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String && find((String) key) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return n;
+    }
+
+    @Override
+    public Set<Entry<String, Vertex<String>>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<String, Vertex<String>>> iterator() {
+          Iterator<Vertex<String>> it = vertices().iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return it.hasNext();
+            }
+
+            @Override
+            public Entry<String, Vertex<String>> next() {
+              Vertex<String> v = it.next();
+              return Map.entry(v.get(), v);
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return n;
+        }
+      };
+    }
+  }
+
+
+  // Iterable over a range of edge ids, optionally mapped through an index
+  private final class EdgeRange implements Iterable<Edge<String>> {
+    private final int start;
+    private final int end;
+    private final IntBuffer index;
+
+    EdgeRange(int start, int end, IntBuffer index) {
+      this.start = start;
+      this.end = end;
+      this.index = index;
+    }
+
+    @Override
+    public Iterator<Edge<String>> iterator() {
+      return new Iterator<>() {
+        private int cur = start;
+
+        @Override
+        public boolean hasNext() {
+          return cur < end;
+        }
+
+        @Override
+        public Edge<String> next() {
+          if (cur >= end) {
+            throw new NoSuchElementException();
+          }
+          int id = index == null ? cur : index.get(cur);
+          cur++;
+          return new EdgeRef(id);
+        }
+      };
+    }
+
+    // edges() splits by edge id, which also groups them by vertex
+    @Override
+    public Spliterator<Edge<String>> spliterator() {
+      return new EdgeSpliterator(start, end, index);
+    }
+  }
+
+
+  // Edge ids lo..hi-1, optionally mapped through an index; splits in half
+  private final class EdgeSpliterator implements Spliterator<Edge<String>> {
+    private int lo;
+    private final int hi;
+    private final IntBuffer index;
+
+    EdgeSpliterator(int lo, int hi, IntBuffer index) {
+      this.lo = lo;
+      this.hi = hi;
+      this.index = index;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Edge<String>> action) {
+      if (lo >= hi) {
+        return false;
+      }
+      action.accept(new EdgeRef(index == null ? lo : index.get(lo)));
+      lo++;
+      return true;
+    }
+
+    @Override
+    public Spliterator<Edge<String>> trySplit() {
+      int mid = (lo + hi) >>> 1;
+      if (mid <= lo) {
+        return null;
+      }
+      EdgeSpliterator lower = new EdgeSpliterator(lo, mid, index);
+      lo = mid;
+      return lower;
+    }
+
+    @Override
+    public long estimateSize() {
+      return hi - lo;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+  }
+
+
+  // Cursor over a range of edge ids; edge() is the only call that allocates
+  private final class Cursor implements EdgeCursor<String> {
+    private IntBuffer index; // null for outgoing, inEdges for incoming
+    private int cur;
+    private int end;
+    private int edge;
+
+    @Override
+    public void outgoing(int id) throws PositionException {
+      checkVertex(id);
+      index = null;
+      cur = offsets.get(id);
+      end = offsets.get(id + 1);
+    }
+
+    @Override
+    public void incoming(int id) throws PositionException {
+      checkVertex(id);
+      index = inEdges;
+      cur = inOffsets.get(id);
+      end = inOffsets.get(id + 1);
+    }
+
+    @Override
+    public boolean next() {
+      if (cur >= end) {
+        return false;
+      }
+      edge = index == null ? cur : index.get(cur);
+      cur++;
+      return true;
+    }
+
+    @Override
+    public Edge<String> edge() {
+      return new EdgeRef(edge);
+    }
+
+    @Override
+    public int vertex() {
+      return index == null ? targets.get(edge) : sources.get(edge);
+    }
+
+    @Override
+    public double weight() {
+      return weights.get(edge);
+    }
+
+    // helper method: ids are 0..n-1
+    private void checkVertex(int id) throws PositionException {
+      if (id < 0 || id >= n) {
+        throw new PositionException();
+      }
+    }
+  }
+
+
+  // Vertex position made on demand, compared by id
+  private final class VertexRef implements Vertex<String> {
+    final int id;
+
+    VertexRef(int id) {
+      this.id = id;
+    }
+
+    OffHeapGraph owner() {
+      return OffHeapGraph.this;
+    }
+
+    @Override
+    public String get() {
+      return vertexNames.get(id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof OffHeapGraph.VertexRef)) {
+        return false;
+      }
+      VertexRef other = (VertexRef) o;
+      return other.id == id && other.owner() == owner();
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+  }
+
+
+  // Edge position made on demand, compared by id
+  private final class EdgeRef implements Edge<String> {
+    final int id;
+
+    EdgeRef(int id) {
+      this.id = id;
+    }
+
+    OffHeapGraph owner() {
+      return OffHeapGraph.this;
+    }
+
+    @Override
+    public String get() {
+      return edgeNames.get(roadNames.get(id));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof OffHeapGraph.EdgeRef)) {
+        return false;
+      }
+      EdgeRef other = (EdgeRef) o;
+      return other.id == id && other.owner() == owner();
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+  }
+}
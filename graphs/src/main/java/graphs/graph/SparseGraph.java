@@ -3,10 +3,17 @@ package graphs.graph;
 import exceptions.InsertionException;
 import exceptions.PositionException;
 import exceptions.RemovalException;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 
 
 
@@ -17,15 +24,33 @@ import java.util.HashMap;
  * @param <V> Vertex element type.
  * @param <E> Edge element type.
  */
-public class SparseGraph<V, E> implements Graph<V, E> {
+public class SparseGraph<V, E> implements WeightedGraph<V, E> {
 
   HashMap<Vertex<V>, ArrayList<Edge<E>>> incidenceList;
+  // reverse of incidenceList: edges that end at each vertex
+  HashMap<Vertex<V>, ArrayList<Edge<E>>> incomingList;
+  // element -> vertex holding it, for the duplicate vertex check
+  HashMap<V, Vertex<V>> vertexIndex;
+  // id -> vertex with that id, null for ids freed by remove
+  ArrayList<VertexNode<V>> vertexById;
+  // freed ids, handed out again before vertexById grows
+  ArrayDeque<Integer> freeIds;
+  // inserts, removes and weight changes so far
+  long version;
+  int edgeCount;
+  // what edges() returns, a view over the edge lists of vertexById
+  final Collection<Edge<E>> edgeView;
 
   /**
    * Constructor for SparseGraph.
    */
   public SparseGraph() {
     incidenceList = new HashMap<>();
+    incomingList = new HashMap<>();
+    vertexIndex = new HashMap<>();
+    vertexById = new ArrayList<>();
+    freeIds = new ArrayDeque<>();
+    edgeView = new EdgeView();
   }
 
   // Converts the vertex back to a VertexNode to use internally
@@ -65,14 +90,21 @@ public class SparseGraph<V, E> implements Graph<V, E> {
   public Vertex<V> insert(V v) throws InsertionException {
     if (v == null) { // null vertices
       throw new InsertionException();
+    } else if (vertexIndex.containsKey(v)) {
+      throw new InsertionException(); // Duplicate vertex found
     } else {
-      for (Vertex<V> vertex : incidenceList.keySet()) {
-        if (vertex.get().equals(v)) {
-          throw new InsertionException(); // Duplicate vertex found
-        }
-      }
       VertexNode<V> vertex = new VertexNode<>(v, this);
-      incidenceList.put(vertex, new ArrayList<>());
+      if (freeIds.isEmpty()) {
+        vertex.id = vertexById.size();
+        vertexById.add(vertex);
+      } else {
+        vertex.id = freeIds.pop();
+        vertexById.set(vertex.id, vertex);
+      }
+      incidenceList.put(vertex, vertex.outgoing);
+      incomingList.put(vertex, vertex.incoming);
+      vertexIndex.put(v, vertex);
+      version++;
       return vertex;
     }
   }
@@ -91,6 +123,24 @@ public class SparseGraph<V, E> implements Graph<V, E> {
   @Override
   public Edge<E> insert(Vertex<V> from, Vertex<V> to, E e)
           throws PositionException, InsertionException {
+    return insert(from, to, e, 1.0);
+  }
+
+  /**
+   * Insert a new edge with a weight.
+   *
+   * @param from   Vertex position where edge starts.
+   * @param to     Vertex position where edge ends.
+   * @param e      Element to insert (can be null).
+   * @param weight Weight of the new edge.
+   * @return Edge position created to hold element.
+   * @throws PositionException  If either vertex position is invalid.
+   * @throws InsertionException If insertion would create a self-loop or
+   *                            duplicate edge.
+   */
+  @Override
+  public Edge<E> insert(Vertex<V> from, Vertex<V> to, E e, double weight)
+          throws PositionException, InsertionException {
     if (from == null || to == null) { // invalid vertices
       throw new PositionException();
     } else if (from == to) { // self-loop
@@ -99,31 +149,34 @@ public class SparseGraph<V, E> implements Graph<V, E> {
       throw new PositionException();
     } else {
       EdgeNode<E> temp = new EdgeNode<>(convert(from), convert(to), e, this);
+      temp.weight = weight;
       // implicitly checks owner; vertices must both belong to this
-      ArrayList<Edge<E>> edges = incidenceList.get(from);
-      for (Edge<E> edge : edges) {
-        if (convert(to).equals(convert(edge).to)) {
-          throw new InsertionException(); // duplicate edge
-        }
+      if (!temp.from.targets.add(temp.to)) {
+        throw new InsertionException(); // duplicate edge
       }
+      ArrayList<Edge<E>> edges = incidenceList.get(from);
       edges.add(temp); // implicit down casting
+      incomingList.get(to).add(temp);
+      edgeCount++;
+      version++;
       return temp;
     }
   }
 
   // vertex remove helper: for incident edges
   private V checkIncidentEdges(Vertex<V> v) {
-    Iterable<Edge<E>> edges = this.incoming(v);
-    Collection<Edge<E>> edgeCollection = new ArrayList<>();
-    for (Edge<E> edge : edges) {
-      edgeCollection.add(edge);
-    }
-    if (!edgeCollection.isEmpty()) {
+    if (!incomingList.get(v).isEmpty()) {
       throw new RemovalException(); // incident edges
     }
-    V temp = convert(v).data;
+    VertexNode<V> vertex = convert(v);
     incidenceList.remove(v);
-    return temp;
+    incomingList.remove(v);
+    vertexIndex.remove(vertex.data);
+    vertexById.set(vertex.id, null);
+    freeIds.push(vertex.id);
+    vertex.id = -1;
+    version++;
+    return vertex.data;
   }
 
   /**
@@ -177,6 +230,10 @@ public class SparseGraph<V, E> implements Graph<V, E> {
       } else {
         int temp = edges.indexOf(e);
         Edge<E> edge = edges.remove(temp);
+        incomingList.get(convert(edge).to).remove(edge);
+        convert(edge).from.targets.remove(convert(edge).to);
+        edgeCount--;
+        version++;
         return convert(edge).data;
       }
     }
@@ -195,16 +252,32 @@ public class SparseGraph<V, E> implements Graph<V, E> {
   /**
    * Edges of graph.
    *
-   * @return Iterable over all edges of the graph (in no specific order).
+   * @return Iterable over all edges of the graph (by start vertex id);
+   *         a read-only view, nothing is copied.
    */
   @Override
   public Iterable<Edge<E>> edges() {
-    Collection<ArrayList<Edge<E>>> edgeLists = incidenceList.values();
-    ArrayList<Edge<E>> allEdges = new ArrayList<>();
-    for (ArrayList<Edge<E>> edgeList : edgeLists) {
-      allEdges.addAll(edgeList);
-    }
-    return Collections.unmodifiableCollection(allEdges);
+    return edgeView;
+  }
+
+  /**
+   * Number of vertices, in O(1).
+   *
+   * @return the number of vertices in this graph.
+   */
+  @Override
+  public int vertexCount() {
+    return incidenceList.size();
+  }
+
+  /**
+   * Number of edges, in O(1).
+   *
+   * @return the number of edges in this graph.
+   */
+  @Override
+  public int edgeCount() {
+    return edgeCount;
   }
 
   /**
@@ -221,9 +294,10 @@ public class SparseGraph<V, E> implements Graph<V, E> {
       throw new PositionException();
     } else if (convert(v).owner != this) {
       throw new PositionException(); // wrong graph
+    } else if (!incidenceList.containsKey(v)) {
+      throw new PositionException(); // removed vertex
     }
-    ArrayList<Edge<E>> outgoingEdges = incidenceList.get(v);
-    return Collections.unmodifiableCollection(outgoingEdges);
+    return convert(v).outgoingView;
   }
 
   /**
@@ -240,18 +314,107 @@ public class SparseGraph<V, E> implements Graph<V, E> {
       throw new PositionException();
     } else if (convert(v).owner != this) {
       throw new PositionException(); // wrong graph
+    } else if (!incomingList.containsKey(v)) {
+      throw new PositionException(); // removed vertex
     }
-    ArrayList<Edge<E>> incomingEdges = new ArrayList<>();
-    for (ArrayList<Edge<E>> edgeList : incidenceList.values()) {
-      for (Edge<E> edge : edgeList) {
-        if (convert(edge).to == v) {
-          incomingEdges.add(edge);
-        }
-      }
+    return convert(v).incomingView;
+  }
+
+  /**
+   * Number of outgoing edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return number of edges that start at the given vertex.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public int outDegree(Vertex<V> v) throws PositionException {
+    if (!incidenceList.containsKey(convert(v))) {
+      throw new PositionException();
+    }
+    return incidenceList.get(v).size();
+  }
+
+  /**
+   * Number of incoming edges of vertex.
+   *
+   * @param v Vertex position to explore.
+   * @return number of edges that end at the given vertex.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public int inDegree(Vertex<V> v) throws PositionException {
+    if (!incomingList.containsKey(convert(v))) {
+      throw new PositionException();
+    }
+    return incomingList.get(v).size();
+  }
+
+  /**
+   * Dense integer id of vertex.
+   *
+   * @param v Vertex position to query.
+   * @return id of the vertex.
+   * @throws PositionException If vertex position is invalid.
+   */
+  @Override
+  public int id(Vertex<V> v) throws PositionException {
+    VertexNode<V> vertex = convert(v);
+    if (vertex.id < 0) {
+      throw new PositionException(); // removed vertex
     }
-    return Collections.unmodifiableCollection(incomingEdges);
+    return vertex.id;
+  }
+
+  /**
+   * Vertex with the given id.
+   *
+   * @param id Vertex id, as returned by id(v).
+   * @return Vertex position with that id.
+   * @throws PositionException If no vertex has that id.
+   */
+  @Override
+  public Vertex<V> vertex(int id) throws PositionException {
+    return node(id);
+  }
+
+  // helper method: vertex by id, as a VertexNode
+  private VertexNode<V> node(int id) throws PositionException {
+    if (id < 0 || id >= vertexById.size() || vertexById.get(id) == null) {
+      throw new PositionException();
+    }
+    return vertexById.get(id);
+  }
+
+  /**
+   * Upper bound on vertex ids.
+   *
+   * @return a number greater than every vertex id in use.
+   */
+  @Override
+  public int vertexIdBound() {
+    return vertexById.size();
+  }
+
+  /**
+   * Number of changes made to the graph.
+   *
+   * @return the number of inserts, removes and weight changes so far.
+   */
+  @Override
+  public long version() {
+    return version;
   }
 
+  /**
+   * New cursor over the edges at a vertex.
+   *
+   * @return a cursor over the edge lists of this graph.
+   */
+  @Override
+  public EdgeCursor<E> cursor() {
+    return new Cursor();
+  }
 
   /**
    * Start vertex of edge.
@@ -345,6 +508,37 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     return convert(e).label;
   }
 
+  /**
+   * Weight of an edge.
+   *
+   * @param e Edge position to query.
+   * @return Weight of the edge.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public double weight(Edge<E> e) throws PositionException {
+    if (e == null) {
+      throw new PositionException();
+    }
+    return convert(e).weight;
+  }
+
+  /**
+   * Change the weight of an edge.
+   *
+   * @param e      Edge position to change.
+   * @param weight New weight of the edge.
+   * @throws PositionException If edge position is invalid.
+   */
+  @Override
+  public void weight(Edge<E> e, double weight) throws PositionException {
+    if (e == null) {
+      throw new PositionException();
+    }
+    convert(e).weight = weight;
+    version++;
+  }
+
   /**
    * Clear all labels.
    * All labels are null after this.
@@ -373,17 +567,29 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     V data;
     Graph<V, E> owner;
     Object label;
-    // TODO You may need to add fields/methods here!
+    int id; // index into vertexById, -1 once removed
+    // end vertices of outgoing edges, for the duplicate edge check
+    HashSet<VertexNode<V>> targets;
+    // the lists in incidenceList and incomingList, and read-only views
+    // of them handed out by outgoing() and incoming()
+    ArrayList<Edge<E>> outgoing;
+    ArrayList<Edge<E>> incoming;
+    Collection<Edge<E>> outgoingView;
+    Collection<Edge<E>> incomingView;
 
     VertexNode(V v) {
-      this.data = v;
-      this.label = null;
+      this(v, null);
     }
 
     VertexNode(V v, Graph<V, E> g) {
       this.data = v;
       this.label = null;
       this.owner = g;
+      this.targets = new HashSet<>();
+      this.outgoing = new ArrayList<>();
+      this.incoming = new ArrayList<>();
+      this.outgoingView = Collections.unmodifiableCollection(outgoing);
+      this.incomingView = Collections.unmodifiableCollection(incoming);
     }
 
     @Override
@@ -401,6 +607,7 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     VertexNode<V> from;
     VertexNode<V> to;
     Object label;
+    double weight;
     // TODO You may need to add fields/methods here!
 
     // Constructor for a new edge
@@ -425,5 +632,122 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     }
 
   }
-}
 
+
+  // Read-only view of every edge, walking the edge lists by vertex id
+  private final class EdgeView extends AbstractCollection<Edge<E>> {
+    @Override
+    public int size() {
+      return edgeCount;
+    }
+
+    @Override
+    public Iterator<Edge<E>> iterator() {
+      return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator<Edge<E>> spliterator() {
+      return new EdgeSpliterator(0, vertexById.size());
+    }
+  }
+
+
+  // Edges of the vertices with ids start..end-1; splits off the upper
+  // half of the vertices not started on yet
+  private final class EdgeSpliterator implements Spliterator<Edge<E>> {
+    private int vertex; // id of the vertex being walked
+    private int next;   // index into its outgoing edges
+    private int end;
+
+    EdgeSpliterator(int start, int end) {
+      this.vertex = start;
+      this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Edge<E>> action) {
+      while (vertex < end) {
+        VertexNode<V> node = vertexById.get(vertex);
+        if (node != null && next < node.outgoing.size()) {
+          action.accept(node.outgoing.get(next++));
+          return true;
+        }
+        vertex++;
+        next = 0;
+      }
+      return false;
+    }
+
+    @Override
+    public Spliterator<Edge<E>> trySplit() {
+      int mid = (vertex + 1 + end) >>> 1;
+      if (mid >= end) {
+        return null; // at most the current vertex is left
+      }
+      EdgeSpliterator upper = new EdgeSpliterator(mid, end);
+      end = mid;
+      return upper;
+    }
+
+    @Override
+    public long estimateSize() {
+      int n = vertexById.size();
+      return n == 0 ? 0 : (long) edgeCount * (end - vertex) / n;
+    }
+
+    @Override
+    public int characteristics() {
+      return NONNULL;
+    }
+  }
+
+
+  // Cursor over the edge lists kept in each VertexNode
+  private final class Cursor implements EdgeCursor<E> {
+    private ArrayList<Edge<E>> edges;
+    private boolean out; // going over outgoing edges
+    private int next;
+    private EdgeNode<E> edge;
+
+    @Override
+    public void outgoing(int id) throws PositionException {
+      edges = node(id).outgoing;
+      out = true;
+      next = 0;
+    }
+
+    @Override
+    public void incoming(int id) throws PositionException {
+      edges = node(id).incoming;
+      out = false;
+      next = 0;
+    }
+
+    @Override
+    public boolean next() {
+      if (edges == null || next >= edges.size()) {
+        return false;
+      }
+      @SuppressWarnings("unchecked") // edge lists only hold this graph's edges
+      EdgeNode<E> node = (EdgeNode<E>) edges.get(next++);
+      edge = node;
+      return true;
+    }
+
+    @Override
+    public Edge<E> edge() {
+      return edge;
+    }
+
+    @Override
+    public int vertex() {
+      return out ? edge.to.id : edge.from.id;
+    }
+
+    @Override
+    public double weight() {
+      return edge.weight;
+    }
+  }
+}
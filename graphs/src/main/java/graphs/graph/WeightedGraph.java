@@ -0,0 +1,48 @@
+package graphs.graph;
+
+import exceptions.InsertionException;
+import exceptions.PositionException;
+
+/**
+ * Graph ADT whose edges also carry a primitive double weight, so
+ * algorithms can read it without boxing it into a label.
+ * Edges inserted without a weight have weight 1.
+ *
+ * @param <V> Vertex element type.
+ * @param <E> Edge element type.
+ */
+public interface WeightedGraph<V, E> extends Graph<V, E> {
+
+  /**
+   * Insert a new edge with a weight.
+   *
+   * @param from   Vertex position where edge starts.
+   * @param to     Vertex position where edge ends.
+   * @param e      Element to insert.
+   * @param weight Weight of the new edge.
+   * @return Edge position created to hold element.
+   * @throws PositionException  If either vertex position is invalid.
+   * @throws InsertionException If insertion would create a self-loop or
+   *                            duplicate edge.
+   */
+  Edge<E> insert(Vertex<V> from, Vertex<V> to, E e, double weight)
+      throws PositionException, InsertionException;
+
+  /**
+   * Weight of an edge.
+   *
+   * @param e Edge position to query.
+   * @return Weight of the edge.
+   * @throws PositionException If edge position is invalid.
+   */
+  double weight(Edge<E> e) throws PositionException;
+
+  /**
+   * Change the weight of an edge.
+   *
+   * @param e      Edge position to change.
+   * @param weight New weight of the edge.
+   * @throws PositionException If edge position is invalid.
+   */
+  void weight(Edge<E> e, double weight) throws PositionException;
+}
@@ -0,0 +1,63 @@
+package graphs.spp;
+
+import graphs.graph.Edge;
+import graphs.graph.WeightedGraph;
+
+/**
+ * A* search: point-to-point Dijkstra guided by the great-circle distance
+ * to the end. Vertex names must be "lon,lat" pairs (as in
+ * baltimore.streets.txt); otherwise this behaves like plain Dijkstra.
+ *
+ * <p>Road lengths are not in meters, so the great-circle distance is
+ * scaled by the smallest road length per meter found in the network.
+ * With that scale the heuristic never drops by more than the length of
+ * a road, so paths found are the same as Dijkstra's.</p>
+ */
+public class AStarStreetSearcher extends DijkstraStreetSearcher {
+  // keep the scale a hair below the exact minimum to absorb rounding
+  private static final double SCALE_SLACK = 1 - 1e-9;
+
+  private Coordinates coordinates; // null if names are not coordinates
+  private double scale;            // road length per meter, 0 if unknown
+
+  /**
+   * Creates a StreetSearcher object.
+   *
+   * @param graph an implementation of WeightedGraph ADT.
+   */
+  public AStarStreetSearcher(WeightedGraph<String, String> graph) {
+    super(graph, true);
+  }
+
+  // Parse every vertex name once and work out the heuristic scale
+  @Override
+  protected void afterLoad() {
+    int n = graph.vertexIdBound();
+    scale = 0.0;
+    coordinates = Coordinates.of(graph);
+    if (coordinates == null) {
+      return; // not coordinates, leave the heuristic at 0
+    }
+
+    double minRatio = Double.POSITIVE_INFINITY;
+    for (int id = 0; id < n; id++) {
+      for (Edge<String> road : graph.outgoing(graph.vertex(id))) {
+        double meters = coordinates.greatCircle(id, graph.id(graph.to(road)));
+        if (meters > 0) {
+          minRatio = Math.min(minRatio, graph.weight(road) / meters);
+        }
+      }
+    }
+    if (minRatio < Double.POSITIVE_INFINITY) {
+      scale = minRatio * SCALE_SLACK;
+    }
+  }
+
+  @Override
+  protected double heuristic(int id, int endId) {
+    if (scale == 0.0) {
+      return 0.0;
+    }
+    return scale * coordinates.greatCircle(id, endId);
+  }
+}
@@ -0,0 +1,162 @@
+package graphs.spp;
+
+import graphs.graph.Edge;
+import graphs.graph.EdgeCursor;
+import graphs.graph.Vertex;
+import graphs.graph.WeightedGraph;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bidirectional Dijkstra: one search grows forward from the start over
+ * outgoing roads, another grows backward from the end over incoming
+ * roads, and the shortest path goes through the vertex where they meet.
+ */
+public class BidirectionalDijkstraStreetSearcher extends DijkstraStreetSearcher {
+
+  /**
+   * Creates a StreetSearcher object.
+   *
+   * @param graph an implementation of WeightedGraph ADT.
+   */
+  public BidirectionalDijkstraStreetSearcher(WeightedGraph<String, String> graph) {
+    super(graph, true);
+  }
+
+  @Override
+  public Route route(String startName, String endName) {
+    checkValidEndpoint(startName);
+    checkValidEndpoint(endName);
+    Vertex<String> start = vertices.get(startName);
+    Vertex<String> end = vertices.get(endName);
+    if (start.equals(end)) {
+      return new Route(startName, endName, 0.0, new ArrayList<>());
+    }
+
+    // the backward context keeps the road out of each vertex towards the end
+    Query query = new Query(acquireContext(), acquireContext());
+    try {
+      double totalDist = search(query, graph.id(start), graph.id(end));
+      return new Route(startName, endName, totalDist, getPath(query));
+    } finally {
+      releaseContext(query.forward);
+      releaseContext(query.backward);
+    }
+  }
+
+  // State of one query: both searches and the best path seen so far
+  private static final class Query {
+    final SearchContext forward;
+    final SearchContext backward;
+    double bestDistance = Double.POSITIVE_INFINITY;
+    int meeting = -1; // vertex id on the best path, -1 if none
+
+    Query(SearchContext forward, SearchContext backward) {
+      this.forward = forward;
+      this.backward = backward;
+    }
+  }
+
+  // helper method: alternate between the two searches until they can't
+  // improve on the best path through a vertex both have reached
+  private double search(Query query, int startId, int endId) {
+    VertexQueue forwardQueue = query.forward.queue();
+    VertexQueue backwardQueue = query.backward.queue();
+    query.forward.reach(startId, 0.0, -1);
+    query.backward.reach(endId, 0.0, -1);
+    forwardQueue.insert(startId, 0.0);
+    backwardQueue.insert(endId, 0.0);
+    int settled = 0;
+    while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()) {
+      double forwardMin = forwardQueue.key(forwardQueue.peek());
+      double backwardMin = backwardQueue.key(backwardQueue.peek());
+      if (forwardMin + backwardMin >= query.bestDistance) {
+        break; // any path not seen yet is at least this long
+      }
+      settled++;
+      if (forwardMin <= backwardMin) {
+        int curr = forwardQueue.poll();
+        query.forward.settle(curr);
+        updateForward(query, curr);
+      } else {
+        int curr = backwardQueue.poll();
+        query.backward.settle(curr);
+        updateBackward(query, curr);
+      }
+    }
+    numSettled = settled;
+    return query.bestDistance;
+  }
+
+  // helper method: relax outgoing roads of a vertex settled from the start
+  private void updateForward(Query query, int curr) {
+    SearchContext forward = query.forward;
+    EdgeCursor<String> roads = forward.cursor(graph);
+    for (roads.outgoing(curr); roads.next(); ) {
+      int tempId = roads.vertex();
+      if (!forward.isSettled(tempId)) {
+        double currDist = forward.distance(curr) + roads.weight();
+        if (forward.distance(tempId) > currDist) {
+          forward.reach(tempId, currDist, curr);
+          queue(forward.queue(), tempId, currDist);
+          meet(query, tempId);
+        }
+      }
+    }
+  }
+
+  // helper method: relax incoming roads of a vertex settled from the end
+  private void updateBackward(Query query, int curr) {
+    SearchContext backward = query.backward;
+    EdgeCursor<String> roads = backward.cursor(graph);
+    for (roads.incoming(curr); roads.next(); ) {
+      int tempId = roads.vertex();
+      if (!backward.isSettled(tempId)) {
+        double currDist = backward.distance(curr) + roads.weight();
+        if (backward.distance(tempId) > currDist) {
+          backward.reach(tempId, currDist, curr);
+          queue(backward.queue(), tempId, currDist);
+          meet(query, tempId);
+        }
+      }
+    }
+  }
+
+  // helper method: insert or decrease a vertex in one of the queues
+  private static void queue(VertexQueue queue, int id, double dist) {
+    if (queue.contains(id)) {
+      queue.decreaseKey(id, dist);
+    } else {
+      queue.insert(id, dist);
+    }
+  }
+
+  // helper method: check the path through a vertex both searches reached
+  private static void meet(Query query, int id) {
+    double through = query.forward.distance(id) + query.backward.distance(id);
+    if (through < query.bestDistance) {
+      query.bestDistance = through;
+      query.meeting = id;
+    }
+  }
+
+  // helper method: join the two halves at the meeting vertex, start first
+  private List<Edge<String>> getPath(Query query) {
+    if (query.meeting < 0) {
+      return null; // no path
+    }
+    List<Edge<String>> path = new ArrayList<>();
+    EdgeCursor<String> roads = query.forward.cursor(graph);
+    int cur = query.meeting;
+    for (int prev; (prev = query.forward.predecessor(cur)) >= 0; cur = prev) {
+      path.add(roads.find(prev, cur)); // meeting to start
+    }
+    Collections.reverse(path);
+    cur = query.meeting;
+    for (int next; (next = query.backward.predecessor(cur)) >= 0; cur = next) {
+      path.add(roads.find(cur, next)); // meeting to end
+    }
+    return path;
+  }
+}
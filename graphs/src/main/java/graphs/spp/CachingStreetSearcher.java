@@ -0,0 +1,211 @@
+package graphs.spp;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Wraps another StreetSearcher and remembers the last routes it found,
+ * keyed by (start, end) name. Once full, the least recently used route
+ * is evicted. Any change to the graph (see Graph.version()) empties the
+ * cache before the next lookup, so routes never outlive the network they
+ * were found in.
+ *
+ * <p>Load the network through this searcher, not the wrapped one. Lookups
+ * are safe from several threads; two threads that miss on the same pair
+ * at once may both search it.</p>
+ */
+public class CachingStreetSearcher extends StreetSearcher {
+  private final StreetSearcher searcher;
+  private final int capacity;
+  private final LinkedHashMap<String, Route> cache; // guarded by this
+  private long cachedVersion;                        // graph version of cache
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Creates a CachingStreetSearcher object.
+   *
+   * @param searcher searcher to find routes that are not cached.
+   * @param capacity most routes kept at once.
+   * @throws IllegalArgumentException if capacity is not positive.
+   */
+  public CachingStreetSearcher(StreetSearcher searcher, int capacity) {
+    super(searcher.graph);
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.searcher = searcher;
+    this.capacity = capacity;
+    this.vertices = searcher.vertices; // same endpoints as searcher
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) { // in access order
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Route> eldest) {
+        if (size() > CachingStreetSearcher.this.capacity) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+    this.cachedVersion = graph.version();
+  }
+
+  @Override
+  public Route route(String startName, String endName) {
+    checkValidEndpoint(startName);
+    checkValidEndpoint(endName);
+    String key = key(startName, endName);
+    long version = graph.version();
+    Route route = lookup(key);
+    if (route == null) {
+      route = searcher.route(startName, endName);
+      numSettled = searcher.numSettled;
+      store(key, route, version);
+    }
+    return route;
+  }
+
+  // Cached routes are served here; the rest go to searcher in one batch
+  @Override
+  protected List<Route> routesFrom(String startName, List<String> endNames) {
+    long version = graph.version();
+    List<Route> found = new ArrayList<>();
+    List<String> missed = new ArrayList<>();
+    for (String endName : endNames) {
+      Route route = lookup(key(startName, endName));
+      found.add(route);
+      if (route == null) {
+        missed.add(endName);
+      }
+    }
+    if (missed.isEmpty()) {
+      return found;
+    }
+
+    List<Route> searched = searcher.routesFrom(startName, missed);
+    int next = 0;
+    for (int i = 0; i < found.size(); i++) {
+      if (found.get(i) == null) {
+        Route route = searched.get(next++);
+        store(key(startName, route.end()), route, version);
+        found.set(i, route);
+      }
+    }
+    return found;
+  }
+
+  @Override
+  public void loadNetwork(File data, ForkJoinPool pool) throws FileNotFoundException {
+    searcher.loadNetwork(data, pool);
+    loadedBySearcher();
+  }
+
+  @Override
+  public void loadCompactNetwork(File data, ForkJoinPool pool) throws FileNotFoundException {
+    searcher.loadCompactNetwork(data, pool);
+    loadedBySearcher();
+  }
+
+  @Override
+  public void loadOffHeapNetwork(File data, ForkJoinPool pool) throws FileNotFoundException {
+    searcher.loadOffHeapNetwork(data, pool);
+    loadedBySearcher();
+  }
+
+  /**
+   * Number of lookups answered from the cache.
+   *
+   * @return hits so far.
+   */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /**
+   * Number of lookups that had to search.
+   *
+   * @return misses so far.
+   */
+  public synchronized long misses() {
+    return misses;
+  }
+
+  /**
+   * Number of routes dropped to stay within capacity. Routes dropped
+   * because the graph changed are not counted.
+   *
+   * @return evictions so far.
+   */
+  public synchronized long evictions() {
+    return evictions;
+  }
+
+  /**
+   * Number of routes cached right now.
+   *
+   * @return the cache size, at most capacity.
+   */
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  /**
+   * Most routes kept at once.
+   *
+   * @return the capacity.
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Drop every cached route. The counters are kept.
+   */
+  public synchronized void clear() {
+    cache.clear();
+  }
+
+  // helper method: cached route for key, counting the hit or miss; the
+  // cache is emptied first if the graph changed since it was filled
+  private synchronized Route lookup(String key) {
+    if (graph.version() != cachedVersion) {
+      cache.clear();
+      cachedVersion = graph.version();
+    }
+    Route route = cache.get(key);
+    if (route == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return route;
+  }
+
+  // helper method: cache a route found at version, unless the graph has
+  // changed while it was searched for
+  private synchronized void store(String key, Route route, long version) {
+    if (version == cachedVersion && version == graph.version()) {
+      cache.put(key, route);
+    }
+  }
+
+  // helper method: pick up the network the wrapped searcher just loaded
+  private synchronized void loadedBySearcher() {
+    graph = searcher.graph; // the compact and off-heap loads replace it
+    vertices = searcher.vertices;
+    numLoaded = searcher.numLoaded;
+    cache.clear();
+    cachedVersion = graph.version();
+  }
+
+  // helper method: names never contain a space (see NetworkReader)
+  private static String key(String startName, String endName) {
+    return startName + " " + endName;
+  }
+}
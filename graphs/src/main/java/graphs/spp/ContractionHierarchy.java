@@ -0,0 +1,492 @@
+package graphs.spp;
+
+import java.util.Arrays;
+
+/**
+ * Contraction hierarchy over a static directed graph with vertex ids
+ * 0..n-1 and non-negative arc weights.
+ *
+ * <p>Preprocessing contracts vertices one at a time, cheapest first
+ * (edge difference plus contracted neighbors, updated lazily). When a
+ * vertex v is contracted, a shortcut u-&gt;w is added for each pair of
+ * neighbors whose only shortest path goes through v; a bounded witness
+ * search looks for another path first. Queries are bidirectional
+ * searches that only follow arcs to higher ranked vertices, and the
+ * shortcuts on the path found are unpacked back into original arcs.</p>
+ */
+public class ContractionHierarchy {
+  // settle limit for witness searches; lower is faster but adds shortcuts
+  private static final int WITNESS_SETTLE_LIMIT = 500;
+
+  private final int numVertices;
+  private final int numOriginal;
+  private int numArcs;
+  private int[] arcFrom;
+  private int[] arcTo;
+  private double[] arcWeight;
+  private int[] arcFirst;  // shortcut: arc from u to the bypassed vertex, -1 if original
+  private int[] arcSecond; // shortcut: arc from the bypassed vertex to w
+  private final int[] rank; // contraction order
+
+  // query graph: upward arcs out of each vertex, and downward arcs into it
+  private int[] upOffsets;
+  private int[] upArcs;
+  private int[] downOffsets;
+  private int[] downArcs;
+
+  private final long preprocessingMillis;
+  private final ThreadLocal<Search> searches;
+
+  /**
+   * Build the hierarchy. Arc i of the input keeps id i, so paths can be
+   * mapped back to the caller's edges.
+   *
+   * @param numVertices number of vertices.
+   * @param from        start vertex of each arc.
+   * @param to          end vertex of each arc.
+   * @param weight      weight of each arc, must not be negative.
+   */
+  public ContractionHierarchy(int numVertices, int[] from, int[] to, double[] weight) {
+    long startTime = System.currentTimeMillis();
+    this.numVertices = numVertices;
+    this.numOriginal = from.length;
+    numArcs = from.length;
+    int capacity = Math.max(16, 2 * numArcs);
+    arcFrom = Arrays.copyOf(from, capacity);
+    arcTo = Arrays.copyOf(to, capacity);
+    arcWeight = Arrays.copyOf(weight, capacity);
+    arcFirst = new int[capacity];
+    arcSecond = new int[capacity];
+    Arrays.fill(arcFirst, -1);
+    Arrays.fill(arcSecond, -1);
+    rank = new int[numVertices];
+    new Contraction().run();
+    buildQueryGraph();
+    preprocessingMillis = System.currentTimeMillis() - startTime;
+    searches = ThreadLocal.withInitial(Search::new);
+  }
+
+  /**
+   * Number of shortcut arcs added by preprocessing.
+   *
+   * @return the number of shortcuts.
+   */
+  public int shortcutCount() {
+    return numArcs - numOriginal;
+  }
+
+  /**
+   * Time spent building the hierarchy.
+   *
+   * @return preprocessing time in milliseconds.
+   */
+  public long preprocessingMillis() {
+    return preprocessingMillis;
+  }
+
+  /**
+   * Contraction order of a vertex.
+   *
+   * @param id vertex id.
+   * @return 0 for the first vertex contracted, n-1 for the last.
+   */
+  public int rank(int id) {
+    return rank[id];
+  }
+
+  /**
+   * Find a shortest path. Each thread gets its own search state, which
+   * is reused by its next query.
+   *
+   * @param start start vertex id.
+   * @param end   end vertex id.
+   * @return the search, holding the distance, path and statistics.
+   */
+  public Search search(int start, int end) {
+    Search search = searches.get();
+    search.run(start, end);
+    return search;
+  }
+
+  // helper method: lay out upward/downward arcs as arrays for queries
+  private void buildQueryGraph() {
+    upOffsets = new int[numVertices + 1];
+    downOffsets = new int[numVertices + 1];
+    for (int a = 0; a < numArcs; a++) {
+      if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+        upOffsets[arcFrom[a] + 1]++;
+      } else {
+        downOffsets[arcTo[a] + 1]++;
+      }
+    }
+    for (int v = 0; v < numVertices; v++) {
+      upOffsets[v + 1] += upOffsets[v];
+      downOffsets[v + 1] += downOffsets[v];
+    }
+    upArcs = new int[upOffsets[numVertices]];
+    downArcs = new int[downOffsets[numVertices]];
+    int[] upNext = Arrays.copyOf(upOffsets, numVertices);
+    int[] downNext = Arrays.copyOf(downOffsets, numVertices);
+    for (int a = 0; a < numArcs; a++) {
+      if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+        upArcs[upNext[arcFrom[a]]++] = a;
+      } else {
+        downArcs[downNext[arcTo[a]]++] = a;
+      }
+    }
+  }
+
+  // helper method: add a shortcut u->w made of arcs first and second,
+  // or shorten an existing arc u->w
+  private void addShortcut(int u, int w, double dist, int first, int second,
+                           IntList[] outArcs, IntList[] inArcs) {
+    for (int i = 0; i < outArcs[u].size; i++) {
+      int a = outArcs[u].items[i];
+      if (arcTo[a] == w) {
+        if (arcWeight[a] > dist) {
+          arcWeight[a] = dist;
+          arcFirst[a] = first;
+          arcSecond[a] = second;
+        }
+        return;
+      }
+    }
+    if (numArcs == arcFrom.length) {
+      int capacity = 2 * numArcs;
+      arcFrom = Arrays.copyOf(arcFrom, capacity);
+      arcTo = Arrays.copyOf(arcTo, capacity);
+      arcWeight = Arrays.copyOf(arcWeight, capacity);
+      arcFirst = Arrays.copyOf(arcFirst, capacity);
+      arcSecond = Arrays.copyOf(arcSecond, capacity);
+    }
+    int a = numArcs++;
+    arcFrom[a] = u;
+    arcTo[a] = w;
+    arcWeight[a] = dist;
+    arcFirst[a] = first;
+    arcSecond[a] = second;
+    outArcs[u].add(a);
+    inArcs[w].add(a);
+  }
+
+  // helper method: append the original arcs making up arc a to path
+  private void unpack(int a, IntList path) {
+    if (arcFirst[a] < 0) {
+      path.add(a);
+    } else {
+      unpack(arcFirst[a], path);
+      unpack(arcSecond[a], path);
+    }
+  }
+
+
+  // State used only while preprocessing
+  private final class Contraction {
+    private final IntList[] outArcs = new IntList[numVertices];
+    private final IntList[] inArcs = new IntList[numVertices];
+    private final boolean[] contracted = new boolean[numVertices];
+    private final int[] deletedNeighbors = new int[numVertices];
+    // witness search state, reset through the stamp instead of clearing
+    private final double[] witnessDist = new double[numVertices];
+    private final int[] witnessStamp = new int[numVertices];
+    private final IndexedMinHeap witnessQueue = new IndexedMinHeap(numVertices);
+    private int stamp = 0;
+
+    void run() {
+      for (int v = 0; v < numVertices; v++) {
+        outArcs[v] = new IntList();
+        inArcs[v] = new IntList();
+      }
+      for (int a = 0; a < numArcs; a++) {
+        outArcs[arcFrom[a]].add(a);
+        inArcs[arcTo[a]].add(a);
+      }
+      IndexedMinHeap order = new IndexedMinHeap(numVertices);
+      for (int v = 0; v < numVertices; v++) {
+        order.insert(v, priority(v));
+      }
+      int next = 0;
+      while (!order.isEmpty()) {
+        int v = order.poll();
+        double p = priority(v);
+        if (!order.isEmpty() && p > order.key(order.peek())) {
+          order.insert(v, p); // lazy update: no longer the cheapest
+          continue;
+        }
+        contract(v, false);
+        contracted[v] = true;
+        rank[v] = next++;
+        markNeighbors(outArcs[v], arcTo);
+        markNeighbors(inArcs[v], arcFrom);
+      }
+    }
+
+    // helper method: count a contracted vertex against its neighbors
+    private void markNeighbors(IntList arcs, int[] ends) {
+      for (int i = 0; i < arcs.size; i++) {
+        int u = ends[arcs.items[i]];
+        if (!contracted[u]) {
+          deletedNeighbors[u]++;
+        }
+      }
+    }
+
+    // helper method: shortcuts needed minus arcs removed, plus neighbors
+    // already gone (keeps the contraction spread out over the graph)
+    private double priority(int v) {
+      int shortcuts = contract(v, true);
+      int removed = liveCount(outArcs[v], arcTo) + liveCount(inArcs[v], arcFrom);
+      return 2 * (shortcuts - removed) + deletedNeighbors[v];
+    }
+
+    private int liveCount(IntList arcs, int[] ends) {
+      int count = 0;
+      for (int i = 0; i < arcs.size; i++) {
+        if (!contracted[ends[arcs.items[i]]]) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    // helper method: find (and unless simulating, add) the shortcuts that
+    // contracting v needs; returns how many
+    private int contract(int v, boolean simulate) {
+      int shortcuts = 0;
+      IntList in = inArcs[v];
+      IntList out = outArcs[v];
+      for (int i = 0; i < in.size; i++) {
+        int first = in.items[i];
+        int u = arcFrom[first];
+        if (contracted[u]) {
+          continue;
+        }
+        double maxDist = 0;
+        for (int j = 0; j < out.size; j++) {
+          int w = arcTo[out.items[j]];
+          if (!contracted[w] && w != u) {
+            maxDist = Math.max(maxDist, arcWeight[first] + arcWeight[out.items[j]]);
+          }
+        }
+        if (maxDist == 0) {
+          continue;
+        }
+        witnessSearch(u, v, maxDist);
+        for (int j = 0; j < out.size; j++) {
+          int second = out.items[j];
+          int w = arcTo[second];
+          if (contracted[w] || w == u) {
+            continue;
+          }
+          double dist = arcWeight[first] + arcWeight[second];
+          if (witness(w) > dist) {
+            shortcuts++;
+            if (!simulate) {
+              addShortcut(u, w, dist, first, second, outArcs, inArcs);
+            }
+          }
+        }
+      }
+      return shortcuts;
+    }
+
+    // helper method: bounded Dijkstra from u that avoids v
+    private void witnessSearch(int u, int v, double maxDist) {
+      stamp++;
+      witnessQueue.clear();
+      witnessDist[u] = 0.0;
+      witnessStamp[u] = stamp;
+      witnessQueue.insert(u, 0.0);
+      int settled = 0;
+      while (!witnessQueue.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+        int x = witnessQueue.poll();
+        settled++;
+        if (witnessDist[x] > maxDist) {
+          break;
+        }
+        IntList out = outArcs[x];
+        for (int i = 0; i < out.size; i++) {
+          int a = out.items[i];
+          int y = arcTo[a];
+          if (contracted[y] || y == v) {
+            continue;
+          }
+          double dist = witnessDist[x] + arcWeight[a];
+          if (dist < witness(y)) {
+            boolean queued = witnessStamp[y] == stamp && witnessQueue.contains(y);
+            witnessDist[y] = dist;
+            witnessStamp[y] = stamp;
+            if (queued) {
+              witnessQueue.decreaseKey(y, dist);
+            } else if (dist <= maxDist) {
+              witnessQueue.insert(y, dist);
+            }
+          }
+        }
+      }
+    }
+
+    private double witness(int w) {
+      return witnessStamp[w] == stamp ? witnessDist[w] : Double.POSITIVE_INFINITY;
+    }
+  }
+
+
+  /**
+   * State of one query: an upward search from the start and one from the
+   * end (over reversed arcs). Arrays are reset through a stamp, so a
+   * query only costs time for the vertices it touches.
+   */
+  public final class Search {
+    private final double[][] dist = new double[2][numVertices];
+    private final int[][] parentArc = new int[2][numVertices];
+    private final int[][] stamps = new int[2][numVertices];
+    private final IndexedMinHeap[] queues = {
+        new IndexedMinHeap(numVertices), new IndexedMinHeap(numVertices)};
+    private final IntList path = new IntList();
+    private int stamp = 0;
+    private double distance;
+    private int meeting;
+    private int settled;
+
+    private Search() {
+    }
+
+    /**
+     * Length of the path found.
+     *
+     * @return the distance, or infinity if there is no path.
+     */
+    public double distance() {
+      return distance;
+    }
+
+    /**
+     * Number of vertices settled by both directions together.
+     *
+     * @return vertices settled.
+     */
+    public int settled() {
+      return settled;
+    }
+
+    /**
+     * Original arcs on the path found, start to end.
+     *
+     * @return arc ids as given to the constructor; empty if no path.
+     */
+    public int[] path() {
+      return Arrays.copyOf(path.items, path.size);
+    }
+
+    private double dist(int side, int v) {
+      return stamps[side][v] == stamp ? dist[side][v] : Double.POSITIVE_INFINITY;
+    }
+
+    private void run(int start, int end) {
+      stamp++;
+      path.size = 0;
+      distance = Double.POSITIVE_INFINITY;
+      meeting = -1;
+      settled = 0;
+      reach(0, start, 0.0, -1);
+      reach(1, end, 0.0, -1);
+      reachedBoth(start);
+      while (true) {
+        int side = pickSide();
+        if (side < 0) {
+          break;
+        }
+        int x = queues[side].poll();
+        settled++;
+        if (side == 0) {
+          relax(0, x, upOffsets, upArcs, arcTo);
+        } else {
+          relax(1, x, downOffsets, downArcs, arcFrom);
+        }
+      }
+      queues[0].clear();
+      queues[1].clear();
+      if (meeting >= 0) {
+        trace(0, meeting);
+        trace(1, meeting);
+      }
+    }
+
+    // helper method: side with the smaller key that can still improve
+    private int pickSide() {
+      double forward = queues[0].isEmpty() ? Double.POSITIVE_INFINITY : queues[0].key(queues[0].peek());
+      double backward = queues[1].isEmpty() ? Double.POSITIVE_INFINITY : queues[1].key(queues[1].peek());
+      if (Math.min(forward, backward) >= distance) {
+        return -1;
+      }
+      return forward <= backward ? 0 : 1;
+    }
+
+    private void relax(int side, int x, int[] offsets, int[] arcs, int[] ends) {
+      for (int i = offsets[x]; i < offsets[x + 1]; i++) {
+        int a = arcs[i];
+        int y = ends[a];
+        double d = dist[side][x] + arcWeight[a];
+        if (d < dist(side, y)) {
+          reach(side, y, d, a);
+          reachedBoth(y);
+        }
+      }
+    }
+
+    private void reach(int side, int v, double d, int arc) {
+      boolean queued = stamps[side][v] == stamp && queues[side].contains(v);
+      dist[side][v] = d;
+      parentArc[side][v] = arc;
+      stamps[side][v] = stamp;
+      if (queued) {
+        queues[side].decreaseKey(v, d);
+      } else {
+        queues[side].insert(v, d);
+      }
+    }
+
+    private void reachedBoth(int v) {
+      double through = dist(0, v) + dist(1, v);
+      if (through < distance) {
+        distance = through;
+        meeting = v;
+      }
+    }
+
+    // helper method: unpack the arcs from the start to meeting (side 0)
+    // or from meeting to the end (side 1) onto path
+    private void trace(int side, int v) {
+      IntList arcs = new IntList();
+      while (parentArc[side][v] >= 0) {
+        int a = parentArc[side][v];
+        arcs.add(a);
+        v = side == 0 ? arcFrom[a] : arcTo[a];
+      }
+      if (side == 0) {
+        for (int i = arcs.size - 1; i >= 0; i--) {
+          unpack(arcs.items[i], path);
+        }
+      } else {
+        for (int i = 0; i < arcs.size; i++) {
+          unpack(arcs.items[i], path);
+        }
+      }
+    }
+  }
+
+
+  // Growable list of ints
+  private static final class IntList {
+    int[] items = new int[4];
+    int size = 0;
+
+    void add(int item) {
+      if (size == items.length) {
+        items = Arrays.copyOf(items, 2 * size);
+      }
+      items[size++] = item;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package graphs.spp;
+
+import graphs.graph.Edge;
+import graphs.graph.Vertex;
+import graphs.graph.WeightedGraph;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers queries with a ContractionHierarchy built once, right after the
+ * network is loaded. The hierarchy is not updated if the graph changes
+ * afterwards; load the network again instead.
+ */
+public class ContractionHierarchyStreetSearcher extends StreetSearcher {
+  private ContractionHierarchy hierarchy;
+  private List<Edge<String>> roads; // by arc id in the hierarchy
+
+  /**
+   * Creates a StreetSearcher object.
+   *
+   * @param graph an implementation of WeightedGraph ADT.
+   */
+  public ContractionHierarchyStreetSearcher(WeightedGraph<String, String> graph) {
+    super(graph);
+  }
+
+  /**
+   * The hierarchy built for the loaded network, for its statistics.
+   *
+   * @return the hierarchy, or null if no network is loaded.
+   */
+  public ContractionHierarchy getHierarchy() {
+    return hierarchy;
+  }
+
+  // Number every road as an arc and preprocess
+  @Override
+  protected void afterLoad() {
+    roads = new ArrayList<>();
+    List<Integer> from = new ArrayList<>();
+    for (int id = 0; id < graph.vertexIdBound(); id++) {
+      for (Edge<String> road : graph.outgoing(graph.vertex(id))) {
+        roads.add(road);
+        from.add(id);
+      }
+    }
+    int m = roads.size();
+    int[] arcFrom = new int[m];
+    int[] arcTo = new int[m];
+    double[] arcWeight = new double[m];
+    for (int a = 0; a < m; a++) {
+      arcFrom[a] = from.get(a);
+      arcTo[a] = graph.id(graph.to(roads.get(a)));
+      arcWeight[a] = graph.weight(roads.get(a));
+    }
+    hierarchy = new ContractionHierarchy(graph.vertexIdBound(), arcFrom, arcTo, arcWeight);
+    if (VERBOSE) {
+      System.out.printf("Contraction hierarchy: %d shortcuts in %d milliseconds\n",
+          hierarchy.shortcutCount(), hierarchy.preprocessingMillis());
+    }
+  }
+
+  @Override
+  public Route route(String startName, String endName) {
+    checkValidEndpoint(startName);
+    checkValidEndpoint(endName);
+    Vertex<String> start = vertices.get(startName);
+    Vertex<String> end = vertices.get(endName);
+    if (start.equals(end)) {
+      return new Route(startName, endName, 0.0, new ArrayList<>());
+    }
+
+    ContractionHierarchy.Search search =
+        hierarchy.search(graph.id(start), graph.id(end));
+    numSettled = search.settled();
+
+    List<Edge<String>> path = null;
+    if (search.distance() < Double.POSITIVE_INFINITY) {
+      path = new ArrayList<>();
+      for (int arc : search.path()) { // start first
+        path.add(roads.get(arc));
+      }
+    }
+    return new Route(startName, endName, search.distance(), path);
+  }
+}
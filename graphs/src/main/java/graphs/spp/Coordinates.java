@@ -0,0 +1,134 @@
+package graphs.spp;
+
+import graphs.graph.Graph;
+import graphs.graph.Vertex;
+import java.util.Arrays;
+
+/**
+ * Positions of the vertices of a street network whose vertex names are
+ * "lon,lat" pairs in degrees (as in baltimore.streets.txt), by vertex id,
+ * with great-circle distances between them. Ids no vertex has are NaN.
+ */
+public final class Coordinates {
+
+  /** Mean radius of the earth in meters. */
+  public static final double EARTH_RADIUS = 6371008.8;
+
+  private final double[] latitude;  // radians, by vertex id
+  private final double[] longitude; // radians, by vertex id
+  private final double[] cosLatitude;
+
+  private Coordinates(int n) {
+    latitude = new double[n];
+    longitude = new double[n];
+    cosLatitude = new double[n];
+    Arrays.fill(latitude, Double.NaN);
+    Arrays.fill(longitude, Double.NaN);
+  }
+
+  /**
+   * Parse the name of every vertex of a graph.
+   *
+   * @param graph network whose vertices are named "lon,lat".
+   * @return the positions, or null if some name is not a "lon,lat" pair.
+   */
+  public static Coordinates of(Graph<String, ?> graph) {
+    Coordinates coordinates = new Coordinates(graph.vertexIdBound());
+    for (Vertex<String> v : graph.vertices()) {
+      double[] lonLat = parse(v.get());
+      if (lonLat == null) {
+        return null;
+      }
+      int id = graph.id(v);
+      coordinates.longitude[id] = Math.toRadians(lonLat[0]);
+      coordinates.latitude[id] = Math.toRadians(lonLat[1]);
+      coordinates.cosLatitude[id] = Math.cos(coordinates.latitude[id]);
+    }
+    return coordinates;
+  }
+
+  /**
+   * Parse one vertex name.
+   *
+   * @param name name of the form "lon,lat", in degrees.
+   * @return {lon, lat}, or null if name is not of that form.
+   */
+  public static double[] parse(String name) {
+    int comma = name.indexOf(',');
+    if (comma < 0 || name.indexOf(',', comma + 1) >= 0) {
+      return null;
+    }
+    try {
+      return new double[]{Double.parseDouble(name.substring(0, comma)),
+          Double.parseDouble(name.substring(comma + 1))};
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Number of positions.
+   *
+   * @return the vertex id bound of the graph they were parsed from.
+   */
+  public int size() {
+    return latitude.length;
+  }
+
+  /**
+   * Longitude of a vertex.
+   *
+   * @param id vertex id.
+   * @return longitude in degrees.
+   */
+  public double longitude(int id) {
+    return Math.toDegrees(longitude[id]);
+  }
+
+  /**
+   * Latitude of a vertex.
+   *
+   * @param id vertex id.
+   * @return latitude in degrees.
+   */
+  public double latitude(int id) {
+    return Math.toDegrees(latitude[id]);
+  }
+
+  /**
+   * Haversine distance between two vertices.
+   *
+   * @param a vertex id.
+   * @param b vertex id.
+   * @return distance in meters.
+   */
+  public double greatCircle(int a, int b) {
+    return haversine(latitude[a], longitude[a], cosLatitude[a],
+        latitude[b], longitude[b], cosLatitude[b]);
+  }
+
+  /**
+   * Haversine distance between two points.
+   *
+   * @param lon1 longitude of the first point, in degrees.
+   * @param lat1 latitude of the first point, in degrees.
+   * @param lon2 longitude of the second point, in degrees.
+   * @param lat2 latitude of the second point, in degrees.
+   * @return distance in meters.
+   */
+  public static double greatCircle(double lon1, double lat1, double lon2, double lat2) {
+    double phi1 = Math.toRadians(lat1);
+    double phi2 = Math.toRadians(lat2);
+    return haversine(phi1, Math.toRadians(lon1), Math.cos(phi1),
+        phi2, Math.toRadians(lon2), Math.cos(phi2));
+  }
+
+  // helper method: haversine formula on radians, with the cosines given
+  private static double haversine(double lat1, double lon1, double cos1,
+                                  double lat2, double lon2, double cos2) {
+    double sinLat = Math.sin((lat2 - lat1) / 2);
+    double sinLon = Math.sin((lon2 - lon1) / 2);
+    double h = sinLat * sinLat + cos1 * cos2 * sinLon * sinLon;
+    return 2 * EARTH_RADIUS * Math.asin(Math.min(1.0, Math.sqrt(h)));
+  }
+}
@@ -0,0 +1,444 @@
+package graphs.spp;
+
+import graphs.graph.EdgeCursor;
+import graphs.graph.Graph;
+import graphs.graph.Vertex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parallel single-source shortest paths by delta-stepping (Meyer and
+ * Sanders). Vertices wait in buckets of width delta by tentative distance;
+ * the lowest bucket is emptied by relaxing the light edges (weight at most
+ * delta) of all its vertices at once, again for every vertex that falls
+ * back into it, and then the heavy edges of everything it settled.
+ *
+ * <p>Each phase runs on a pool in two steps with no locks or atomics: the
+ * frontier is split evenly and every part writes relaxation requests into
+ * one outbox per owner, then every owner applies the requests for its own
+ * block of vertex ids, keeps its own buckets and drains the next frontier.
+ * Small frontiers are relaxed on the calling thread instead, since a
+ * phase on the pool costs a few task hand-offs.</p>
+ *
+ * <p>The graph is copied into primitive arrays when the object is
+ * created, light edges first at each vertex, so later changes to the
+ * graph are not seen. Trees may be grown from several threads at once.</p>
+ */
+public final class DeltaStepping {
+  // frontiers smaller than this are relaxed without the pool
+  private static final int PARALLEL_FRONTIER = 256;
+  // most buckets a ring may need (longest edge / delta)
+  private static final int MAX_BUCKETS = 1 << 20;
+  // buckets a ring starts with; it grows only as far as entries land
+  private static final int FIRST_BUCKETS = 16;
+
+  private final int n;
+  private final double delta;
+  private final int numBuckets; // largest ring size, covers the longest edge
+  private final int[] offsets;  // n + 1 entries
+  private final int[] lightEnd; // heavy edges of v are lightEnd[v]..offsets[v+1]-1
+  private final int[] targets;
+  private final double[] weights;
+
+  /**
+   * Copy a graph, with delta set to the mean edge weight.
+   *
+   * @param graph graph with non-negative edge weights.
+   * @throws IllegalArgumentException if an edge weight is negative.
+   */
+  public <V, E> DeltaStepping(Graph<V, E> graph) {
+    this(graph, meanWeight(graph));
+  }
+
+  /**
+   * Copy a graph.
+   *
+   * @param graph graph with non-negative edge weights.
+   * @param delta bucket width: lower means less work wasted on distances
+   *              that do not last, higher means fewer, larger phases.
+   * @throws IllegalArgumentException if delta is not positive, is so
+   *                                  small that the longest edge spans
+   *                                  too many buckets, or an edge weight
+   *                                  is negative.
+   */
+  public <V, E> DeltaStepping(Graph<V, E> graph, double delta) {
+    if (!(delta > 0) || Double.isInfinite(delta)) {
+      throw new IllegalArgumentException("delta must be positive: " + delta);
+    }
+    this.n = graph.vertexIdBound();
+    this.delta = delta;
+    offsets = new int[n + 1];
+    lightEnd = new int[n];
+    EdgeCursor<E> cursor = graph.cursor();
+    for (Vertex<V> v : graph.vertices()) {
+      int id = graph.id(v);
+      for (cursor.outgoing(id); cursor.next(); ) {
+        offsets[id + 1]++;
+      }
+    }
+    for (int v = 0; v < n; v++) {
+      offsets[v + 1] += offsets[v];
+    }
+    targets = new int[offsets[n]];
+    weights = new double[offsets[n]];
+    double longest = 0;
+    for (Vertex<V> v : graph.vertices()) {
+      int id = graph.id(v);
+      int light = offsets[id];
+      int heavy = offsets[id + 1];
+      for (cursor.outgoing(id); cursor.next(); ) {
+        double weight = cursor.weight();
+        if (!(weight >= 0)) {
+          throw new IllegalArgumentException("negative edge weight: " + weight);
+        }
+        int e = weight <= delta ? light++ : --heavy;
+        targets[e] = cursor.vertex();
+        weights[e] = weight;
+        longest = Math.max(longest, weight);
+      }
+      lightEnd[id] = light;
+    }
+    if (longest / delta >= MAX_BUCKETS) {
+      throw new IllegalArgumentException("delta too small for edges of " + longest);
+    }
+    numBuckets = (int) (longest / delta) + 2;
+  }
+
+  /**
+   * Bucket width.
+   *
+   * @return delta.
+   */
+  public double delta() {
+    return delta;
+  }
+
+  /**
+   * Shortest paths from a vertex on the common ForkJoinPool.
+   *
+   * @param source id of the source vertex.
+   * @return distances and predecessors by vertex id.
+   * @throws IllegalArgumentException if no vertex has id source.
+   */
+  public ShortestPathTree tree(int source) {
+    return tree(source, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Shortest paths from a vertex, relaxing edges on a pool. The work is
+   * split in pool.getParallelism() parts; a pool of one thread runs
+   * sequential delta-stepping.
+   *
+   * @param source id of the source vertex.
+   * @param pool   pool the phases run on.
+   * @return distances and predecessors by vertex id.
+   * @throws IllegalArgumentException if no vertex has id source.
+   */
+  public ShortestPathTree tree(int source, ForkJoinPool pool) {
+    if (source < 0 || source >= n) {
+      throw new IllegalArgumentException("No vertex with id " + source);
+    }
+    return new Run(pool).grow(source);
+  }
+
+  // helper method: mean edge weight, 1 for a graph without edges
+  private static <V, E> double meanWeight(Graph<V, E> graph) {
+    EdgeCursor<E> cursor = graph.cursor();
+    double sum = 0;
+    long count = 0;
+    for (Vertex<V> v : graph.vertices()) {
+      for (cursor.outgoing(graph.id(v)); cursor.next(); ) {
+        sum += cursor.weight();
+        count++;
+      }
+    }
+    return count == 0 || !(sum > 0) ? 1.0 : sum / count;
+  }
+
+  // The state of growing one tree. Every vertex id belongs to one owner
+  // (a block of ids); only the owner writes its vertices' entries, and
+  // phases on the pool are joined before the next step reads them.
+  private final class Run {
+    private final ForkJoinPool pool;
+    private final int parts;
+    private final int block;         // ids per owner
+    private final double[] distance;
+    private final int[] predecessor;
+    private final boolean[] queued;  // has a live entry in its bucket
+    private final boolean[] settled; // in the current bucket's settled list
+    private final IntList[][] buckets;  // [owner][bucket % ring length]
+    private final IntList[] frontiers;  // [owner], drained from the bucket
+    private final IntList[] done;       // [owner], settled in the bucket
+    private final Requests[][] outboxes; // [part][owner]
+    private int[] frontier = new int[16];
+    private long current;            // bucket being emptied
+
+    Run(ForkJoinPool pool) {
+      this.pool = pool;
+      this.parts = Math.max(1, Math.min(pool.getParallelism(), n));
+      this.block = (n + parts - 1) / parts;
+      distance = new double[n];
+      predecessor = new int[n];
+      queued = new boolean[n];
+      settled = new boolean[n];
+      Arrays.fill(distance, Double.POSITIVE_INFINITY);
+      Arrays.fill(predecessor, -1);
+      buckets = new IntList[parts][Math.min(numBuckets, FIRST_BUCKETS)];
+      frontiers = new IntList[parts];
+      done = new IntList[parts];
+      outboxes = new Requests[parts][parts];
+      for (int p = 0; p < parts; p++) {
+        frontiers[p] = new IntList();
+        done[p] = new IntList();
+        for (int o = 0; o < parts; o++) {
+          outboxes[p][o] = new Requests();
+        }
+      }
+    }
+
+    ShortestPathTree grow(int source) {
+      update(source, 0.0, -1);
+      for (long bucket = 0; bucket >= 0; bucket = nextBucket(bucket)) {
+        current = bucket;
+        int size = drain(bucket);
+        while (size > 0) { // light edges can put vertices back in the bucket
+          size = relax(size, true, bucket);
+        }
+        size = 0;
+        for (IntList list : done) { // heavy edges only lead to later buckets
+          size = append(list, size);
+          list.clear();
+        }
+        for (int k = 0; k < size; k++) {
+          settled[frontier[k]] = false;
+        }
+        relax(size, false, -1);
+      }
+      return new ShortestPathTree(source, distance, predecessor);
+    }
+
+    // helper method: relax the light or heavy edges of frontier[0, size),
+    // then drain the bucket for the next frontier (none if bucket is -1)
+    private int relax(int size, boolean light, long bucket) {
+      if (parts == 1 || size < PARALLEL_FRONTIER) {
+        for (int k = 0; k < size; k++) {
+          int u = frontier[k];
+          int end = light ? lightEnd[u] : offsets[u + 1];
+          for (int e = light ? offsets[u] : lightEnd[u]; e < end; e++) {
+            double dist = distance[u] + weights[e];
+            if (dist < distance[targets[e]]) {
+              update(targets[e], dist, u);
+            }
+          }
+        }
+        return bucket < 0 ? 0 : drain(bucket);
+      }
+
+      final int[] from = frontier;
+      List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      for (int p = 0; p < parts; p++) {
+        final Requests[] outbox = outboxes[p];
+        final int lo = (int) ((long) size * p / parts);
+        final int hi = (int) ((long) size * (p + 1) / parts);
+        tasks.add(pool.submit(() -> request(from, lo, hi, light, outbox)));
+      }
+      joinAll(tasks);
+      for (int o = 0; o < parts; o++) {
+        final int owner = o;
+        tasks.set(o, pool.submit(() -> {
+          for (Requests[] outbox : outboxes) {
+            outbox[owner].applyTo(this);
+          }
+          if (bucket >= 0) {
+            drain(owner, bucket);
+          }
+        }));
+      }
+      joinAll(tasks);
+      if (bucket < 0) {
+        return 0;
+      }
+      size = 0;
+      for (IntList list : frontiers) {
+        size = append(list, size);
+      }
+      return size;
+    }
+
+    // helper method: requests for the edges out of from[lo, hi) that
+    // would shorten a path, sorted into outboxes by owner; distances are
+    // only read while requests are made
+    private void request(int[] from, int lo, int hi, boolean light, Requests[] outbox) {
+      for (int k = lo; k < hi; k++) {
+        int u = from[k];
+        int end = light ? lightEnd[u] : offsets[u + 1];
+        for (int e = light ? offsets[u] : lightEnd[u]; e < end; e++) {
+          int v = targets[e];
+          double dist = distance[u] + weights[e];
+          if (dist < distance[v]) {
+            outbox[v / block].add(v, u, dist);
+          }
+        }
+      }
+    }
+
+    // helper method: shorter path to v (called by v's owner only)
+    void update(int v, double dist, int via) {
+      long old = queued[v] ? bucket(distance[v]) : -1;
+      distance[v] = dist;
+      predecessor[v] = via;
+      long bucket = bucket(dist);
+      if (bucket != old) { // any older entry is skipped when drained
+        IntList[] ring = buckets[v / block];
+        if (bucket - current >= ring.length) {
+          ring = grow(v / block, bucket);
+        }
+        int slot = (int) (bucket % ring.length);
+        if (ring[slot] == null) {
+          ring[slot] = new IntList();
+        }
+        ring[slot].add(v);
+        queued[v] = true;
+      }
+    }
+
+    // helper method: a larger ring for an owner, reaching bucket; every
+    // entry lies in current..current + length - 1, so its slot tells
+    // which bucket it is in (called by the owner only)
+    private IntList[] grow(int owner, long bucket) {
+      IntList[] ring = buckets[owner];
+      int length = (int) Math.min(numBuckets, Math.max(2L * ring.length, bucket - current + 1));
+      IntList[] grown = new IntList[length];
+      for (int slot = 0; slot < ring.length; slot++) {
+        if (ring[slot] != null && ring[slot].size > 0) {
+          long b = current + Math.floorMod(slot - current, ring.length);
+          grown[(int) (b % length)] = ring[slot];
+        }
+      }
+      buckets[owner] = grown;
+      return grown;
+    }
+
+    // helper method: take every owner's live entries out of a bucket
+    // into the frontier, returning its size
+    private int drain(long bucket) {
+      int size = 0;
+      for (int o = 0; o < parts; o++) {
+        drain(o, bucket);
+        size = append(frontiers[o], size);
+      }
+      return size;
+    }
+
+    // helper method: one owner's live entries of a bucket, into its
+    // frontier list; each is also noted once as settled in this bucket
+    private void drain(int owner, long bucket) {
+      IntList next = frontiers[owner];
+      next.clear();
+      IntList[] ring = buckets[owner];
+      IntList entries = ring[(int) (bucket % ring.length)];
+      if (entries == null) {
+        return;
+      }
+      for (int k = 0; k < entries.size; k++) {
+        int v = entries.items[k];
+        if (queued[v] && bucket(distance[v]) == bucket) {
+          queued[v] = false;
+          next.add(v);
+          if (!settled[v]) {
+            settled[v] = true;
+            done[owner].add(v);
+          }
+        }
+      }
+      entries.clear();
+    }
+
+    // helper method: the next bucket holding any entry, or -1 if every
+    // bucket is empty; a ring only holds buckets below bucket + its length
+    private long nextBucket(long bucket) {
+      int longest = 0;
+      for (IntList[] ring : buckets) {
+        longest = Math.max(longest, ring.length);
+      }
+      for (long b = bucket + 1; b < bucket + longest; b++) {
+        for (IntList[] ring : buckets) {
+          IntList entries = b - bucket < ring.length ? ring[(int) (b % ring.length)] : null;
+          if (entries != null && entries.size > 0) {
+            return b;
+          }
+        }
+      }
+      return -1;
+    }
+
+    // helper method: copy a list to frontier[size, ...)
+    private int append(IntList list, int size) {
+      if (size + list.size > frontier.length) {
+        frontier = Arrays.copyOf(frontier, Math.max(2 * frontier.length, size + list.size));
+      }
+      System.arraycopy(list.items, 0, frontier, size, list.size);
+      return size + list.size;
+    }
+
+    private long bucket(double dist) {
+      return (long) (dist / delta);
+    }
+  }
+
+  // helper method: wait for every task, rethrowing anything one threw
+  private static void joinAll(List<ForkJoinTask<?>> tasks) {
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+  }
+
+  // Growable list of vertex ids
+  private static final class IntList {
+    int[] items = new int[8];
+    int size;
+
+    void add(int item) {
+      if (size == items.length) {
+        items = Arrays.copyOf(items, 2 * size);
+      }
+      items[size++] = item;
+    }
+
+    void clear() {
+      size = 0;
+    }
+  }
+
+  // Relaxation requests from one part of a frontier to one owner
+  private static final class Requests {
+    private int[] to = new int[8];
+    private int[] via = new int[8];
+    private double[] dist = new double[8];
+    private int size;
+
+    void add(int v, int u, double d) {
+      if (size == to.length) {
+        to = Arrays.copyOf(to, 2 * size);
+        via = Arrays.copyOf(via, 2 * size);
+        dist = Arrays.copyOf(dist, 2 * size);
+      }
+      to[size] = v;
+      via[size] = u;
+      dist[size++] = d;
+    }
+
+    // apply in the order made, so ties keep the first path requested
+    void applyTo(Run run) {
+      for (int k = 0; k < size; k++) {
+        if (dist[k] < run.distance[to[k]]) {
+          run.update(to[k], dist[k], via[k]);
+        }
+      }
+      size = 0;
+    }
+  }
+}
@@ -1,108 +1,188 @@
 package graphs.spp;
 
-import graphs.graph.Edge;
-import graphs.graph.Graph;
+import graphs.graph.EdgeCursor;
 import graphs.graph.Vertex;
+import graphs.graph.WeightedGraph;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.PriorityQueue;
 
+/**
+ * Dijkstra's algorithm over the loaded network. All per-query state lives in
+ * a SearchContext taken from a pool for the duration of the query, so one
+ * searcher can answer queries from many threads at once.
+ */
 public class DijkstraStreetSearcher extends StreetSearcher {
-  double infinity = Double.POSITIVE_INFINITY;
-  private PriorityQueue<Vertex<String>> distanceQueue;
-  private ArrayList<Vertex<String>> explored;
-  private HashMap<Vertex<String>, Double> distance;
+  private final boolean pointToPoint;
+  private final QueueStrategy queues;
+
+  /**
+   * Creates a StreetSearcher object that settles the whole graph.
+   *
+   * @param graph an implementation of WeightedGraph ADT.
+   */
+  public DijkstraStreetSearcher(WeightedGraph<String, String> graph) {
+    this(graph, false);
+  }
 
   /**
    * Creates a StreetSearcher object.
    *
-   * @param graph an implementation of Graph ADT.
+   * @param graph        an implementation of WeightedGraph ADT.
+   * @param pointToPoint if true, vertices enter the queue only once they are
+   *                     reached and the search stops as soon as the end is
+   *                     settled; otherwise every vertex is queued up front and
+   *                     the whole graph is settled.
+   */
+  public DijkstraStreetSearcher(WeightedGraph<String, String> graph, boolean pointToPoint) {
+    this(graph, pointToPoint, QueueStrategy.HEAP);
+  }
+
+  /**
+   * Creates a StreetSearcher object that queues vertices as a strategy
+   * says, e.g. RadixHeap.strategy(100) to store road lengths to a
+   * hundredth of a length unit and queue them in radix heaps.
+   *
+   * @param graph        an implementation of WeightedGraph ADT.
+   * @param pointToPoint as for DijkstraStreetSearcher(graph, pointToPoint).
+   * @param queues       queue strategy, also used for shortestPathTree()
+   *                     and distanceMatrix().
    */
-  public DijkstraStreetSearcher(Graph<String, String> graph) {
+  public DijkstraStreetSearcher(WeightedGraph<String, String> graph, boolean pointToPoint,
+                                QueueStrategy queues) {
     super(graph);
-    distanceQueue = new PriorityQueue<>(5, new DistanceComparator());
-    explored = new ArrayList<>(); // stores previously travelled intersections
-    distance = new HashMap<>(); // distance between two points
+    this.pointToPoint = pointToPoint;
+    this.queues = queues;
   }
 
   @Override
-  public void findShortestPath(String startName, String endName) {
+  protected QueueStrategy queues() {
+    return queues;
+  }
+
+  @Override
+  public Route route(String startName, String endName) {
+    checkValidEndpoint(startName);
+    checkValidEndpoint(endName);
     Vertex<String> start = vertices.get(startName);
     Vertex<String> end = vertices.get(endName);
-
-    if (start == null || end == null) {
-      System.out.println("Invalid endpoint: " + endName);
-      return;
+    if (start.equals(end)) {
+      return new Route(startName, endName, 0.0, new ArrayList<>());
     }
 
-    if (start.equals(end)) {
-      System.out.println("No path found");
-      return;
+    SearchContext context = acquireContext();
+    try {
+      int endId = graph.id(end);
+      search(context, graph.id(start), endId, 0);
+      return new Route(startName, endName, context.distance(endId),
+          getPath(context, end, start));
+    } finally {
+      releaseContext(context);
     }
+  }
 
-    double totalDist = -1;  // totalDist must be updated below
-    totalDist = search(start, end);
+  // One search from the start settles every end (heuristic off, since
+  // there is no single end to aim for)
+  @Override
+  protected List<Route> routesFrom(String startName, List<String> endNames) {
+    if (endNames.size() == 1) {
+      return super.routesFrom(startName, endNames);
+    }
+    Vertex<String> start = vertices.get(startName);
+    SearchContext context = acquireContext();
+    try {
+      int numTargets = 0;
+      for (String endName : endNames) {
+        if (context.target(graph.id(vertices.get(endName)))) {
+          numTargets++; // each distinct end once
+        }
+      }
+      search(context, graph.id(start), -1, numTargets);
+      List<Route> found = new ArrayList<>();
+      for (String endName : endNames) {
+        Vertex<String> end = vertices.get(endName);
+        found.add(end.equals(start)
+            ? new Route(startName, endName, 0.0, new ArrayList<>())
+            : new Route(startName, endName, context.distance(graph.id(end)),
+                getPath(context, end, start)));
+      }
+      return found;
+    } finally {
+      releaseContext(context);
+    }
+  }
 
-    // These method calls will create and print the path for you
-    List<Edge<String>> path = getPath(end, start);
-    if (VERBOSE) {
-      printPath(path, totalDist);
+  // helper method: fills priority queue (only with start if pointToPoint)
+  private void setUp(SearchContext context, int startId, int endId) {
+    VertexQueue queue = context.queue();
+    context.reach(startId, 0.0, -1); // distance between start, start = 0
+    if (pointToPoint) {
+      queue.insert(startId, endId < 0 ? 0.0 : heuristic(startId, endId));
+      return;
+    }
+    for (int id = 0; id < graph.vertexIdBound(); id++) {
+      queue.insert(id, context.distance(id)); // default to infinity
     }
   }
 
-  // helper method: fills priority queue
-  private void setUp(Vertex<String> start) {
-    for (Vertex<String> intersection: graph.vertices()) {
-      if (intersection.equals(start)) { // distance between start, start = 0
-        distance.put(start, 0.0);
-      } else {
-        distance.put(intersection, infinity); // default to high value
+  // helper method: settles vertices until the end is settled, or the
+  // numTargets vertices marked as targets in context if there are several
+  // (endId is then -1); settles the whole graph if not pointToPoint
+  private void search(SearchContext context, int startId, int endId, int numTargets) {
+    setUp(context, startId, endId);
+    VertexQueue queue = context.queue();
+    int settled = 0;
+    int unsettledTargets = numTargets;
+    while (!queue.isEmpty()) {
+      int curr = queue.poll(); // access + remove first
+      context.settle(curr);
+      settled++;
+      if (pointToPoint && (endId >= 0
+          ? curr == endId : context.isTarget(curr) && --unsettledTargets == 0)) {
+        break; // distances to the ends are final
       }
-      graph.label(intersection, null); // reset label information
-      distanceQueue.add(intersection);
+      updateDistances(context, curr, endId);
     }
+    numSettled = settled;
   }
 
-  // helper method: updates total distance
-  private double search(Vertex<String> start, Vertex<String> end) {
-    setUp(start);
-    while (!distanceQueue.isEmpty()) {
-      Vertex<String> curr = distanceQueue.poll(); // access + remove first
-      explored.add(curr);
-      updateDistances(curr);
-    }
-    return distance.get(end); // return shortest distance
+  /**
+   * Lower bound on the distance from a vertex to the end, added to queue
+   * keys in point-to-point mode. It must never overestimate and must not
+   * drop by more than the length of any road (consistent), otherwise
+   * settled distances are no longer final.
+   *
+   * @param id    vertex id.
+   * @param endId id of the end vertex.
+   * @return 0 here, which is plain Dijkstra.
+   */
+  protected double heuristic(int id, int endId) {
+    return 0.0;
   }
 
-  // helper method: compares values within the priority queue; updates to new best path
-  // i.e: changes values from infinity to real value
-  private void updateDistances(Vertex<String> curr) {
-    for (Edge<String> edge : graph.outgoing(curr)) {
-      Vertex<String> temp = graph.to(edge);
+  // helper method: relaxes the outgoing roads of a settled intersection,
+  // i.e. lowers the distance of every neighbor it gives a shorter path to
+  private void updateDistances(SearchContext context, int curr, int endId) {
+    VertexQueue queue = context.queue();
+    EdgeCursor<String> roads = context.cursor(graph);
+    for (roads.outgoing(curr); roads.next(); ) {
+      int tempId = roads.vertex();
       // check unexplored vertices
-      if (!explored.contains(temp)) {
-        double prevDist = distance.get(temp);
-        double streetDist = (double) graph.label(edge);
-        double currDist = distance.get(curr) + streetDist;
+      if (!context.isSettled(tempId)) {
+        double prevDist = context.distance(tempId);
+        double streetDist = roads.weight();
+        double currDist = context.distance(curr) + streetDist;
         if (prevDist > currDist) { // update with shorter path
-          distance.put(temp, currDist);
-          graph.label(temp, edge);
-          distanceQueue.remove(temp);
+          context.reach(tempId, currDist, curr);
           // update intersection value in queue
-          distanceQueue.add(temp);
+          double key = pointToPoint && endId >= 0
+              ? currDist + heuristic(tempId, endId) : currDist;
+          if (queue.contains(tempId)) {
+            queue.decreaseKey(tempId, key);
+          } else {
+            queue.insert(tempId, key); // first time reached
+          }
         }
       }
     }
   }
-
-  // used for priority queue
-  // compare the distances of two intersections to
-  private class DistanceComparator implements Comparator<Vertex<String>> {
-    @Override
-    public int compare(Vertex<String> first, Vertex<String> second) {
-      return distance.get(first).compareTo(distance.get(second));
-    }
-  }
 }
@@ -0,0 +1,292 @@
+package graphs.spp;
+
+import graphs.graph.Edge;
+import graphs.graph.EdgeCursor;
+import graphs.graph.Vertex;
+import graphs.graph.WeightedGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shortest paths from one source that are kept up to date while roads
+ * are inserted, removed or change length, in the style of Ramalingam and
+ * Reps: a change only re-searches the vertices whose distance it can
+ * change.
+ *
+ * <ul>
+ *   <li>A road that gets shorter (or is inserted) starts a Dijkstra from
+ *   its end that stops wherever distances do not improve.</li>
+ *   <li>A road on the tree that gets longer (or is removed) invalidates
+ *   the subtree below it. Each vertex of the subtree takes its best
+ *   road from outside the subtree, and a Dijkstra limited to the subtree
+ *   settles the rest.</li>
+ *   <li>Any other road that gets longer changes nothing.</li>
+ * </ul>
+ *
+ * <p>Make changes through this class. If the graph is changed some other
+ * way (see Graph.version()), the tree is searched again from scratch on
+ * the next call. Road lengths must not be negative.</p>
+ */
+public class DynamicShortestPathTree {
+  private final WeightedGraph<String, String> graph;
+  private final Vertex<String> source;
+  private double[] distance;   // id -> distance from source
+  private int[] predecessor;   // id -> other end of the road into id, or -1
+  private boolean[] affected;  // id -> in the subtree being repaired
+  private int[] subtree;       // ids of the subtree being repaired
+  private IndexedMinHeap queue;
+  private final EdgeCursor<String> roads;
+  private long version;        // graph version the tree is up to date with
+  private int touched;
+
+  /**
+   * Search the shortest paths from a source.
+   *
+   * @param graph  network to search; roads are weighted by length.
+   * @param source vertex the paths start from.
+   * @throws exceptions.PositionException if source is not in graph.
+   */
+  public DynamicShortestPathTree(WeightedGraph<String, String> graph, Vertex<String> source) {
+    this.graph = graph;
+    this.source = source;
+    this.roads = graph.cursor();
+    graph.id(source); // checks the position
+    rebuild();
+  }
+
+  /**
+   * Insert a road and update the tree.
+   *
+   * @param from   Vertex position where the road starts.
+   * @param to     Vertex position where the road ends.
+   * @param name   road name.
+   * @param length road length.
+   * @return Edge position of the new road.
+   * @throws exceptions.PositionException  If either vertex position is invalid.
+   * @throws exceptions.InsertionException If the road is a self-loop or
+   *                                       duplicate.
+   */
+  public Edge<String> insert(Vertex<String> from, Vertex<String> to, String name,
+                             double length) {
+    sync();
+    Edge<String> edge = graph.insert(from, to, name, length);
+    version = graph.version();
+    decreased(edge);
+    return edge;
+  }
+
+  /**
+   * Remove a road and update the tree.
+   *
+   * @param edge Edge position to remove.
+   * @return name of the removed road.
+   * @throws exceptions.PositionException If edge position is invalid.
+   */
+  public String remove(Edge<String> edge) {
+    sync();
+    int from = graph.id(graph.from(edge));
+    int to = graph.id(graph.to(edge));
+    String name = graph.remove(edge);
+    version = graph.version();
+    if (predecessor[to] == from) { // roads are unique by their ends
+      increased(to);
+    } else {
+      touched = 0;
+    }
+    return name;
+  }
+
+  /**
+   * Change the length of a road and update the tree.
+   *
+   * @param edge   Edge position to change.
+   * @param length new road length.
+   * @throws exceptions.PositionException If edge position is invalid.
+   */
+  public void weight(Edge<String> edge, double length) {
+    sync();
+    double old = graph.weight(edge);
+    graph.weight(edge, length);
+    version = graph.version();
+    int from = graph.id(graph.from(edge));
+    int to = graph.id(graph.to(edge));
+    if (length < old) {
+      decreased(edge);
+    } else if (length > old && predecessor[to] == from) {
+      increased(to);
+    } else {
+      touched = 0;
+    }
+  }
+
+  /**
+   * Length of a shortest path from the source.
+   *
+   * @param v vertex to query.
+   * @return the distance, or infinity if v cannot be reached.
+   * @throws exceptions.PositionException if v is not in the graph.
+   */
+  public double distance(Vertex<String> v) {
+    sync();
+    return distance[graph.id(v)];
+  }
+
+  /**
+   * Road into a vertex on its shortest path from the source.
+   *
+   * @param v vertex to query.
+   * @return the road, or null for the source and vertices that cannot
+   *         be reached.
+   * @throws exceptions.PositionException if v is not in the graph.
+   */
+  public Edge<String> road(Vertex<String> v) {
+    sync();
+    int id = graph.id(v);
+    return predecessor[id] < 0 ? null : roads.find(predecessor[id], id);
+  }
+
+  /**
+   * Roads on a shortest path from the source.
+   *
+   * @param v vertex to query.
+   * @return roads in order from the source to v, empty for the source,
+   *         or null if v cannot be reached.
+   * @throws exceptions.PositionException if v is not in the graph.
+   */
+  public List<Edge<String>> path(Vertex<String> v) {
+    if (distance(v) == Double.POSITIVE_INFINITY) {
+      return null;
+    }
+    List<Edge<String>> path = new ArrayList<>();
+    for (int id = graph.id(v); predecessor[id] >= 0; id = predecessor[id]) {
+      path.add(roads.find(predecessor[id], id));
+    }
+    Collections.reverse(path);
+    return path;
+  }
+
+  /**
+   * Copy of the current tree as distance and predecessor arrays.
+   *
+   * @return the tree, by vertex id.
+   */
+  public ShortestPathTree toTree() {
+    sync();
+    return new ShortestPathTree(graph.id(source), distance.clone(), predecessor.clone());
+  }
+
+  /**
+   * Number of vertices the last change had to search again.
+   *
+   * @return vertices queued by the last insert, remove or weight change.
+   */
+  public int touched() {
+    return touched;
+  }
+
+  // helper method: search again if the graph changed behind our back,
+  // which also sizes the arrays for vertices inserted since
+  private void sync() {
+    if (graph.version() != version) {
+      rebuild();
+    }
+  }
+
+  // helper method: plain Dijkstra from the source over the whole graph
+  private void rebuild() {
+    int n = graph.vertexIdBound();
+    distance = new double[n];
+    predecessor = new int[n];
+    affected = new boolean[n];
+    subtree = new int[n]; // a subtree holds each id at most once
+    queue = new IndexedMinHeap(n);
+    Arrays.fill(distance, Double.POSITIVE_INFINITY);
+    Arrays.fill(predecessor, -1);
+    int start = graph.id(source);
+    distance[start] = 0.0;
+    queue.insert(start, 0.0);
+    touched = settle();
+    version = graph.version();
+  }
+
+  // helper method: the road got shorter; improve whatever it now reaches
+  // faster
+  private void decreased(Edge<String> edge) {
+    int from = graph.id(graph.from(edge));
+    int to = graph.id(graph.to(edge));
+    double dist = distance[from] + graph.weight(edge);
+    touched = 0;
+    if (dist < distance[to]) {
+      distance[to] = dist;
+      predecessor[to] = from;
+      queue.insert(to, dist);
+      touched = settle();
+    }
+  }
+
+  // helper method: the tree road into top got longer or is gone; settle
+  // the subtree under top again from the roads that enter it
+  private void increased(int top) {
+    int size = 0;
+    subtree[size++] = top;
+    affected[top] = true;
+    for (int i = 0; i < size; i++) {
+      int parent = subtree[i];
+      for (roads.outgoing(parent); roads.next(); ) {
+        int child = roads.vertex();
+        if (predecessor[child] == parent) {
+          affected[child] = true;
+          subtree[size++] = child;
+        }
+      }
+    }
+
+    for (int i = 0; i < size; i++) {
+      int id = subtree[i];
+      distance[id] = Double.POSITIVE_INFINITY;
+      predecessor[id] = -1;
+      for (roads.incoming(id); roads.next(); ) {
+        int from = roads.vertex();
+        double dist = distance[from] + roads.weight();
+        if (!affected[from] && dist < distance[id]) {
+          distance[id] = dist;
+          predecessor[id] = from;
+        }
+      }
+      if (predecessor[id] >= 0) {
+        queue.insert(id, distance[id]);
+      }
+    }
+    settle();
+    for (int i = 0; i < size; i++) {
+      affected[subtree[i]] = false;
+    }
+    touched = size;
+  }
+
+  // helper method: Dijkstra from whatever is queued, spreading only as
+  // far as distances improve; returns the number of vertices settled
+  private int settle() {
+    int settled = 0;
+    while (!queue.isEmpty()) {
+      int curr = queue.poll();
+      settled++;
+      for (roads.outgoing(curr); roads.next(); ) {
+        int next = roads.vertex();
+        double dist = distance[curr] + roads.weight();
+        if (dist < distance[next]) {
+          distance[next] = dist;
+          predecessor[next] = curr;
+          if (queue.contains(next)) {
+            queue.decreaseKey(next, dist);
+          } else {
+            queue.insert(next, dist);
+          }
+        }
+      }
+    }
+    return settled;
+  }
+}
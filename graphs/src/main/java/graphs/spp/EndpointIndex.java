@@ -0,0 +1,118 @@
+package graphs.spp;
+
+import graphs.graph.Graph;
+import graphs.graph.Vertex;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map from endpoint name to vertex for StreetSearcher. Names are interned
+ * in a NameDictionary and each name id keeps only the graph id of its
+ * vertex, so an endpoint costs the bytes of its name and a few ints
+ * rather than a HashMap entry. Vertices are found through graph.vertex(),
+ * so the map only holds vertices of the graph it was created for.
+ */
+final class EndpointIndex extends AbstractMap<String, Vertex<String>> {
+  private final Graph<String, String> graph;
+  private NameDictionary names = new NameDictionary();
+  private int[] vertexIds = new int[64]; // name id -> graph id, -1 if removed
+  private int size;
+
+  EndpointIndex(Graph<String, String> graph) {
+    this.graph = graph;
+  }
+
+  @Override
+  public Vertex<String> get(Object key) {
+    int id = key instanceof String ? names.find((String) key) : -1;
+    return id < 0 || vertexIds[id] < 0 ? null : graph.vertex(vertexIds[id]);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int id = key instanceof String ? names.find((String) key) : -1;
+    return id >= 0 && vertexIds[id] >= 0;
+  }
+
+  @Override
+  public Vertex<String> put(String name, Vertex<String> v) {
+    int vertexId = graph.id(v);
+    Vertex<String> old = get(name);
+    int id = names.intern(name);
+    if (id == vertexIds.length) {
+      vertexIds = Arrays.copyOf(vertexIds, 2 * id);
+    }
+    if (old == null) {
+      size++;
+    }
+    vertexIds[id] = vertexId;
+    return old;
+  }
+
+  @Override
+  public Vertex<String> remove(Object key) {
+    Vertex<String> old = get(key);
+    if (old != null) {
+      vertexIds[names.find((String) key)] = -1;
+      size--;
+    }
+    return old;
+  }
+
+  @Override
+  public void clear() {
+    names = new NameDictionary();
+    vertexIds = new int[64];
+    size = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<String, Vertex<String>>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<String, Vertex<String>>> iterator() {
+        return new Iterator<>() {
+          private int next = skip(0);
+
+          @Override
+          public boolean hasNext() {
+            return next < names.size();
+          }
+
+          @Override
+          public Entry<String, Vertex<String>> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            Vertex<String> v = graph.vertex(vertexIds[next]);
+            next = skip(next + 1);
+            return Map.entry(v.get(), v);
+          }
+
+          // helper method: first name id from id on that is not removed
+          private int skip(int id) {
+            while (id < names.size() && vertexIds[id] < 0) {
+              id++;
+            }
+            return id;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+}
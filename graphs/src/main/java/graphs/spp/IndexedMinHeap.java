@@ -0,0 +1,220 @@
+package graphs.spp;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A d-ary min-heap of int ids in 0..capacity-1 ordered by double keys.
+ * Each id has its heap position recorded, so contains() is O(1) and
+ * decreaseKey() is O(log n) instead of a linear remove + add.
+ */
+public class IndexedMinHeap implements VertexQueue {
+
+  private static final int DEFAULT_ARITY = 4;
+
+  private final int arity;
+  private final int[] heap;     // heap slot -> id
+  private final int[] position; // id -> heap slot, or -1 if not queued
+  private final double[] keys;  // id -> key
+  private int size;
+
+  /**
+   * Create a 4-ary heap.
+   *
+   * @param capacity ids must be in 0..capacity-1.
+   */
+  public IndexedMinHeap(int capacity) {
+    this(capacity, DEFAULT_ARITY);
+  }
+
+  /**
+   * Create a d-ary heap.
+   *
+   * @param capacity ids must be in 0..capacity-1.
+   * @param arity    number of children per node (at least 2).
+   */
+  public IndexedMinHeap(int capacity, int arity) {
+    if (arity < 2) {
+      throw new IllegalArgumentException("arity must be at least 2");
+    }
+    this.arity = arity;
+    heap = new int[capacity];
+    position = new int[capacity];
+    keys = new double[capacity];
+    Arrays.fill(position, -1);
+    size = 0;
+  }
+
+  /**
+   * Check if the heap is empty.
+   *
+   * @return true if no ids are queued.
+   */
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Number of queued ids.
+   *
+   * @return the number of ids in the heap.
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Check if an id is queued.
+   *
+   * @param id id to look for.
+   * @return true if id is in the heap.
+   */
+  @Override
+  public boolean contains(int id) {
+    return position[id] >= 0;
+  }
+
+  /**
+   * Key of a queued id.
+   *
+   * @param id id to look up.
+   * @return the key id was queued with.
+   * @throws NoSuchElementException if id is not queued.
+   */
+  @Override
+  public double key(int id) {
+    if (!contains(id)) {
+      throw new NoSuchElementException();
+    }
+    return keys[id];
+  }
+
+  /**
+   * Add an id.
+   *
+   * @param id  id to add.
+   * @param key priority of id, smallest comes out first.
+   * @throws IllegalArgumentException if id is already queued.
+   */
+  @Override
+  public void insert(int id, double key) {
+    if (contains(id)) {
+      throw new IllegalArgumentException("id already queued: " + id);
+    }
+    keys[id] = key;
+    heap[size] = id;
+    position[id] = size;
+    size++;
+    siftUp(size - 1);
+  }
+
+  /**
+   * Lower the key of a queued id.
+   *
+   * @param id  id to update.
+   * @param key new key, must not be larger than the current one.
+   * @throws NoSuchElementException if id is not queued.
+   * @throws IllegalArgumentException if key is larger than the current key.
+   */
+  @Override
+  public void decreaseKey(int id, double key) {
+    if (!contains(id)) {
+      throw new NoSuchElementException();
+    } else if (key > keys[id]) {
+      throw new IllegalArgumentException("key increased for id " + id);
+    }
+    keys[id] = key;
+    siftUp(position[id]);
+  }
+
+  /**
+   * Id with the smallest key.
+   *
+   * @return the id at the top of the heap.
+   * @throws NoSuchElementException if the heap is empty.
+   */
+  @Override
+  public int peek() {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return heap[0];
+  }
+
+  /**
+   * Remove the id with the smallest key.
+   *
+   * @return the removed id.
+   * @throws NoSuchElementException if the heap is empty.
+   */
+  @Override
+  public int poll() {
+    int top = peek();
+    size--;
+    position[top] = -1;
+    if (size > 0) {
+      heap[0] = heap[size];
+      position[heap[0]] = 0;
+      siftDown(0);
+    }
+    return top;
+  }
+
+  /**
+   * Remove all ids. Costs O(size), not O(capacity).
+   */
+  @Override
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      position[heap[i]] = -1;
+    }
+    size = 0;
+  }
+
+  // helper method: move the id at slot up until its parent is smaller
+  private void siftUp(int slot) {
+    int id = heap[slot];
+    double key = keys[id];
+    while (slot > 0) {
+      int parent = (slot - 1) / arity;
+      int parentId = heap[parent];
+      if (keys[parentId] <= key) {
+        break;
+      }
+      heap[slot] = parentId;
+      position[parentId] = slot;
+      slot = parent;
+    }
+    heap[slot] = id;
+    position[id] = slot;
+  }
+
+  // helper method: move the id at slot down until its children are larger
+  private void siftDown(int slot) {
+    int id = heap[slot];
+    double key = keys[id];
+    while (true) {
+      int first = slot * arity + 1;
+      if (first >= size) {
+        break;
+      }
+      int last = Math.min(first + arity, size);
+      int best = first;
+      for (int child = first + 1; child < last; child++) {
+        if (keys[heap[child]] < keys[heap[best]]) {
+          best = child;
+        }
+      }
+      if (keys[heap[best]] >= key) {
+        break;
+      }
+      heap[slot] = heap[best];
+      position[heap[slot]] = slot;
+      slot = best;
+    }
+    heap[slot] = id;
+    position[id] = slot;
+  }
+}
@@ -0,0 +1,156 @@
+package graphs.spp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interns names into one shared table, giving each distinct name a dense
+ * int id in the order it was first seen, and one String that every user
+ * of the name shares. Strings of ASCII names such as coordinates and road
+ * names are compact byte arrays already, so the table itself is just an
+ * array of them plus an open-addressing array of ids; it costs a few ints
+ * per name where a HashMap costs an entry object.
+ *
+ * <p>Names can be interned straight from the bytes of a file: a name that
+ * is already in the table is found without making a String. A dictionary
+ * is not safe for use by several threads at once.</p>
+ */
+public final class NameDictionary {
+  private String[] names = new String[64]; // id -> name
+  private int[] table = new int[128];      // open addressing, id + 1, 0 if empty
+  private int size;
+
+  /**
+   * Number of distinct names.
+   *
+   * @return the number of names interned so far.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Id of a name, adding it if it is new.
+   *
+   * @param name name to intern.
+   * @return id of the name, in 0..size()-1.
+   * @throws NullPointerException if name is null.
+   */
+  public int intern(String name) {
+    int slot = slot(name);
+    return table[slot] != 0 ? table[slot] - 1 : add(slot, name);
+  }
+
+  /**
+   * Id of a name, without adding it.
+   *
+   * @param name name to look for.
+   * @return id of the name, or -1 if it was never interned.
+   */
+  public int find(String name) {
+    return name == null ? -1 : table[slot(name)] - 1;
+  }
+
+  /**
+   * Name with the given id.
+   *
+   * @param id id returned by intern().
+   * @return the one String for that name.
+   * @throws IndexOutOfBoundsException if no name has that id.
+   */
+  public String get(int id) {
+    if (id < 0 || id >= size) {
+      throw new IndexOutOfBoundsException("no name with id " + id);
+    }
+    return names[id];
+  }
+
+  // Id of the UTF-8 name in buffer[start, end), adding it if it is new
+  int intern(ByteBuffer buffer, int start, int end) {
+    int hash = 0; // String.hashCode() of the name if it is ASCII
+    for (int i = start; i < end; i++) {
+      byte b = buffer.get(i);
+      if (b < 0) {
+        return intern(decode(buffer, start, end)); // not ASCII
+      }
+      hash = 31 * hash + b;
+    }
+    int mask = table.length - 1;
+    int slot = spread(hash) & mask;
+    while (table[slot] != 0) {
+      String name = names[table[slot] - 1];
+      if (name.hashCode() == hash && matches(name, buffer, start, end)) {
+        return table[slot] - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return add(slot, decode(buffer, start, end));
+  }
+
+  // helper method: slot holding name, or the empty slot where it would go
+  private int slot(String name) {
+    int hash = name.hashCode();
+    int mask = table.length - 1;
+    int slot = spread(hash) & mask;
+    while (table[slot] != 0) {
+      String other = names[table[slot] - 1];
+      if (other.hashCode() == hash && other.equals(name)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  // helper method: store a new name in an empty slot
+  private int add(int slot, String name) {
+    if (size == names.length) {
+      names = Arrays.copyOf(names, 2 * size);
+    }
+    names[size] = name;
+    table[slot] = ++size;
+    if (2 * size > table.length) {
+      grow();
+    }
+    return size - 1;
+  }
+
+  // helper method: double the table and put every id back
+  private void grow() {
+    table = new int[2 * table.length];
+    int mask = table.length - 1;
+    for (int id = 0; id < size; id++) {
+      int slot = spread(names[id].hashCode()) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = id + 1;
+    }
+  }
+
+  // helper method: an ASCII name equals the bytes of buffer[start, end)
+  private static boolean matches(String name, ByteBuffer buffer, int start, int end) {
+    if (name.length() != end - start) {
+      return false;
+    }
+    for (int i = start; i < end; i++) {
+      if (name.charAt(i - start) != buffer.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // helper method: mix the high bits of a String hash into the low ones
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  // helper method: bytes as a String
+  private static String decode(ByteBuffer buffer, int start, int end) {
+    byte[] bytes = new byte[end - start];
+    buffer.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,326 @@
+package graphs.spp;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads a network file of lines "end1 end2 distance road", split on single
+ * spaces like String.split(" "). The file is memory-mapped and tokenized in
+ * place: endpoint and road names are interned in a NameDictionary and
+ * become Strings once per distinct name, and distances are parsed straight
+ * from the bytes.
+ */
+public final class NetworkReader {
+
+  /**
+   * Receives the roads of a network file, in file order.
+   */
+  public interface RoadHandler {
+    /**
+     * Handle one line of the file.
+     *
+     * @param from     first endpoint name.
+     * @param to       second endpoint name.
+     * @param distance road length.
+     * @param road     road name.
+     * @return true if the road was added.
+     */
+    boolean road(String from, String to, double distance, String road);
+  }
+
+  // mapped at most this many bytes at a time; lines may not be longer
+  private static final int WINDOW = 1 << 30;
+
+  // chunks parsed in parallel are at least this many bytes
+  private static final int MIN_CHUNK = 1 << 16;
+
+  // powers of ten that are exact as doubles
+  private static final double[] POWERS = new double[23];
+
+  static {
+    POWERS[0] = 1.0;
+    for (int i = 1; i < POWERS.length; i++) {
+      POWERS[i] = POWERS[i - 1] * 10.0;
+    }
+  }
+
+  private final NameDictionary names = new NameDictionary();
+  private final int[] bounds = new int[8]; // start and end of the first four fields
+
+  private NetworkReader() {
+  }
+
+  /**
+   * Read every road of a network file.
+   *
+   * @param data    network file.
+   * @param handler called for each non-blank line, in file order.
+   * @return number of lines the handler returned true for.
+   * @throws FileNotFoundException if data cannot be opened.
+   * @throws NumberFormatException if a distance is not a number.
+   * @throws IllegalArgumentException if a line has fewer than four fields.
+   */
+  public static int read(File data, RoadHandler handler) throws FileNotFoundException {
+    return read(data, null, handler);
+  }
+
+  /**
+   * Read every road of a network file, parsing on a pool. The file is cut
+   * into chunks at line boundaries and each chunk is parsed by one task into
+   * its own buffer; the handler is then called from this thread, chunk by
+   * chunk, so it sees the same roads in the same order as read(data, handler).
+   * Names are interned across chunks as they are passed on, so it also sees
+   * one String per distinct name.
+   *
+   * @param data    network file.
+   * @param pool    pool the chunks are parsed on, or null to parse here.
+   * @param handler called for each non-blank line, in file order.
+   * @return number of lines the handler returned true for.
+   * @throws FileNotFoundException if data cannot be opened.
+   * @throws NumberFormatException if a distance is not a number.
+   * @throws IllegalArgumentException if a line has fewer than four fields.
+   */
+  public static int read(File data, ForkJoinPool pool, RoadHandler handler)
+      throws FileNotFoundException {
+    FileInputStream in = new FileInputStream(data);
+    try (FileChannel channel = in.getChannel()) {
+      return read(channel, pool, handler);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // helper method: map the file one window at a time; a window ends after
+  // its last complete line and the next one starts right after it
+  private static int read(FileChannel channel, ForkJoinPool pool, RoadHandler handler)
+      throws IOException {
+    NetworkReader reader = new NetworkReader();
+    long size = channel.size();
+    long position = 0;
+    int added = 0;
+    while (position < size) {
+      long length = Math.min(size - position, WINDOW);
+      boolean last = position + length == size;
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+      int end = buffer.limit();
+      if (!last) {
+        while (end > 0 && buffer.get(end - 1) != '\n') {
+          end--;
+        }
+        if (end == 0) {
+          throw new IllegalArgumentException("Line longer than " + WINDOW + " bytes");
+        }
+      }
+      added += pool == null
+          ? reader.lines(buffer, 0, end, handler)
+          : parallel(buffer, end, pool, reader.names, handler);
+      position += end;
+    }
+    return added;
+  }
+
+  // helper method: parse chunks of buffer[0, end) on the pool, then pass
+  // their roads on in chunk order, with names interned in names so that
+  // a name found by several chunks still becomes one String
+  private static int parallel(ByteBuffer buffer, int end, ForkJoinPool pool,
+                              NameDictionary names, RoadHandler handler) {
+    int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, end / MIN_CHUNK));
+    List<ForkJoinTask<Roads>> tasks = new ArrayList<>();
+    int chunkStart = 0;
+    for (int c = 1; c <= chunks; c++) {
+      int chunkEnd = c == chunks ? end : (int) ((long) end * c / chunks);
+      while (chunkEnd < end && buffer.get(chunkEnd - 1) != '\n') {
+        chunkEnd++; // move the cut to the next line boundary
+      }
+      if (chunkEnd > chunkStart) {
+        int from = chunkStart;
+        int to = chunkEnd;
+        tasks.add(pool.submit(() -> {
+          Roads roads = new Roads();
+          new NetworkReader().lines(buffer, from, to, roads);
+          return roads;
+        }));
+        chunkStart = chunkEnd;
+      }
+    }
+    int added = 0;
+    for (ForkJoinTask<Roads> task : tasks) {
+      added += task.join().replay(names, handler); // rethrows anything the task threw
+    }
+    return added;
+  }
+
+  // helper method: pass on every line in buffer[from, to); the last line
+  // may be missing its terminator
+  private int lines(ByteBuffer buffer, int from, int to, RoadHandler handler) {
+    int added = 0;
+    int lineStart = from;
+    for (int i = from; i < to; i++) {
+      if (buffer.get(i) == '\n') {
+        added += line(buffer, lineStart, i, handler);
+        lineStart = i + 1;
+      }
+    }
+    if (lineStart < to) {
+      added += line(buffer, lineStart, to, handler); // no final newline
+    }
+    return added;
+  }
+
+  // helper method: split one line, without its terminator, and pass it on
+  private int line(ByteBuffer buffer, int start, int end, RoadHandler handler) {
+    if (end > start && buffer.get(end - 1) == '\r') {
+      end--;
+    }
+    if (end == start) {
+      return 0; // blank line
+    }
+    int field = 0;
+    int fieldStart = start;
+    for (int i = start; i <= end && field < 4; i++) {
+      if (i == end || buffer.get(i) == ' ') {
+        bounds[2 * field] = fieldStart;
+        bounds[2 * field + 1] = i;
+        field++;
+        fieldStart = i + 1;
+      }
+    }
+    if (field < 4) {
+      throw new IllegalArgumentException("Expected 4 fields: "
+          + decode(buffer, start, end));
+    }
+    String from = name(buffer, bounds[0], bounds[1]);
+    String to = name(buffer, bounds[2], bounds[3]);
+    double distance = parseDouble(buffer, bounds[4], bounds[5]);
+    String road = name(buffer, bounds[6], bounds[7]);
+    return handler.road(from, to, distance, road) ? 1 : 0;
+  }
+
+  // helper method: the same String for every occurrence of a name
+  private String name(ByteBuffer buffer, int start, int end) {
+    return names.get(names.intern(buffer, start, end));
+  }
+
+  /**
+   * Parse a decimal number like Double.parseDouble, without making a String
+   * when the digits fit in a long and the exponent is small; those cases are
+   * exact (one correctly rounded multiply or divide), the rest fall back.
+   *
+   * @param buffer bytes to read.
+   * @param start  first byte of the number.
+   * @param end    one past its last byte.
+   * @return the number.
+   * @throws NumberFormatException if the bytes are not a number.
+   */
+  private static double parseDouble(ByteBuffer buffer, int start, int end) {
+    int i = start;
+    boolean negative = false;
+    if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+      negative = buffer.get(i) == '-';
+      i++;
+    }
+    long mantissa = 0;
+    int digits = 0;   // significant digits in mantissa
+    int exponent = 0; // power of ten the mantissa is scaled by
+    boolean seenDigit = false;
+    boolean seenPoint = false;
+    for (; i < end; i++) {
+      byte b = buffer.get(i);
+      if (b >= '0' && b <= '9') {
+        seenDigit = true;
+        if (mantissa != 0 || b != '0') {
+          digits++;
+          mantissa = digits <= 18 ? mantissa * 10 + (b - '0') : mantissa;
+        }
+        if (seenPoint) {
+          exponent--;
+        }
+      } else if (b == '.' && !seenPoint) {
+        seenPoint = true;
+      } else {
+        break;
+      }
+    }
+    if (i < end && seenDigit && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+      int j = i + 1;
+      boolean negativeExponent = false;
+      if (j < end && (buffer.get(j) == '-' || buffer.get(j) == '+')) {
+        negativeExponent = buffer.get(j) == '-';
+        j++;
+      }
+      int value = 0;
+      boolean seenExponentDigit = false;
+      for (; j < end && buffer.get(j) >= '0' && buffer.get(j) <= '9'; j++) {
+        seenExponentDigit = true;
+        value = Math.min(value * 10 + (buffer.get(j) - '0'), 100000);
+      }
+      if (seenExponentDigit) {
+        exponent += negativeExponent ? -value : value;
+        i = j;
+      }
+    }
+    if (i != end || !seenDigit || digits > 18
+        || mantissa >= 1L << 53 || Math.abs(exponent) >= POWERS.length) {
+      return Double.parseDouble(decode(buffer, start, end));
+    }
+    double value = exponent >= 0 ? mantissa * POWERS[exponent] : mantissa / POWERS[-exponent];
+    return negative ? -value : value;
+  }
+
+  // helper method: bytes as a String
+  private static String decode(ByteBuffer buffer, int start, int end) {
+    byte[] bytes = new byte[end - start];
+    buffer.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  // Roads parsed from one chunk, kept until the chunks before it are done
+  private static final class Roads implements RoadHandler {
+    private String[] from = new String[1024];
+    private String[] to = new String[1024];
+    private double[] distance = new double[1024];
+    private String[] road = new String[1024];
+    private int size;
+
+    @Override
+    public boolean road(String from, String to, double distance, String road) {
+      if (size == this.from.length) {
+        int capacity = size * 2;
+        this.from = Arrays.copyOf(this.from, capacity);
+        this.to = Arrays.copyOf(this.to, capacity);
+        this.distance = Arrays.copyOf(this.distance, capacity);
+        this.road = Arrays.copyOf(this.road, capacity);
+      }
+      this.from[size] = from;
+      this.to[size] = to;
+      this.distance[size] = distance;
+      this.road[size] = road;
+      size++;
+      return true;
+    }
+
+    // the chunk's Strings are looked up by their cached hash codes, and
+    // become garbage once replayed
+    int replay(NameDictionary names, RoadHandler handler) {
+      int added = 0;
+      for (int i = 0; i < size; i++) {
+        if (handler.road(names.get(names.intern(from[i])), names.get(names.intern(to[i])),
+            distance[i], names.get(names.intern(road[i])))) {
+          added++;
+        }
+      }
+      return added;
+    }
+  }
+}
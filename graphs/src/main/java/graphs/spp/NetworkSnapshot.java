@@ -0,0 +1,288 @@
+package graphs.spp;
+
+import graphs.graph.OffHeapGraph;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A loaded street network in a binary file that loads without parsing.
+ *
+ * <p>Layout, all numbers big-endian:</p>
+ * <pre>
+ *   int    MAGIC, int VERSION
+ *   int    numLoaded, int n (endpoints), int m (roads, one per direction)
+ *   names  endpoint names, by vertex id
+ *   names  distinct road names
+ *   int    offsets[n + 1]  roads out of vertex v are offsets[v]..offsets[v+1]-1
+ *   int    targets[m]      end vertex of each road
+ *   double weights[m]      length of each road
+ *   int    roadNames[m]    index of each road's name
+ * </pre>
+ * where names is an int count c, int ends[c] (end of each name in the
+ * bytes), int byte count, then the UTF-8 bytes of all the names.
+ */
+public final class NetworkSnapshot {
+
+  /** First four bytes of every snapshot, "SNET". */
+  public static final int MAGIC = 0x534E4554;
+
+  /** Layout version written by this class; other versions are rejected. */
+  public static final int VERSION = 1;
+
+  final int numLoaded;
+  final String[] vertexNames;
+  final int[] offsets;
+  final int[] targets;
+  final double[] weights;
+  final String[] roadNames; // by road, repeated names share one String
+
+  NetworkSnapshot(int numLoaded, String[] vertexNames, int[] offsets, int[] targets,
+                  double[] weights, String[] roadNames) {
+    this.numLoaded = numLoaded;
+    this.vertexNames = vertexNames;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.roadNames = roadNames;
+  }
+
+  /**
+   * Check if a file starts like a snapshot, so loaders can take either one.
+   *
+   * @param data file to check.
+   * @return true if data starts with MAGIC.
+   * @throws FileNotFoundException if data cannot be opened.
+   */
+  public static boolean isSnapshot(File data) throws FileNotFoundException {
+    try (DataInputStream in = new DataInputStream(new FileInputStream(data))) {
+      return data.length() >= 4 && in.readInt() == MAGIC;
+    } catch (FileNotFoundException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // Save to a file
+  void write(File out) throws IOException {
+    Map<String, Integer> nameIds = new HashMap<>();
+    String[] distinct = new String[roadNames.length];
+    int[] nameOf = new int[roadNames.length];
+    for (int i = 0; i < roadNames.length; i++) {
+      Integer id = nameIds.get(roadNames[i]);
+      if (id == null) {
+        id = nameIds.size();
+        nameIds.put(roadNames[i], id);
+        distinct[id] = roadNames[i];
+      }
+      nameOf[i] = id;
+    }
+
+    try (DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(out), 1 << 16))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeInt(numLoaded);
+      output.writeInt(vertexNames.length);
+      output.writeInt(targets.length);
+      writeNames(output, vertexNames, vertexNames.length);
+      writeNames(output, distinct, nameIds.size());
+      for (int offset : offsets) {
+        output.writeInt(offset);
+      }
+      for (int target : targets) {
+        output.writeInt(target);
+      }
+      for (double weight : weights) {
+        output.writeDouble(weight);
+      }
+      for (int name : nameOf) {
+        output.writeInt(name);
+      }
+    }
+  }
+
+  // Map a file's arrays straight into an OffHeapGraph instead of copying
+  // them onto the heap. Only the weights are copied (to a direct buffer),
+  // so that they can still be set; each goes through roadWeight on the way.
+  static Mapped map(File data, DoubleUnaryOperator roadWeight) throws FileNotFoundException {
+    FileInputStream in = new FileInputStream(data);
+    try (FileChannel channel = in.getChannel()) {
+      Regions file = new Regions(channel, data);
+      if (channel.size() < 8 || file.nextInt() != MAGIC) {
+        throw new IllegalArgumentException("Not a network snapshot: " + data);
+      }
+      int version = file.nextInt();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unsupported snapshot version " + version);
+      }
+      int numLoaded = file.nextInt();
+      int n = file.nextInt();
+      int m = file.nextInt();
+      OffHeapGraph.Names vertexNames = file.names();
+      OffHeapGraph.Names distinct = file.names();
+      if (vertexNames.size() != n) {
+        throw new IllegalArgumentException("Corrupt snapshot: " + data);
+      }
+      IntBuffer offsets = file.next(4L * (n + 1)).asIntBuffer();
+      IntBuffer targets = file.next(4L * m).asIntBuffer();
+      ByteBuffer mapped = file.next(8L * m);
+      DoubleBuffer weights = ByteBuffer.allocateDirect(mapped.capacity()).put(mapped).clear()
+          .asDoubleBuffer();
+      for (int i = 0; i < m; i++) {
+        weights.put(i, roadWeight.applyAsDouble(weights.get(i)));
+      }
+      IntBuffer roadNames = file.next(4L * m).asIntBuffer();
+      return new Mapped(numLoaded, OffHeapGraph.wrap(vertexNames, offsets, targets,
+          weights, distinct, roadNames));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // A graph mapped by map(), with the number of roads it was loaded from
+  static final class Mapped {
+    final int numLoaded;
+    final OffHeapGraph graph;
+
+    Mapped(int numLoaded, OffHeapGraph graph) {
+      this.numLoaded = numLoaded;
+      this.graph = graph;
+    }
+  }
+
+  // Maps consecutive regions of a file, each one separately so that the
+  // file itself may be larger than one buffer
+  private static final class Regions {
+    private final FileChannel channel;
+    private final File data;
+    private long position;
+
+    Regions(FileChannel channel, File data) {
+      this.channel = channel;
+      this.data = data;
+    }
+
+    ByteBuffer next(long size) throws IOException {
+      if (size < 0 || position + size > channel.size()) {
+        throw new IllegalArgumentException("Corrupt snapshot: " + data);
+      }
+      ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+      position += size;
+      return region;
+    }
+
+    int nextInt() throws IOException {
+      return next(4).getInt();
+    }
+
+    OffHeapGraph.Names names() throws IOException {
+      int count = nextInt();
+      IntBuffer ends = next(4L * count).asIntBuffer();
+      return new OffHeapGraph.Names(ends, next(nextInt()));
+    }
+  }
+
+  // helper method: one string table
+  private static void writeNames(DataOutputStream output, String[] names, int count)
+      throws IOException {
+    byte[][] bytes = new byte[count][];
+    int total = 0;
+    output.writeInt(count);
+    for (int i = 0; i < count; i++) {
+      bytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+      total += bytes[i].length;
+      output.writeInt(total);
+    }
+    output.writeInt(total);
+    for (byte[] name : bytes) {
+      output.write(name);
+    }
+  }
+
+  // Load from a file; the file is memory-mapped and its arrays copied out
+  // in bulk
+  static NetworkSnapshot read(File data) throws FileNotFoundException {
+    FileInputStream in = new FileInputStream(data);
+    try (FileChannel channel = in.getChannel()) {
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+        throw new IllegalArgumentException("Not a network snapshot: " + data);
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unsupported snapshot version " + version);
+      }
+      int numLoaded = buffer.getInt();
+      int n = buffer.getInt();
+      int m = buffer.getInt();
+      String[] vertexNames = readNames(buffer);
+      String[] distinct = readNames(buffer);
+      if (vertexNames.length != n) {
+        throw new IllegalArgumentException("Corrupt snapshot: " + data);
+      }
+      int[] offsets = ints(buffer, n + 1);
+      int[] targets = ints(buffer, m);
+      double[] weights = new double[m];
+      buffer.asDoubleBuffer().get(weights);
+      buffer.position(buffer.position() + 8 * m);
+      int[] nameOf = ints(buffer, m);
+      String[] roadNames = new String[m];
+      for (int i = 0; i < m; i++) {
+        roadNames[i] = distinct[nameOf[i]];
+      }
+      return new NetworkSnapshot(numLoaded, vertexNames, offsets, targets, weights, roadNames);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) { // short or inconsistent file
+      if (e instanceof IllegalArgumentException) {
+        throw e;
+      }
+      throw new IllegalArgumentException("Corrupt snapshot: " + data, e);
+    }
+  }
+
+  // helper method: one string table
+  private static String[] readNames(ByteBuffer buffer) {
+    int count = buffer.getInt();
+    int[] ends = ints(buffer, count);
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    String[] names = new String[count];
+    int start = 0;
+    for (int i = 0; i < count; i++) {
+      names[i] = new String(bytes, start, ends[i] - start, StandardCharsets.UTF_8);
+      start = ends[i];
+    }
+    return names;
+  }
+
+  // helper method: bulk copy of the next count ints
+  private static int[] ints(ByteBuffer buffer, int count) {
+    int[] values = new int[count];
+    buffer.asIntBuffer().get(values);
+    buffer.position(buffer.position() + 4 * count);
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("NetworkSnapshot: %d endpoints, %d roads, %d loaded",
+        vertexNames.length, targets.length, numLoaded);
+  }
+}
@@ -0,0 +1,33 @@
+package graphs.spp;
+
+/**
+ * How a searcher queues vertices: which VertexQueue it creates, and how
+ * road lengths are stored when a network is loaded so that the queue
+ * can order them. The default is an IndexedMinHeap over the lengths as
+ * read from the file.
+ */
+@FunctionalInterface
+public interface QueueStrategy {
+
+  /** 4-ary IndexedMinHeap, exact for any non-negative lengths. */
+  QueueStrategy HEAP = IndexedMinHeap::new;
+
+  /**
+   * Create a queue.
+   *
+   * @param capacity ids must be in 0..capacity-1.
+   * @return an empty queue.
+   */
+  VertexQueue create(int capacity);
+
+  /**
+   * Length a road is stored with when a network is loaded, from a data
+   * file or a snapshot.
+   *
+   * @param length length as read, in the data file's length units.
+   * @return length unchanged by default.
+   */
+  default double roadWeight(double length) {
+    return length;
+  }
+}
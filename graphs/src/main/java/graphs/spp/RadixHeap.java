@@ -0,0 +1,273 @@
+package graphs.spp;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A monotone radix heap of int ids in 0..capacity-1. Keys are doubles
+ * turned into whole units (key * scale, rounded), and no key may be
+ * below the last one polled, which always holds for Dijkstra's
+ * algorithm with non-negative road lengths.
+ *
+ * <p>Ids sit in 65 buckets by the highest bit where their key differs
+ * from the last key polled. Insert and decreaseKey are O(1); poll empties
+ * the lowest bucket into lower ones only when bucket 0 runs out, and an
+ * id moves down at most 64 times, so there are no comparisons between
+ * keys besides finding each bucket's minimum.</p>
+ *
+ * <p>Ids whose keys round to the same number of units come out in any
+ * order. Orders are exact when every key is a whole number of units,
+ * e.g. when road lengths are stored rounded by the strategy() of the
+ * same scale and keys are sums of them.</p>
+ */
+public class RadixHeap implements VertexQueue {
+
+  private static final int BUCKETS = 65; // one per bit length of a long
+
+  private final double scale;
+  private final double[] keys; // id -> key as given
+  private final long[] units;  // id -> key in whole units
+  private final int[] bucket;  // id -> bucket, or -1 if not queued
+  private final int[] slot;    // id -> index in its bucket
+  private final int[][] buckets = new int[BUCKETS][];
+  private final int[] sizes = new int[BUCKETS];
+  private long last;           // units of the last key polled
+  private int size;
+
+  /**
+   * Create a heap.
+   *
+   * @param capacity ids must be in 0..capacity-1.
+   * @param scale    whole units per unit of key, e.g. 100 to keep keys
+   *                 to a hundredth.
+   * @throws IllegalArgumentException if scale is not positive.
+   */
+  public RadixHeap(int capacity, double scale) {
+    if (!(scale > 0) || Double.isInfinite(scale)) {
+      throw new IllegalArgumentException("scale must be positive: " + scale);
+    }
+    this.scale = scale;
+    keys = new double[capacity];
+    units = new long[capacity];
+    bucket = new int[capacity];
+    slot = new int[capacity];
+    Arrays.fill(bucket, -1);
+    for (int b = 0; b < BUCKETS; b++) {
+      buckets[b] = new int[4];
+    }
+  }
+
+  /**
+   * Strategy for searchers that queue vertices in radix heaps: roads are
+   * stored rounded to whole units when the network is loaded, so that
+   * path lengths are whole units too and come out of the heap in exact
+   * order.
+   *
+   * @param scale units per road-length unit (the data file's, which
+   *              need not be meters), e.g. 100 to keep lengths to a
+   *              hundredth of one.
+   * @return the strategy.
+   * @throws IllegalArgumentException if scale is not positive.
+   */
+  public static QueueStrategy strategy(double scale) {
+    new RadixHeap(0, scale); // check scale now rather than on first use
+    return new QueueStrategy() {
+      @Override
+      public VertexQueue create(int capacity) {
+        return new RadixHeap(capacity, scale);
+      }
+
+      @Override
+      public double roadWeight(double length) {
+        return Math.rint(length * scale) / scale;
+      }
+    };
+  }
+
+  /**
+   * Check if the heap is empty.
+   *
+   * @return true if no ids are queued.
+   */
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Number of queued ids.
+   *
+   * @return the number of ids in the heap.
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Check if an id is queued.
+   *
+   * @param id id to look for.
+   * @return true if id is in the heap.
+   */
+  @Override
+  public boolean contains(int id) {
+    return bucket[id] >= 0;
+  }
+
+  /**
+   * Key of a queued id.
+   *
+   * @param id id to look up.
+   * @return the key id was queued with.
+   * @throws NoSuchElementException if id is not queued.
+   */
+  @Override
+  public double key(int id) {
+    if (!contains(id)) {
+      throw new NoSuchElementException();
+    }
+    return keys[id];
+  }
+
+  /**
+   * Add an id.
+   *
+   * @param id  id to add.
+   * @param key priority of id, smallest comes out first.
+   * @throws IllegalArgumentException if id is already queued, or key is
+   *                                  below the last key polled.
+   */
+  @Override
+  public void insert(int id, double key) {
+    if (contains(id)) {
+      throw new IllegalArgumentException("id already queued: " + id);
+    }
+    keys[id] = key;
+    units[id] = units(key);
+    add(id);
+    size++;
+  }
+
+  /**
+   * Lower the key of a queued id.
+   *
+   * @param id  id to update.
+   * @param key new key, must not be larger than the current one.
+   * @throws NoSuchElementException if id is not queued.
+   * @throws IllegalArgumentException if key is larger than the current
+   *                                  key, or below the last key polled.
+   */
+  @Override
+  public void decreaseKey(int id, double key) {
+    if (!contains(id)) {
+      throw new NoSuchElementException();
+    } else if (key > keys[id]) {
+      throw new IllegalArgumentException("key increased for id " + id);
+    }
+    long newUnits = units(key);
+    keys[id] = key;
+    if (newUnits != units[id]) {
+      take(id);
+      units[id] = newUnits;
+      add(id);
+    }
+  }
+
+  /**
+   * Id with the smallest key.
+   *
+   * @return the id that poll() would remove.
+   * @throws NoSuchElementException if the heap is empty.
+   */
+  @Override
+  public int peek() {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    if (sizes[0] == 0) {
+      refill();
+    }
+    return buckets[0][sizes[0] - 1];
+  }
+
+  /**
+   * Remove the id with the smallest key.
+   *
+   * @return the removed id.
+   * @throws NoSuchElementException if the heap is empty.
+   */
+  @Override
+  public int poll() {
+    int top = peek();
+    sizes[0]--;
+    bucket[top] = -1;
+    size--;
+    return top;
+  }
+
+  /**
+   * Remove all ids, and forget the last key polled. Costs O(size), not
+   * O(capacity).
+   */
+  @Override
+  public void clear() {
+    for (int b = 0; b < BUCKETS; b++) {
+      for (int i = 0; i < sizes[b]; i++) {
+        bucket[buckets[b][i]] = -1;
+      }
+      sizes[b] = 0;
+    }
+    size = 0;
+    last = 0;
+  }
+
+  // helper method: key in whole units, checked against the last one polled
+  private long units(double key) {
+    long u = (long) (key * scale + 0.5); // infinity becomes Long.MAX_VALUE
+    if (u < last || !(key >= 0)) {
+      throw new IllegalArgumentException("key below the last one polled: " + key);
+    }
+    return u;
+  }
+
+  // helper method: move the ids of the lowest non-empty bucket down,
+  // taking its smallest key as the new last key
+  private void refill() {
+    int b = 1;
+    while (sizes[b] == 0) {
+      b++;
+    }
+    int[] items = buckets[b];
+    int count = sizes[b];
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < count; i++) {
+      min = Math.min(min, units[items[i]]);
+    }
+    last = min;
+    sizes[b] = 0;
+    for (int i = 0; i < count; i++) {
+      add(items[i]); // lands in a bucket below b
+    }
+  }
+
+  // helper method: append id to the bucket for its key
+  private void add(int id) {
+    int b = 64 - Long.numberOfLeadingZeros(units[id] ^ last);
+    if (sizes[b] == buckets[b].length) {
+      buckets[b] = Arrays.copyOf(buckets[b], 2 * sizes[b]);
+    }
+    bucket[id] = b;
+    slot[id] = sizes[b];
+    buckets[b][sizes[b]++] = id;
+  }
+
+  // helper method: remove id from its bucket, moving the bucket's last
+  // id into its slot
+  private void take(int id) {
+    int b = bucket[id];
+    int moved = buckets[b][--sizes[b]];
+    buckets[b][slot[id]] = moved;
+    slot[moved] = slot[id];
+  }
+}
@@ -0,0 +1,85 @@
+package graphs.spp;
+
+import graphs.graph.Edge;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of one shortest path query: the roads from start to end and
+ * their total length, or nothing if end cannot be reached from start.
+ */
+public final class Route {
+  private final String start;
+  private final String end;
+  private final double distance;
+  private final List<Edge<String>> roads;
+
+  /**
+   * Create a route.
+   *
+   * @param start    name of the starting endpoint.
+   * @param end      name of the ending endpoint.
+   * @param distance total length of the roads.
+   * @param roads    roads in order from start to end, or null if there is
+   *                 no path (the distance is then ignored).
+   */
+  public Route(String start, String end, double distance, List<Edge<String>> roads) {
+    this.start = start;
+    this.end = end;
+    this.distance = roads == null ? Double.POSITIVE_INFINITY : distance;
+    this.roads = roads == null ? null : Collections.unmodifiableList(roads);
+  }
+
+  /**
+   * Name of the starting endpoint.
+   *
+   * @return start name.
+   */
+  public String start() {
+    return start;
+  }
+
+  /**
+   * Name of the ending endpoint.
+   *
+   * @return end name.
+   */
+  public String end() {
+    return end;
+  }
+
+  /**
+   * Check if a path was found.
+   *
+   * @return true if end can be reached from start.
+   */
+  public boolean found() {
+    return roads != null;
+  }
+
+  /**
+   * Total length of the route.
+   *
+   * @return the distance, or infinity if no path was found.
+   */
+  public double distance() {
+    return distance;
+  }
+
+  /**
+   * Roads on the route.
+   *
+   * @return read-only roads from start to end, empty if start is end,
+   *         or null if no path was found.
+   */
+  public List<Edge<String>> roads() {
+    return roads;
+  }
+
+  @Override
+  public String toString() {
+    return found()
+        ? String.format("%s -> %s: %.4f over %d roads", start, end, distance, roads.size())
+        : String.format("%s -> %s: no path", start, end);
+  }
+}
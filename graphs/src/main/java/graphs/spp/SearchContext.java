@@ -0,0 +1,195 @@
+package graphs.spp;
+
+import graphs.graph.EdgeCursor;
+import graphs.graph.Graph;
+import java.util.Arrays;
+
+/**
+ * Per-query state of a shortest path search: tentative distances, the
+ * vertex each reached vertex was reached from, which vertices are
+ * settled and which are targets of the query, all by vertex id. Only ints and doubles are stored, so a search
+ * that relaxes roads through an EdgeCursor does not allocate.
+ * Entries are stamped with the query they belong to, so reset() starts a new
+ * query without clearing the arrays; anything stamped by an earlier query
+ * reads as unreached. A context is used by one query at a time.
+ */
+public class SearchContext {
+  private int[] reached;  // id -> stamp of the query that reached it
+  private int[] settled;  // id -> stamp of the query that settled it
+  private int[] target;   // id -> stamp of the query it is a target of
+  private double[] distance;
+  private int[] predecessor; // id -> other end of the road into id
+  private final QueueStrategy queues;
+  private VertexQueue queue;
+  private int stamp;
+  private Graph<String, String> cursorGraph;
+  private EdgeCursor<String> cursor;
+
+  /**
+   * Create a context for vertex ids in 0..capacity-1.
+   *
+   * @param capacity number of vertices.
+   */
+  public SearchContext(int capacity) {
+    this(capacity, QueueStrategy.HEAP);
+  }
+
+  /**
+   * Create a context for vertex ids in 0..capacity-1 whose queue comes
+   * from a strategy.
+   *
+   * @param capacity number of vertices.
+   * @param queues   strategy that creates the queue.
+   */
+  public SearchContext(int capacity, QueueStrategy queues) {
+    this.queues = queues;
+    allocate(capacity);
+  }
+
+  /**
+   * Start a new query: every vertex becomes unreached and the queue empty.
+   * Costs O(size of the queue) unless capacity has to grow.
+   *
+   * @param capacity number of vertices the query may reach.
+   */
+  public void reset(int capacity) {
+    if (capacity > reached.length) {
+      allocate(capacity);
+      return;
+    }
+    queue.clear();
+    if (stamp == Integer.MAX_VALUE) { // stamps wrapped, start over
+      Arrays.fill(reached, 0);
+      Arrays.fill(settled, 0);
+      Arrays.fill(target, 0);
+      stamp = 0;
+    }
+    stamp++;
+  }
+
+  /**
+   * Queue of vertex ids for the current query.
+   *
+   * @return the queue, emptied by reset().
+   */
+  public VertexQueue queue() {
+    return queue;
+  }
+
+  /**
+   * Check if a vertex was reached in the current query.
+   *
+   * @param id vertex id.
+   * @return true if distance() has been set for id.
+   */
+  public boolean isReached(int id) {
+    return reached[id] == stamp;
+  }
+
+  /**
+   * Tentative distance of a vertex.
+   *
+   * @param id vertex id.
+   * @return the distance, or infinity if id was not reached.
+   */
+  public double distance(int id) {
+    return isReached(id) ? distance[id] : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Vertex at the other end of the road a vertex was last reached over;
+   * the road itself is EdgeCursor.find(predecessor, id), or find(id,
+   * predecessor) for a search over incoming roads.
+   *
+   * @param id vertex id.
+   * @return the vertex id, or -1 if id was not reached or is the source.
+   */
+  public int predecessor(int id) {
+    return isReached(id) ? predecessor[id] : -1;
+  }
+
+  /**
+   * Record a (shorter) distance to a vertex.
+   *
+   * @param id   vertex id.
+   * @param dist distance from the source.
+   * @param from vertex id at the other end of the road into id, -1 for
+   *             the source.
+   */
+  public void reach(int id, double dist, int from) {
+    reached[id] = stamp;
+    distance[id] = dist;
+    predecessor[id] = from;
+  }
+
+  /**
+   * Check if a vertex is settled in the current query.
+   *
+   * @param id vertex id.
+   * @return true if settle() was called for id.
+   */
+  public boolean isSettled(int id) {
+    return settled[id] == stamp;
+  }
+
+  /**
+   * Mark a vertex settled: its distance is final.
+   *
+   * @param id vertex id.
+   */
+  public void settle(int id) {
+    settled[id] = stamp;
+  }
+
+  /**
+   * Mark a vertex as one the current query has to settle, e.g. one of
+   * several ends served by one search.
+   *
+   * @param id vertex id.
+   * @return true if id was not a target yet, so callers can count
+   *         distinct targets.
+   */
+  public boolean target(int id) {
+    if (target[id] == stamp) {
+      return false;
+    }
+    target[id] = stamp;
+    return true;
+  }
+
+  /**
+   * Check if a vertex is a target of the current query.
+   *
+   * @param id vertex id.
+   * @return true if target() was called for id.
+   */
+  public boolean isTarget(int id) {
+    return target[id] == stamp;
+  }
+
+  /**
+   * Edge cursor for a graph, kept with the context so queries that reuse
+   * the context do not allocate one.
+   *
+   * @param graph graph the query searches.
+   * @return a cursor over graph's edges.
+   */
+  public EdgeCursor<String> cursor(Graph<String, String> graph) {
+    if (cursorGraph != graph) { // first query, or a different network
+      cursorGraph = graph;
+      cursor = graph.cursor();
+    }
+    return cursor;
+  }
+
+  // helper method: fresh arrays, all entries unreached
+  private void allocate(int capacity) {
+    reached = new int[capacity];
+    settled = new int[capacity];
+    target = new int[capacity];
+    distance = new double[capacity];
+    predecessor = new int[capacity];
+    queue = queues.create(capacity);
+    stamp = 1;
+  }
+}
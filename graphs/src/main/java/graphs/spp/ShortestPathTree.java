@@ -0,0 +1,119 @@
+package graphs.spp;
+
+/**
+ * Shortest paths from one source to every vertex of a network, as plain
+ * arrays indexed by vertex id: the distance from the source and the
+ * previous vertex on a shortest path. Roads are followed backwards from
+ * any vertex to the source through predecessor().
+ */
+public final class ShortestPathTree {
+  private final int source;
+  private final double[] distance;
+  private final int[] predecessor;
+
+  /**
+   * Create a tree from arrays filled by a search; the arrays are kept,
+   * not copied.
+   *
+   * @param source      id of the source vertex.
+   * @param distance    id -> distance from the source, infinity if unreached.
+   * @param predecessor id -> previous vertex id, -1 for the source and
+   *                    for unreached vertices.
+   */
+  public ShortestPathTree(int source, double[] distance, int[] predecessor) {
+    this.source = source;
+    this.distance = distance;
+    this.predecessor = predecessor;
+  }
+
+  /**
+   * Id of the source vertex.
+   *
+   * @return source id.
+   */
+  public int source() {
+    return source;
+  }
+
+  /**
+   * Number of vertex ids covered.
+   *
+   * @return length of the distance and predecessor arrays.
+   */
+  public int size() {
+    return distance.length;
+  }
+
+  /**
+   * Check if a vertex can be reached from the source.
+   *
+   * @param id vertex id.
+   * @return true if distance(id) is finite.
+   */
+  public boolean reached(int id) {
+    return distance[id] < Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Length of a shortest path from the source.
+   *
+   * @param id vertex id.
+   * @return the distance, or infinity if id cannot be reached.
+   */
+  public double distance(int id) {
+    return distance[id];
+  }
+
+  /**
+   * Previous vertex on a shortest path from the source.
+   *
+   * @param id vertex id.
+   * @return the previous vertex id, or -1 for the source and for
+   *         vertices that cannot be reached.
+   */
+  public int predecessor(int id) {
+    return predecessor[id];
+  }
+
+  /**
+   * All distances, by vertex id. The array belongs to the tree and must
+   * not be changed.
+   *
+   * @return the distance array.
+   */
+  public double[] distances() {
+    return distance;
+  }
+
+  /**
+   * All predecessors, by vertex id. The array belongs to the tree and
+   * must not be changed.
+   *
+   * @return the predecessor array.
+   */
+  public int[] predecessors() {
+    return predecessor;
+  }
+
+  /**
+   * Vertices on the shortest path from the source to a vertex.
+   *
+   * @param id vertex id.
+   * @return vertex ids from the source to id (just the source if id is
+   *         the source), or null if id cannot be reached.
+   */
+  public int[] pathTo(int id) {
+    if (!reached(id)) {
+      return null;
+    }
+    int length = 1;
+    for (int cur = id; cur != source; cur = predecessor[cur]) {
+      length++;
+    }
+    int[] path = new int[length];
+    for (int cur = id; length > 0; cur = predecessor[cur]) {
+      path[--length] = cur;
+    }
+    return path;
+  }
+}
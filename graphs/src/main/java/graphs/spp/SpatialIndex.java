@@ -0,0 +1,312 @@
+package graphs.spp;
+
+import java.util.Arrays;
+
+/**
+ * A k-d tree over vertex positions, for snapping raw GPS points to the
+ * network. Points are placed on the unit sphere in 3D, where the straight
+ * (chord) distance between two points grows with their great-circle
+ * distance, so the nearest points in the tree are exactly the nearest on
+ * the earth, with no projection error at any latitude.
+ *
+ * <p>The tree is balanced (median splits on the widest axis), so a
+ * nearest query takes O(log n) time on street networks; k nearest and
+ * radius queries add the size of their answer. The index is immutable
+ * and safe to query from several threads.</p>
+ */
+public final class SpatialIndex {
+  private final int[] ids;     // vertex ids in tree order
+  private final double[][] p;  // p[axis][i], unit vector of ids[i]
+  private final byte[] axis;   // split axis of the subtree rooted at i
+
+  /**
+   * Index every position.
+   *
+   * @param coordinates vertex positions; NaN positions are left out.
+   */
+  public SpatialIndex(Coordinates coordinates) {
+    int n = 0;
+    int[] order = new int[coordinates.size()];
+    for (int id = 0; id < coordinates.size(); id++) {
+      if (!Double.isNaN(coordinates.latitude(id))) {
+        order[n++] = id;
+      }
+    }
+    ids = Arrays.copyOf(order, n);
+    p = new double[3][n];
+    axis = new byte[n];
+    for (int i = 0; i < n; i++) {
+      set(p, i, coordinates.longitude(ids[i]), coordinates.latitude(ids[i]));
+    }
+    build(0, n);
+  }
+
+  /**
+   * Number of positions in the index.
+   *
+   * @return the number of vertices indexed.
+   */
+  public int size() {
+    return ids.length;
+  }
+
+  /**
+   * Vertex nearest to a point.
+   *
+   * @param lon longitude in degrees.
+   * @param lat latitude in degrees.
+   * @return id of the nearest vertex, or -1 if the index is empty.
+   * @throws IllegalArgumentException if the point is not finite.
+   */
+  public int nearest(double lon, double lat) {
+    int[] found = nearest(lon, lat, 1);
+    return found.length == 0 ? -1 : found[0];
+  }
+
+  /**
+   * The k vertices nearest to a point.
+   *
+   * @param lon longitude in degrees.
+   * @param lat latitude in degrees.
+   * @param k   number of vertices wanted.
+   * @return ids of min(k, size()) vertices, nearest first.
+   * @throws IllegalArgumentException if k is negative or the point is
+   *                                  not finite.
+   */
+  public int[] nearest(double lon, double lat, int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("k must not be negative");
+    }
+    Query query = new Query(lon, lat, Math.min(k, ids.length), Double.POSITIVE_INFINITY);
+    search(query, 0, ids.length);
+    return query.sorted();
+  }
+
+  /**
+   * Vertices within a distance of a point.
+   *
+   * @param lon    longitude in degrees.
+   * @param lat    latitude in degrees.
+   * @param meters great-circle distance.
+   * @return ids of every vertex at most meters away, nearest first.
+   * @throws IllegalArgumentException if the point is not finite.
+   */
+  public int[] within(double lon, double lat, double meters) {
+    double angle = Math.min(Math.max(meters, 0) / Coordinates.EARTH_RADIUS, Math.PI);
+    double chord = 2 * Math.sin(angle / 2);
+    Query query = new Query(lon, lat, ids.length, chord * chord * (1 + 1e-12));
+    search(query, 0, ids.length);
+    return query.sorted();
+  }
+
+  // helper method: visit the subtree ids[lo, hi), nearer half first, and
+  // skip the far half when its splitting plane is beyond the worst answer
+  private void search(Query query, int lo, int hi) {
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      query.offer(ids[mid], distance2(query.point, mid));
+      int a = axis[mid];
+      double diff = query.point[a] - p[a][mid];
+      int nearLo = diff < 0 ? lo : mid + 1;
+      int nearHi = diff < 0 ? mid : hi;
+      search(query, nearLo, nearHi);
+      if (diff * diff > query.bound()) {
+        return;
+      }
+      lo = diff < 0 ? mid + 1 : lo; // far half, without recursing
+      hi = diff < 0 ? hi : mid;
+    }
+  }
+
+  // helper method: squared chord distance from a point to ids[i]
+  private double distance2(double[] point, int i) {
+    double dx = point[0] - p[0][i];
+    double dy = point[1] - p[1][i];
+    double dz = point[2] - p[2][i];
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  // helper method: lay out ids[lo, hi) as a balanced tree rooted at the
+  // median, split on the axis the points spread most along
+  private void build(int lo, int hi) {
+    if (hi - lo <= 1) {
+      return;
+    }
+    int a = widest(lo, hi);
+    int mid = (lo + hi) >>> 1;
+    select(a, lo, hi - 1, mid);
+    axis[mid] = (byte) a;
+    build(lo, mid);
+    build(mid + 1, hi);
+  }
+
+  // helper method: axis with the largest extent over [lo, hi)
+  private int widest(int lo, int hi) {
+    int best = 0;
+    double bestSpread = -1;
+    for (int a = 0; a < 3; a++) {
+      double min = Double.POSITIVE_INFINITY;
+      double max = Double.NEGATIVE_INFINITY;
+      for (int i = lo; i < hi; i++) {
+        min = Math.min(min, p[a][i]);
+        max = Math.max(max, p[a][i]);
+      }
+      if (max - min > bestSpread) {
+        bestSpread = max - min;
+        best = a;
+      }
+    }
+    return best;
+  }
+
+  // helper method: quickselect on axis a so that position k of [lo, hi]
+  // holds its median and everything before it is no greater
+  private void select(int a, int lo, int hi, int k) {
+    while (lo < hi) {
+      double pivot = p[a][(lo + hi) >>> 1];
+      int i = lo;
+      int j = hi;
+      while (i <= j) {
+        while (p[a][i] < pivot) {
+          i++;
+        }
+        while (p[a][j] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          swap(i++, j--);
+        }
+      }
+      if (k <= j) {
+        hi = j;
+      } else if (k >= i) {
+        lo = i;
+      } else {
+        return;
+      }
+    }
+  }
+
+  // helper method: swap two points with their ids
+  private void swap(int i, int j) {
+    int id = ids[i];
+    ids[i] = ids[j];
+    ids[j] = id;
+    for (double[] coordinate : p) {
+      double t = coordinate[i];
+      coordinate[i] = coordinate[j];
+      coordinate[j] = t;
+    }
+  }
+
+  // helper method: unit vector of a lon/lat point, stored at index i
+  private static void set(double[][] p, int i, double lon, double lat) {
+    double phi = Math.toRadians(lat);
+    double lambda = Math.toRadians(lon);
+    p[0][i] = Math.cos(phi) * Math.cos(lambda);
+    p[1][i] = Math.cos(phi) * Math.sin(lambda);
+    p[2][i] = Math.sin(phi);
+  }
+
+  // The best answers found so far by one query, as a max-heap on distance
+  // so the worst one can be dropped
+  private static final class Query {
+    final double[] point;
+    private final int capacity;
+    private final double radius2;  // answers must be at most this far
+    private int[] heapIds;
+    private double[] heapDist;
+    private int size;
+
+    Query(double lon, double lat, int capacity, double radius2) {
+      if (!Double.isFinite(lon) || !Double.isFinite(lat)) {
+        throw new IllegalArgumentException("not a point: " + lon + "," + lat);
+      }
+      double[][] xyz = new double[3][1];
+      set(xyz, 0, lon, lat);
+      this.point = new double[]{xyz[0][0], xyz[1][0], xyz[2][0]};
+      this.capacity = capacity;
+      this.radius2 = radius2;
+      this.heapIds = new int[Math.min(capacity, 16)];
+      this.heapDist = new double[heapIds.length];
+    }
+
+    // squared distance an answer has to beat to be kept
+    double bound() {
+      return size == capacity ? (capacity == 0 ? -1 : heapDist[0]) : radius2;
+    }
+
+    void offer(int id, double d2) {
+      if (d2 > radius2 || capacity == 0) {
+        return;
+      }
+      if (size < capacity) {
+        if (size == heapIds.length) {
+          heapIds = Arrays.copyOf(heapIds, Math.min(2 * size, capacity));
+          heapDist = Arrays.copyOf(heapDist, heapIds.length);
+        }
+        heapIds[size] = id;
+        heapDist[size] = d2;
+        up(size++);
+      } else if (worse(heapDist[0], heapIds[0], d2, id)) {
+        heapIds[0] = id;
+        heapDist[0] = d2;
+        down(0);
+      }
+    }
+
+    // empties the heap, worst answer last
+    int[] sorted() {
+      int[] out = new int[size];
+      while (size > 0) {
+        out[size - 1] = heapIds[0];
+        size--;
+        heapIds[0] = heapIds[size];
+        heapDist[0] = heapDist[size];
+        down(0);
+      }
+      return out;
+    }
+
+    // ties are broken by id so answers do not depend on tree layout
+    private static boolean worse(double d1, int id1, double d2, int id2) {
+      return d1 > d2 || (d1 == d2 && id1 > id2);
+    }
+
+    private void up(int i) {
+      while (i > 0) {
+        int parent = (i - 1) / 2;
+        if (!worse(heapDist[i], heapIds[i], heapDist[parent], heapIds[parent])) {
+          return;
+        }
+        swap(i, parent);
+        i = parent;
+      }
+    }
+
+    private void down(int i) {
+      while (true) {
+        int worst = i;
+        for (int c = 2 * i + 1; c <= 2 * i + 2 && c < size; c++) {
+          if (worse(heapDist[c], heapIds[c], heapDist[worst], heapIds[worst])) {
+            worst = c;
+          }
+        }
+        if (worst == i) {
+          return;
+        }
+        swap(i, worst);
+        i = worst;
+      }
+    }
+
+    private void swap(int i, int j) {
+      int id = heapIds[i];
+      heapIds[i] = heapIds[j];
+      heapIds[j] = id;
+      double d = heapDist[i];
+      heapDist[i] = heapDist[j];
+      heapDist[j] = d;
+    }
+  }
+}
@@ -1,17 +1,25 @@
 package graphs.spp;
 
 import exceptions.InsertionException;
+import graphs.graph.CsrGraph;
 import graphs.graph.Edge;
-import graphs.graph.Graph;
+import graphs.graph.EdgeCursor;
+import graphs.graph.OffHeapGraph;
 import graphs.graph.Vertex;
+import graphs.graph.WeightedGraph;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Search for the shortest path between two endpoints.
@@ -21,9 +29,11 @@ public abstract class StreetSearcher {
   /*
    * Notes:
    *  - Vertex data is the coordinates, stored as a String.
-   *  - Vertex label is the Edge into it on the path found.
+   *  - Vertex labels are not used; searches keep the vertex each vertex
+   *    was reached from in their own SearchContext so queries can run
+   *    concurrently.
    *  - Edge data is the road name, stored as a String.
-   *  - Edge label is the road length, stored as a Double.
+   *  - Edge weight is the road length; edge labels are not used.
    */
 
   public static boolean VERBOSE = true;
@@ -33,63 +43,475 @@ public abstract class StreetSearcher {
 
   public int numLoaded;
 
-  /* We use a HashMap to store all the vertices so we can
-   * find them by name (i.e. their coordinates) when inserting
-   * for a fast duplicates check. */
+  // number of vertices settled by the last search to finish
+  public int numSettled;
+
+  /* We index all the vertices by name (i.e. their coordinates) so we
+   * can find them when inserting for a fast duplicates check. The names
+   * are kept in a NameDictionary (see EndpointIndex) rather than a
+   * HashMap. */
   protected Map<String, Vertex<String>> vertices;
-  protected Graph<String, String> graph;
+  /* Searchers keep per-vertex state in plain arrays indexed by
+   * graph.id(v). Vertices are only ever inserted, never removed, so
+   * ids run 0..n-1 in the order endpoints are added. */
+  protected WeightedGraph<String, String> graph;
+
+  // contexts of finished queries, reused instead of reallocated
+  private final Queue<SearchContext> contexts = new ConcurrentLinkedQueue<>();
 
+  // endpoints by position, built on first use (see spatialIndex())
+  private SpatialIndex spatialIndex;
+  private WeightedGraph<String, String> indexedGraph;
+  private long indexedVersion;
+
+  // copy of the graph for parallel trees, made on first use (see deltaStepping())
+  private DeltaStepping deltaStepping;
+  private WeightedGraph<String, String> steppedGraph;
+  private long steppedVersion;
 
   /**
    * Creates a StreetSearcher object.
    *
-   * @param graph and implementation of Graph ADT.
+   * @param graph an implementation of WeightedGraph ADT.
    */
-  public StreetSearcher(Graph<String, String> graph) {
-    vertices = new HashMap<>();
+  public StreetSearcher(WeightedGraph<String, String> graph) {
+    vertices = new EndpointIndex(graph);
     this.graph = graph;
     this.numLoaded = 0;
+    this.numSettled = 0;
   }
 
-  // Get the path by tracing labels back from end to start.
-  protected List<Edge<String>> getPath(Vertex<String> end,
+  // Get the path by tracing the roads recorded by a search back from end
+  // to start; the path is returned in order from start to end.
+  protected List<Edge<String>> getPath(SearchContext context, Vertex<String> end,
                                        Vertex<String> start) {
-    if (graph.label(end) != null) {
+    int startId = graph.id(start);
+    int cur = graph.id(end);
+    if (context.predecessor(cur) >= 0) {
       List<Edge<String>> path = new ArrayList<>();
 
-      Vertex<String> cur = end;
-      Edge<String> road;
-      while (cur != start) {
-        road = (Edge<String>) graph.label(cur);  // unchecked cast ok
-        path.add(road);
-        cur = graph.from(road);
+      EdgeCursor<String> roads = context.cursor(graph);
+      while (cur != startId) {
+        int prev = context.predecessor(cur);
+        path.add(roads.find(prev, cur));
+        cur = prev;
       }
+      Collections.reverse(path);
       return path;
     }
     return null;
   }
 
-  // Print the path found.
-  protected void printPath(List<Edge<String>> path, double totalDistance) {
-    if (path == null) {
+  // Print the route found.
+  protected void printPath(Route route) {
+    if (!route.found()) {
       System.out.println("No path found");
       return;
     }
 
-    System.out.printf("Total Distance: %.4f\n", totalDistance);
-    for (int i = path.size() - 1; i >= 0; i--) {
-      System.out.printf("\t%6.2f \t%s\n", graph.label(path.get(i)), path.get(i).get());
+    System.out.printf("Total Distance: %.4f\n", route.distance());
+    for (Edge<String> road : route.roads()) {
+      System.out.printf("\t%6.2f \t%s\n", graph.weight(road), road.get());
     }
   }
 
+  /**
+   * Find the shortest path and print it if VERBOSE.
+   *
+   * @param startName starting vertex name
+   * @param endName   ending vertex name
+   */
+  public void findShortestPath(String startName, String endName) {
+    if (!vertices.containsKey(startName) || !vertices.containsKey(endName)) {
+      System.out.println("Invalid endpoint: " + endName);
+      return;
+    }
+
+    if (startName.equals(endName)) {
+      System.out.println("No path found");
+      return;
+    }
+
+    Route route = route(startName, endName);
+    if (VERBOSE) {
+      printPath(route);
+    }
+  }
 
   /**
-   * Find the shortest path.
+   * Find the shortest path without printing anything.
+   * Safe to call from several threads once the network is loaded.
    *
    * @param startName starting vertex name
    * @param endName   ending vertex name
+   * @return the route, with no roads if start is end.
+   * @throws IllegalArgumentException if an endpoint is not in the network.
+   */
+  public abstract Route route(String startName, String endName);
+
+  /**
+   * Find the shortest paths for a batch of pairs on the common ForkJoinPool.
+   *
+   * @param pairs {start, end} names.
+   * @return routes in the same order as pairs.
+   * @throws IllegalArgumentException if an endpoint is not in the network.
+   */
+  public List<Route> routes(List<String[]> pairs) {
+    return routes(pairs, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Find the shortest paths for a batch of pairs. Pairs are grouped by
+   * start, and each group is answered by one task on the pool, so a
+   * searcher can serve a whole group from one search (see routesFrom()).
+   *
+   * @param pairs {start, end} names.
+   * @param pool  pool the groups run on.
+   * @return routes in the same order as pairs.
+   * @throws IllegalArgumentException if an endpoint is not in the network.
+   */
+  public List<Route> routes(List<String[]> pairs, ForkJoinPool pool) {
+    Map<String, List<Integer>> groups = new LinkedHashMap<>(); // start -> pair indices
+    for (int i = 0; i < pairs.size(); i++) {
+      checkValidEndpoint(pairs.get(i)[0]);
+      checkValidEndpoint(pairs.get(i)[1]);
+      groups.computeIfAbsent(pairs.get(i)[0], k -> new ArrayList<>()).add(i);
+    }
+
+    Route[] results = new Route[pairs.size()];
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+      tasks.add(pool.submit(() -> {
+        List<String> ends = new ArrayList<>();
+        for (int i : group.getValue()) {
+          ends.add(pairs.get(i)[1]);
+        }
+        List<Route> found = routesFrom(group.getKey(), ends);
+        for (int j = 0; j < found.size(); j++) {
+          results[group.getValue().get(j)] = found.get(j);
+        }
+      }));
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join(); // rethrows anything the task threw
+    }
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Find the shortest paths from one start to several ends. Answers each
+   * end with route() by default, which suits searchers whose queries
+   * settle far fewer vertices than one tree covering every end, e.g. the
+   * contraction hierarchy; searchers that settle a tree from the start
+   * can serve them all from one search.
+   *
+   * @param startName starting vertex name
+   * @param endNames  ending vertex names, possibly repeated
+   * @return routes in the same order as endNames.
+   */
+  protected List<Route> routesFrom(String startName, List<String> endNames) {
+    List<Route> found = new ArrayList<>();
+    for (String endName : endNames) {
+      found.add(route(startName, endName));
+    }
+    return found;
+  }
+
+  /**
+   * Id of an endpoint, as used by ShortestPathTree.
+   *
+   * @param name endpoint name.
+   * @return vertex id of the endpoint.
+   * @throws IllegalArgumentException if name is not in the network.
+   */
+  public int vertexId(String name) {
+    checkValidEndpoint(name);
+    return graph.id(vertices.get(name));
+  }
+
+  /**
+   * Name of the endpoint with an id.
+   *
+   * @param id vertex id.
+   * @return endpoint name.
+   * @throws exceptions.PositionException if no endpoint has that id.
+   */
+  public String vertexName(int id) {
+    return graph.vertex(id).get();
+  }
+
+  /**
+   * Find the shortest path between two raw GPS points, each snapped to
+   * its nearest endpoint (see nearestEndpoint).
+   *
+   * @param startLon longitude of the start, in degrees.
+   * @param startLat latitude of the start, in degrees.
+   * @param endLon   longitude of the end, in degrees.
+   * @param endLat   latitude of the end, in degrees.
+   * @return the route between the snapped endpoints.
+   * @throws IllegalStateException if endpoint names are not coordinates,
+   *                               or the network is empty.
    */
-  public abstract void findShortestPath(String startName, String endName);
+  public Route route(double startLon, double startLat, double endLon, double endLat) {
+    return route(nearestEndpoint(startLon, startLat), nearestEndpoint(endLon, endLat));
+  }
+
+  /**
+   * Endpoint nearest to a raw GPS point, by great-circle distance. The
+   * endpoints are indexed in a SpatialIndex the first time this is
+   * needed, so each lookup takes O(log n).
+   *
+   * @param lon longitude in degrees.
+   * @param lat latitude in degrees.
+   * @return name of the nearest endpoint.
+   * @throws IllegalStateException if endpoint names are not coordinates,
+   *                               or the network is empty.
+   */
+  public String nearestEndpoint(double lon, double lat) {
+    int id = spatialIndex().nearest(lon, lat);
+    if (id < 0) {
+      throw new IllegalStateException("No endpoints loaded");
+    }
+    return graph.vertex(id).get();
+  }
+
+  /**
+   * The k endpoints nearest to a raw GPS point.
+   *
+   * @param lon longitude in degrees.
+   * @param lat latitude in degrees.
+   * @param k   number of endpoints wanted.
+   * @return names of up to k endpoints, nearest first.
+   * @throws IllegalStateException if endpoint names are not coordinates.
+   */
+  public List<String> nearestEndpoints(double lon, double lat, int k) {
+    return names(spatialIndex().nearest(lon, lat, k));
+  }
+
+  /**
+   * Endpoints within a distance of a raw GPS point.
+   *
+   * @param lon    longitude in degrees.
+   * @param lat    latitude in degrees.
+   * @param meters great-circle distance.
+   * @return names of the endpoints at most meters away, nearest first.
+   * @throws IllegalStateException if endpoint names are not coordinates.
+   */
+  public List<String> endpointsWithin(double lon, double lat, double meters) {
+    return names(spatialIndex().within(lon, lat, meters));
+  }
+
+  // helper method: endpoint names of vertex ids
+  private List<String> names(int[] ids) {
+    List<String> names = new ArrayList<>(ids.length);
+    for (int id : ids) {
+      names.add(graph.vertex(id).get());
+    }
+    return names;
+  }
+
+  // helper method: index the endpoints of the current graph, again if
+  // the graph changed (see Graph.version()) or was replaced since the
+  // last time
+  private synchronized SpatialIndex spatialIndex() {
+    if (spatialIndex == null || indexedGraph != graph
+        || indexedVersion != graph.version()) {
+      Coordinates coordinates = Coordinates.of(graph);
+      if (coordinates == null) {
+        throw new IllegalStateException("Endpoint names are not lon,lat pairs");
+      }
+      spatialIndex = new SpatialIndex(coordinates);
+      indexedGraph = graph;
+      indexedVersion = graph.version();
+    }
+    return spatialIndex;
+  }
+
+  /**
+   * Find the shortest paths from one start to every endpoint.
+   * Safe to call from several threads once the network is loaded.
+   *
+   * @param startName starting vertex name
+   * @return distances and predecessors by vertex id.
+   * @throws IllegalArgumentException if startName is not in the network.
+   */
+  public ShortestPathTree shortestPathTree(String startName) {
+    int startId = vertexId(startName);
+    SearchContext context = acquireContext();
+    try {
+      growTree(context, startId, null, 0);
+      int n = graph.vertexIdBound();
+      double[] distance = new double[n];
+      int[] predecessor = new int[n];
+      for (int id = 0; id < n; id++) {
+        distance[id] = context.distance(id);
+        predecessor[id] = context.predecessor(id);
+      }
+      return new ShortestPathTree(startId, distance, predecessor);
+    } finally {
+      releaseContext(context);
+    }
+  }
+
+  /**
+   * Find the shortest paths from one start to every endpoint with
+   * parallel delta-stepping, relaxing roads on a pool. Worth it for large
+   * networks and pools of several threads; on small networks the
+   * sequential shortestPathTree(startName) is faster.
+   *
+   * @param startName starting vertex name
+   * @param pool      pool the search runs on.
+   * @return distances and predecessors by vertex id.
+   * @throws IllegalArgumentException if startName is not in the network.
+   */
+  public ShortestPathTree shortestPathTree(String startName, ForkJoinPool pool) {
+    return deltaStepping().tree(vertexId(startName), pool);
+  }
+
+  // helper method: copy the current graph for delta-stepping, again if
+  // it was replaced or changed since the last time
+  private synchronized DeltaStepping deltaStepping() {
+    if (deltaStepping == null || steppedGraph != graph || steppedVersion != graph.version()) {
+      deltaStepping = new DeltaStepping(graph);
+      steppedGraph = graph;
+      steppedVersion = graph.version();
+    }
+    return deltaStepping;
+  }
+
+  /**
+   * Find the shortest paths from one start to every endpoint, and keep
+   * them up to date as roads are closed, reopened or change length.
+   * Road changes must go through the returned tree.
+   *
+   * @param startName starting vertex name
+   * @return the tree over the loaded network.
+   * @throws IllegalArgumentException if startName is not in the network.
+   */
+  public DynamicShortestPathTree dynamicShortestPathTree(String startName) {
+    checkValidEndpoint(startName);
+    return new DynamicShortestPathTree(graph, vertices.get(startName));
+  }
+
+  /**
+   * Shortest distances between every start and every end on the common
+   * ForkJoinPool.
+   *
+   * @param startNames starting vertex names.
+   * @param endNames   ending vertex names.
+   * @return matrix[i][j] is the distance from startNames[i] to endNames[j],
+   *         infinity if there is no path.
+   * @throws IllegalArgumentException if an endpoint is not in the network.
+   */
+  public double[][] distanceMatrix(List<String> startNames, List<String> endNames) {
+    return distanceMatrix(startNames, endNames, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Shortest distances between every start and every end. Each row is
+   * one task on the pool that grows a tree from its start until all the
+   * ends are settled.
+   *
+   * @param startNames starting vertex names.
+   * @param endNames   ending vertex names.
+   * @param pool       pool the rows run on.
+   * @return matrix[i][j] is the distance from startNames[i] to endNames[j],
+   *         infinity if there is no path.
+   * @throws IllegalArgumentException if an endpoint is not in the network.
+   */
+  public double[][] distanceMatrix(List<String> startNames, List<String> endNames,
+                                   ForkJoinPool pool) {
+    int[] startIds = new int[startNames.size()];
+    for (int i = 0; i < startIds.length; i++) {
+      startIds[i] = vertexId(startNames.get(i));
+    }
+    int[] endIds = new int[endNames.size()];
+    boolean[] isEnd = new boolean[graph.vertexIdBound()];
+    int numEnds = 0;
+    for (int j = 0; j < endIds.length; j++) {
+      endIds[j] = vertexId(endNames.get(j));
+      if (!isEnd[endIds[j]]) {
+        isEnd[endIds[j]] = true;
+        numEnds++;
+      }
+    }
+
+    double[][] matrix = new double[startIds.length][endIds.length];
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int i = 0; i < startIds.length; i++) {
+      final int row = i;
+      final int ends = numEnds;
+      tasks.add(pool.submit(() -> {
+        SearchContext context = acquireContext();
+        try {
+          growTree(context, startIds[row], isEnd, ends);
+          for (int j = 0; j < endIds.length; j++) {
+            matrix[row][j] = context.distance(endIds[j]);
+          }
+        } finally {
+          releaseContext(context);
+        }
+      }));
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join(); // rethrows anything the task threw
+    }
+    return matrix;
+  }
+
+  // helper method: Dijkstra from startId into a context; stops once the
+  // numEnds ids marked in isEnd are settled, or settles every reachable
+  // vertex if isEnd is null
+  private void growTree(SearchContext context, int startId, boolean[] isEnd, int numEnds) {
+    VertexQueue queue = context.queue();
+    context.reach(startId, 0.0, -1);
+    queue.insert(startId, 0.0);
+    EdgeCursor<String> roads = context.cursor(graph);
+    int unsettledEnds = numEnds;
+    while (!queue.isEmpty()) {
+      int curr = queue.poll();
+      context.settle(curr);
+      if (isEnd != null && isEnd[curr] && --unsettledEnds == 0) {
+        break; // distances to the ends are final
+      }
+      for (roads.outgoing(curr); roads.next(); ) {
+        int next = roads.vertex();
+        double dist = context.distance(curr) + roads.weight();
+        if (!context.isSettled(next) && dist < context.distance(next)) {
+          context.reach(next, dist, curr);
+          if (queue.contains(next)) {
+            queue.decreaseKey(next, dist);
+          } else {
+            queue.insert(next, dist);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Take a context for one query, reset for the loaded network.
+   * Pass it back to releaseContext() once the query is done with it.
+   *
+   * @return a context no other query is using.
+   */
+  protected SearchContext acquireContext() {
+    SearchContext context = contexts.poll();
+    if (context == null) {
+      return new SearchContext(graph.vertexIdBound(), queues());
+    }
+    context.reset(graph.vertexIdBound());
+    return context;
+  }
+
+  /**
+   * Return a context taken with acquireContext() to the pool.
+   *
+   * @param context context the query no longer uses.
+   */
+  protected void releaseContext(SearchContext context) {
+    contexts.offer(context);
+  }
 
   // Add an endpoint to the network if it is a new endpoint
   private Vertex<String> addLocation(String name) {
@@ -102,7 +524,8 @@ public abstract class StreetSearcher {
   }
 
   /**
-   * Load network from a data file.
+   * Load network from a data file, or from a snapshot saved with
+   * saveSnapshot().
    *
    * @param data File must be a list of edges
    *             with distances, in the format
@@ -110,28 +533,209 @@ public abstract class StreetSearcher {
    * @throws FileNotFoundException thrown if invalid file provided
    */
   public void loadNetwork(File data) throws FileNotFoundException {
-    int numRoads = 0;
-
-    // Read in from file fileName
-    Scanner input = new Scanner(new FileInputStream(data));
-    while (input.hasNext()) {
-
-      // Parse the line in to <end1> <end2> <road-distance> <road-name>
-      String[] tokens = input.nextLine().split(" ");
-      String fromName = tokens[0];
-      String toName = tokens[1];
-      double roadDistance = Double.parseDouble(tokens[2]);
-      String roadName = tokens[3];
-
-      boolean roadAdded = addRoad(fromName, toName, roadDistance, roadName);
-      if (roadAdded) {
-        numRoads += 2;
+    loadNetwork(data, null);
+  }
+
+  /**
+   * Load network from a data file, parsing it on a pool. Lines are still
+   * added to the graph one by one in file order, so the network, vertex
+   * numbering and numLoaded are the same as with loadNetwork(data).
+   *
+   * @param data File must be a list of edges
+   *             with distances, in the format
+   *             specified in the homework instructions.
+   * @param pool pool to parse on, or null to parse on this thread.
+   * @throws FileNotFoundException thrown if invalid file provided
+   */
+  public void loadNetwork(File data, ForkJoinPool pool) throws FileNotFoundException {
+    if (NetworkSnapshot.isSnapshot(data)) {
+      replaySnapshot(NetworkSnapshot.read(data));
+    } else {
+      readNetwork(data, null, pool);
+    }
+    afterLoad();
+  }
+
+  /**
+   * Load network from a data file into an immutable CsrGraph.
+   * The file is read in one pass; once it is done the compact graph
+   * replaces the graph this StreetSearcher was created with.
+   *
+   * @param data File must be a list of edges
+   *             with distances, in the format
+   *             specified in the homework instructions.
+   * @throws FileNotFoundException thrown if invalid file provided
+   */
+  public void loadCompactNetwork(File data) throws FileNotFoundException {
+    loadCompactNetwork(data, null);
+  }
+
+  /**
+   * Load network from a data file into an immutable CsrGraph, parsing it
+   * on a pool like loadNetwork(data, pool).
+   *
+   * @param data File must be a list of edges
+   *             with distances, in the format
+   *             specified in the homework instructions.
+   * @param pool pool to parse on, or null to parse on this thread.
+   * @throws FileNotFoundException thrown if invalid file provided
+   */
+  public void loadCompactNetwork(File data, ForkJoinPool pool) throws FileNotFoundException {
+    if (NetworkSnapshot.isSnapshot(data)) {
+      NetworkSnapshot snapshot = NetworkSnapshot.read(data);
+      for (int i = 0; i < snapshot.weights.length; i++) {
+        snapshot.weights[i] = queues().roadWeight(snapshot.weights[i]);
+      }
+      graph = CsrGraph.fromArrays(Arrays.asList(snapshot.vertexNames), snapshot.offsets,
+          snapshot.targets, snapshot.weights, Arrays.asList(snapshot.roadNames));
+      loaded(snapshot.numLoaded, snapshot.vertexNames.length);
+    } else {
+      CsrGraph.Builder<String, String> builder = new CsrGraph.Builder<>();
+      readNetwork(data, builder, pool);
+      graph = builder.build();
+    }
+    vertices = new EndpointIndex(graph);
+    for (Vertex<String> v : graph.vertices()) {
+      vertices.put(v.get(), v);
+    }
+    afterLoad();
+  }
+
+  /**
+   * Load network into an immutable OffHeapGraph, see
+   * loadOffHeapNetwork(data, pool).
+   *
+   * @param data File must be a list of edges
+   *             with distances, in the format
+   *             specified in the homework instructions.
+   * @throws FileNotFoundException thrown if invalid file provided
+   */
+  public void loadOffHeapNetwork(File data) throws FileNotFoundException {
+    loadOffHeapNetwork(data, null);
+  }
+
+  /**
+   * Load network into an immutable OffHeapGraph, whose roads, lengths and
+   * names are kept outside the Java heap. A snapshot saved with
+   * saveSnapshot() is memory-mapped instead of read, and endpoints are
+   * found by name through the graph's own index, so the heap stays about
+   * the same size however large the network is. A data file is first
+   * read like loadCompactNetwork(data, pool) and then copied off the
+   * heap, so save large networks as a snapshot once.
+   *
+   * @param data File must be a list of edges
+   *             with distances, in the format
+   *             specified in the homework instructions.
+   * @param pool pool to parse on, or null to parse on this thread.
+   * @throws FileNotFoundException thrown if invalid file provided
+   */
+  public void loadOffHeapNetwork(File data, ForkJoinPool pool) throws FileNotFoundException {
+    OffHeapGraph offHeap;
+    if (NetworkSnapshot.isSnapshot(data)) {
+      NetworkSnapshot.Mapped mapped = NetworkSnapshot.map(data, queues()::roadWeight);
+      offHeap = mapped.graph;
+      loaded(mapped.numLoaded, offHeap.vertexCount());
+    } else {
+      CsrGraph.Builder<String, String> builder = new CsrGraph.Builder<>();
+      readNetwork(data, builder, pool);
+      offHeap = OffHeapGraph.copyOf(builder.build());
+    }
+    graph = offHeap;
+    vertices = offHeap.byName();
+    afterLoad();
+  }
+
+  /**
+   * Save the loaded network as a NetworkSnapshot, which either load method
+   * reads back without parsing. Roads keep their order out of each
+   * endpoint, so searches take the same paths after loading it.
+   *
+   * @param out file to write.
+   * @throws IOException if out cannot be written.
+   */
+  public void saveSnapshot(File out) throws IOException {
+    int n = graph.vertexIdBound();
+    String[] vertexNames = new String[n];
+    int[] offsets = new int[n + 1];
+    List<Edge<String>> roads = new ArrayList<>();
+    for (int id = 0; id < n; id++) {
+      vertexNames[id] = graph.vertex(id).get();
+      for (Edge<String> road : graph.outgoing(graph.vertex(id))) {
+        roads.add(road);
+      }
+      offsets[id + 1] = roads.size();
+    }
+    int m = roads.size();
+    int[] targets = new int[m];
+    double[] weights = new double[m];
+    String[] roadNames = new String[m];
+    for (int i = 0; i < m; i++) {
+      targets[i] = graph.id(graph.to(roads.get(i)));
+      weights[i] = graph.weight(roads.get(i));
+      roadNames[i] = roads.get(i).get();
+    }
+    new NetworkSnapshot(numLoaded, vertexNames, offsets, targets, weights, roadNames).write(out);
+  }
+
+  // Insert a snapshot into the graph, vertex by vertex; incoming roads of
+  // each endpoint end up ordered by where they start
+  private void replaySnapshot(NetworkSnapshot snapshot) {
+    for (String name : snapshot.vertexNames) {
+      addLocation(name);
+    }
+    for (int id = 0; id < snapshot.vertexNames.length; id++) {
+      Vertex<String> from = vertices.get(snapshot.vertexNames[id]);
+      for (int i = snapshot.offsets[id]; i < snapshot.offsets[id + 1]; i++) {
+        Vertex<String> to = vertices.get(snapshot.vertexNames[snapshot.targets[i]]);
+        graph.insert(from, to, snapshot.roadNames[i],
+            queues().roadWeight(snapshot.weights[i]));
       }
     }
-    input.close();
+    loaded(snapshot.numLoaded, snapshot.vertexNames.length);
+  }
+
+  // Record and report the size of a network loaded without readNetwork()
+  private void loaded(int numRoads, int numEndpoints) {
     numLoaded = numRoads;
     if (VERBOSE) {
-      System.out.printf("Network Loaded: %d roads, %d endpoints\n", numRoads, vertices.size());
+      System.out.printf("Network Loaded: %d roads, %d endpoints\n", numRoads, numEndpoints);
+    }
+  }
+
+  /**
+   * How this searcher queues vertices, and so how road lengths are
+   * stored when a network is loaded from a data file or a snapshot.
+   *
+   * @return QueueStrategy.HEAP by default.
+   */
+  protected QueueStrategy queues() {
+    return QueueStrategy.HEAP;
+  }
+
+  /**
+   * Called once a network is loaded, for searchers that precompute
+   * something from it. Does nothing by default.
+   */
+  protected void afterLoad() {
+  }
+
+  // Parse the file (on pool if given), adding roads to the graph or to
+  // the builder if given
+  private void readNetwork(File data, CsrGraph.Builder<String, String> builder,
+                           ForkJoinPool pool) throws FileNotFoundException {
+    int numRoads;
+    int numEndpoints;
+
+    // Each line is <end1> <end2> <road-distance> <road-name>
+    int roadsAdded = NetworkReader.read(data, pool, builder == null
+        ? this::addRoad
+        : (fromName, toName, roadDistance, roadName) ->
+            addRoad(builder, fromName, toName, roadDistance, roadName));
+    numRoads = 2 * roadsAdded;
+    numLoaded = numRoads;
+    numEndpoints = builder == null ? vertices.size() : builder.vertexCount();
+    if (VERBOSE) {
+      System.out.printf("Network Loaded: %d roads, %d endpoints\n", numRoads, numEndpoints);
     }
   }
 
@@ -143,13 +747,34 @@ public abstract class StreetSearcher {
     // Add the road toVertex the network - We assume all roads are two-way and
     // ignore if we've already added the road as a reverse of another
     try {
-      Edge<String> roadEdge = graph.insert(fromVertex, toVertex, road);
-      Edge<String> backwardsRoad = graph.insert(toVertex, fromVertex, road);
+      // Each road is weighted with its length, as the queues want it
+      double weight = queues().roadWeight(distance);
+      graph.insert(fromVertex, toVertex, road, weight);
+      graph.insert(toVertex, fromVertex, road, weight);
 
-      // Label each road with it's weight
-      graph.label(roadEdge, distance);
-      graph.label(backwardsRoad, distance);
+    } catch (InsertionException ignored) {
+      return false;
+    }
 
+    return true;
+  }
+
+  // Same as addRoad, but into a CsrGraph builder with primitive weights
+  private boolean addRoad(CsrGraph.Builder<String, String> builder,
+                          String from, String to, double distance, String road) {
+    int fromId = builder.find(from);
+    if (fromId < 0) {
+      fromId = builder.insert(from);
+    }
+    int toId = builder.find(to);
+    if (toId < 0) {
+      toId = builder.insert(to);
+    }
+
+    try {
+      double weight = queues().roadWeight(distance);
+      builder.insert(fromId, toId, road, weight);
+      builder.insert(toId, fromId, road, weight);
     } catch (InsertionException ignored) {
       return false;
     }
@@ -0,0 +1,82 @@
+package graphs.spp;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Priority queue of vertex ids in 0..capacity-1 ordered by double keys,
+ * as used by the searchers. Each id is queued at most once and its key
+ * can only go down. Implementations are picked through a QueueStrategy.
+ */
+public interface VertexQueue {
+
+  /**
+   * Check if the queue is empty.
+   *
+   * @return true if no ids are queued.
+   */
+  boolean isEmpty();
+
+  /**
+   * Number of queued ids.
+   *
+   * @return the number of ids in the queue.
+   */
+  int size();
+
+  /**
+   * Check if an id is queued.
+   *
+   * @param id id to look for.
+   * @return true if id is in the queue.
+   */
+  boolean contains(int id);
+
+  /**
+   * Key of a queued id.
+   *
+   * @param id id to look up.
+   * @return the key id was queued with.
+   * @throws NoSuchElementException if id is not queued.
+   */
+  double key(int id);
+
+  /**
+   * Add an id.
+   *
+   * @param id  id to add.
+   * @param key priority of id, smallest comes out first.
+   * @throws IllegalArgumentException if id is already queued.
+   */
+  void insert(int id, double key);
+
+  /**
+   * Lower the key of a queued id.
+   *
+   * @param id  id to update.
+   * @param key new key, must not be larger than the current one.
+   * @throws NoSuchElementException if id is not queued.
+   * @throws IllegalArgumentException if key is larger than the current key.
+   */
+  void decreaseKey(int id, double key);
+
+  /**
+   * Id with the smallest key.
+   *
+   * @return the id that poll() would remove.
+   * @throws NoSuchElementException if the queue is empty.
+   */
+  int peek();
+
+  /**
+   * Remove the id with the smallest key.
+   *
+   * @return the removed id.
+   * @throws NoSuchElementException if the queue is empty.
+   */
+  int poll();
+
+  /**
+   * Remove all ids. Costs O(size), not O(capacity).
+   */
+  void clear();
+}
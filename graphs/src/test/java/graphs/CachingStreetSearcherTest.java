@@ -0,0 +1,112 @@
+package graphs;
+
+import graphs.graph.Edge;
+import graphs.graph.WeightedGraph;
+import graphs.spp.CachingStreetSearcher;
+import graphs.spp.Route;
+import graphs.spp.StreetSearcher;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingStreetSearcherTest {
+
+  private static final String JHU = "-76.6175,39.3296";
+  private static final String DRUID_LAKE = "-76.6383,39.3206";
+  private static final String SEVEN_ELEVEN = "-76.6214,39.3212";
+  private static final String INNER_HARBOR = "-76.6107,39.2866";
+
+  private static File data;
+
+  private WeightedGraph<String, String> graph;
+  private CachingStreetSearcher cached;
+
+  @BeforeAll
+  public static void findData() {
+    StreetSearcher.VERBOSE = false;
+    data = new File(Config.class.getResource("/baltimore.streets.txt").getFile());
+  }
+
+  @BeforeEach
+  public void load() throws FileNotFoundException {
+    graph = Config.getGraph();
+    cached = new CachingStreetSearcher(Config.getStreetSearcher(graph, "dijkstra-p2p"), 2);
+    cached.loadNetwork(data);
+  }
+
+  @Test
+  @DisplayName("route() is searched once, then served from the cache")
+  public void routeIsCached() {
+    Route first = cached.route(JHU, DRUID_LAKE);
+    Route second = cached.route(JHU, DRUID_LAKE);
+    assertSame(first, second);
+    assertEquals(8818.5187, second.distance(), 1e-4);
+    assertEquals(1, cached.hits());
+    assertEquals(1, cached.misses());
+    assertEquals(1, cached.size());
+  }
+
+  @Test
+  @DisplayName("the least recently used route is evicted once the cache is full")
+  public void leastRecentlyUsedIsEvicted() {
+    Route jhuDruid = cached.route(JHU, DRUID_LAKE);
+    cached.route(INNER_HARBOR, JHU);
+    cached.route(JHU, DRUID_LAKE); // INNER_HARBOR -> JHU is now eldest
+    cached.route(SEVEN_ELEVEN, DRUID_LAKE);
+    assertEquals(1, cached.evictions());
+    assertEquals(2, cached.size());
+    assertSame(jhuDruid, cached.route(JHU, DRUID_LAKE));
+    long misses = cached.misses();
+    cached.route(INNER_HARBOR, JHU);
+    assertEquals(misses + 1, cached.misses());
+  }
+
+  @Test
+  @DisplayName("changing the graph empties the cache")
+  public void graphChangeInvalidates() {
+    Route before = cached.route(JHU, DRUID_LAKE);
+    Edge<String> road = before.roads().get(0);
+    graph.weight(road, graph.weight(road) + 1000.0);
+    Route after = cached.route(JHU, DRUID_LAKE);
+    assertNotSame(before, after);
+    assertEquals(0, cached.hits());
+    assertTrue(after.distance() > before.distance());
+
+    graph.remove(after.roads().get(0));
+    Route detour = cached.route(JHU, DRUID_LAKE);
+    assertNotSame(after, detour);
+    assertFalse(detour.roads().contains(after.roads().get(0)));
+    assertEquals(0, cached.hits());
+  }
+
+  @Test
+  @DisplayName("routes() serves cached pairs and caches the rest")
+  public void routesUsesCache() {
+    Route known = cached.route(JHU, DRUID_LAKE);
+    List<String[]> pairs = new ArrayList<>();
+    pairs.add(new String[]{JHU, DRUID_LAKE});
+    pairs.add(new String[]{JHU, SEVEN_ELEVEN});
+    List<Route> routes = cached.routes(pairs);
+    assertSame(known, routes.get(0));
+    assertEquals(SEVEN_ELEVEN, routes.get(1).end());
+    assertEquals(1, cached.hits());
+    assertSame(routes.get(1), cached.route(JHU, SEVEN_ELEVEN));
+  }
+
+  @Test
+  @DisplayName("an unknown endpoint throws and is not counted")
+  public void unknownEndpointThrows() {
+    assertThrows(IllegalArgumentException.class, () -> cached.route(JHU, "0,0"));
+    assertEquals(0, cached.misses());
+    assertThrows(IllegalArgumentException.class,
+        () -> new CachingStreetSearcher(cached, 0));
+  }
+}
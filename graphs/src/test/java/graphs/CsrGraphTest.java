@@ -0,0 +1,183 @@
+package graphs;
+
+import exceptions.InsertionException;
+import exceptions.PositionException;
+import graphs.graph.CsrGraph;
+import graphs.graph.Edge;
+import graphs.graph.EdgeCursor;
+import graphs.graph.Vertex;
+import graphs.spp.StreetSearcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsrGraphTest {
+
+  private CsrGraph.Builder<String, String> builder;
+
+  @BeforeEach
+  public void setupBuilder() {
+    builder = new CsrGraph.Builder<>();
+  }
+
+  private static <T> ArrayList<T> toList(Iterable<T> items) {
+    ArrayList<T> list = new ArrayList<>();
+    for (T item : items) {
+      list.add(item);
+    }
+    return list;
+  }
+
+  @Test
+  @DisplayName("build() lays out outgoing edges by vertex with weights")
+  public void buildKeepsOutgoingEdgesAndWeights() {
+    int v1 = builder.insert("v1");
+    int v2 = builder.insert("v2");
+    int v3 = builder.insert("v3");
+    builder.insert(v2, v3, "e3", 3.0);
+    builder.insert(v1, v2, "e1", 1.0);
+    builder.insert(v1, v3, "e2", 2.0);
+    CsrGraph<String, String> graph = builder.build();
+
+    assertEquals(3, graph.vertexCount());
+    assertEquals(3, graph.edgeCount());
+    Vertex<String> first = graph.vertex(v1);
+    assertEquals("v1", first.get());
+    ArrayList<Edge<String>> out = toList(graph.outgoing(first));
+    assertEquals(2, out.size());
+    assertEquals("e1", out.get(0).get());
+    assertEquals("e2", out.get(1).get());
+    assertEquals(graph.vertex(v2), graph.to(out.get(0)));
+    assertEquals(first, graph.from(out.get(1)));
+    assertEquals(2.0, graph.weight(out.get(1)));
+    for (int e = graph.firstEdge(v1); e < graph.endEdge(v1); e++) {
+      assertNotEquals(v1, graph.target(e));
+    }
+    assertEquals(toList(graph.edges()),
+        StreamSupport.stream(graph.edges().spliterator(), true).collect(Collectors.toList()));
+  }
+
+  @Test
+  @DisplayName("incoming(v) returns edges that end at v")
+  public void incomingReturnsEdgesIntoVertex() {
+    int v1 = builder.insert("v1");
+    int v2 = builder.insert("v2");
+    int v3 = builder.insert("v3");
+    builder.insert(v1, v2, "e1", 1.0);
+    builder.insert(v1, v3, "e2", 2.0);
+    builder.insert(v2, v3, "e3", 3.0);
+    CsrGraph<String, String> graph = builder.build();
+
+    ArrayList<Edge<String>> in = toList(graph.incoming(graph.vertex(v3)));
+    assertEquals(2, in.size());
+    assertTrue(in.contains(graph.edge(1)));
+    assertTrue(in.contains(graph.edge(2)));
+    assertEquals(0, toList(graph.incoming(graph.vertex(v1))).size());
+    assertEquals(3, toList(graph.edges()).size());
+  }
+
+  @Test
+  @DisplayName("builder rejects duplicate vertices, self-loops and duplicate edges")
+  public void builderRejectsDuplicates() {
+    int v = builder.insert("v");
+    int w = builder.insert("w");
+    builder.insert(v, w, "e1", 1.0);
+    assertThrows(InsertionException.class, () -> builder.insert("v"));
+    assertThrows(InsertionException.class, () -> builder.insert(null));
+    assertThrows(InsertionException.class, () -> builder.insert(v, v, "loop", 1.0));
+    assertThrows(InsertionException.class, () -> builder.insert(v, w, "e2", 1.0));
+    assertThrows(PositionException.class, () -> builder.insert(v, 7, "e3", 1.0));
+    assertEquals(w, builder.find("w"));
+    assertEquals(-1, builder.find("x"));
+  }
+
+  @Test
+  @DisplayName("CsrGraph is immutable but can be labeled and weighted")
+  public void graphIsImmutable() {
+    int v = builder.insert("v");
+    int w = builder.insert("w");
+    builder.insert(v, w, "e", 1.0);
+    CsrGraph<String, String> graph = builder.build();
+    Vertex<String> vertex = graph.vertex(v);
+    Edge<String> edge = graph.edge(0);
+
+    assertThrows(UnsupportedOperationException.class, () -> graph.insert("x"));
+    assertThrows(UnsupportedOperationException.class, () -> graph.remove(edge));
+    assertThrows(UnsupportedOperationException.class,
+        () -> graph.insert(vertex, graph.vertex(w), "f", 2.0));
+    graph.weight(edge, 3.0);
+    assertEquals(3.0, graph.weight(graph.edge(0)));
+    assertEquals(3.0, graph.weight(0));
+    assertNull(graph.label(edge));
+    graph.label(vertex, "label");
+    graph.label(edge, 4.0);
+    assertEquals("label", graph.label(vertex));
+    assertEquals(4.0, graph.label(graph.edge(0)));
+    graph.clearLabels();
+    assertNull(graph.label(vertex));
+    assertNull(graph.label(edge));
+  }
+
+  @Test
+  @DisplayName("cursor() visits the same edges as outgoing() and incoming()")
+  public void cursorMatchesIterables() {
+    int v1 = builder.insert("v1");
+    int v2 = builder.insert("v2");
+    int v3 = builder.insert("v3");
+    builder.insert(v1, v2, "e1", 1.0);
+    builder.insert(v1, v3, "e2", 2.0);
+    builder.insert(v2, v3, "e3", 3.0);
+    CsrGraph<String, String> graph = builder.build();
+    EdgeCursor<String> cursor = graph.cursor();
+    for (int v = 0; v < graph.vertexCount(); v++) {
+      ArrayList<Edge<String>> out = new ArrayList<>();
+      for (cursor.outgoing(v); cursor.next(); ) {
+        assertEquals(graph.id(graph.to(cursor.edge())), cursor.vertex());
+        assertEquals(graph.weight(cursor.edge()), cursor.weight());
+        out.add(cursor.edge());
+      }
+      assertEquals(toList(graph.outgoing(graph.vertex(v))), out);
+      ArrayList<Edge<String>> in = new ArrayList<>();
+      for (cursor.incoming(v); cursor.next(); ) {
+        assertEquals(graph.id(graph.from(cursor.edge())), cursor.vertex());
+        in.add(cursor.edge());
+      }
+      assertEquals(toList(graph.incoming(graph.vertex(v))), in);
+    }
+    assertEquals(graph.edge(0), toList(graph.outgoing(graph.vertex(v1))).get(0));
+    assertEquals(graph.edge(0).hashCode(), graph.edge(0).hashCode());
+    assertNotEquals(graph.edge(0), graph.edge(1));
+    assertThrows(PositionException.class, () -> cursor.outgoing(3));
+  }
+
+  @Test
+  @DisplayName("positions from another graph are rejected")
+  public void foreignPositionsThrowPositionException() {
+    builder.insert("v");
+    CsrGraph<String, String> graph = builder.build();
+    CsrGraph<String, String> other = builder.build();
+    assertThrows(PositionException.class, () -> graph.outgoing(other.vertex(0)));
+    assertThrows(PositionException.class, () -> graph.outgoing(null));
+    assertThrows(PositionException.class, () -> graph.vertex(1));
+  }
+
+  @Test
+  @DisplayName("loadCompactNetwork() loads the same network as loadNetwork()")
+  public void compactNetworkMatchesSparseNetwork() throws FileNotFoundException {
+    StreetSearcher.VERBOSE = false;
+    File data = new File(Config.class.getResource("/baltimore.streets.txt").getFile());
+    StreetSearcher sparse = Config.getStreetSearcher(Config.getGraph());
+    sparse.loadNetwork(data);
+    StreetSearcher compact = Config.getStreetSearcher(Config.getGraph());
+    compact.loadCompactNetwork(data);
+    assertEquals(sparse.numLoaded, compact.numLoaded);
+  }
+}
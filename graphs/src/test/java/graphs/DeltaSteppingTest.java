@@ -0,0 +1,157 @@
+package graphs;
+
+import graphs.graph.CsrGraph;
+import graphs.graph.EdgeCursor;
+import graphs.graph.Graph;
+import graphs.graph.SparseGraph;
+import graphs.graph.Vertex;
+import graphs.graph.WeightedGraph;
+import graphs.spp.DeltaStepping;
+import graphs.spp.DynamicShortestPathTree;
+import graphs.spp.ShortestPathTree;
+import graphs.spp.StreetSearcher;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeltaSteppingTest {
+
+  private static final String JHU = "-76.6175,39.3296";
+
+  private static File data;
+
+  @BeforeAll
+  public static void findData() {
+    StreetSearcher.VERBOSE = false;
+    data = new File(Config.class.getResource("/baltimore.streets.txt").getFile());
+  }
+
+  // helper method: same distances as expected, and every predecessor is
+  // the start of a road that ends a shortest path
+  private static void assertValidTree(Graph<String, String> graph, ShortestPathTree expected,
+                                      ShortestPathTree actual, String message) {
+    assertEquals(expected.source(), actual.source(), message);
+    assertArrayEquals(expected.distances(), actual.distances(), message);
+    EdgeCursor<String> cursor = graph.cursor();
+    for (int id = 0; id < actual.size(); id++) {
+      int pred = actual.predecessor(id);
+      if (id == actual.source() || !actual.reached(id)) {
+        assertEquals(-1, pred, message + " at " + id);
+        continue;
+      }
+      boolean tight = false;
+      for (cursor.incoming(id); cursor.next(); ) {
+        tight |= cursor.vertex() == pred
+            && actual.distance(pred) + cursor.weight() == actual.distance(id);
+      }
+      assertTrue(tight, message + " at " + id);
+    }
+  }
+
+  @Test
+  @DisplayName("trees match sequential Dijkstra for any delta and number of threads")
+  public void matchesDijkstraOnBaltimore() throws FileNotFoundException {
+    WeightedGraph<String, String> graph = Config.getGraph();
+    StreetSearcher searcher = Config.getStreetSearcher(graph, "dijkstra");
+    searcher.loadNetwork(data);
+    ShortestPathTree expected = searcher.shortestPathTree(JHU);
+    ForkJoinPool single = new ForkJoinPool(1);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (double delta : new double[]{1.0, 50.0, 212.7, 5000.0}) {
+        DeltaStepping stepping = new DeltaStepping(graph, delta);
+        assertValidTree(graph, expected, stepping.tree(expected.source(), single),
+            "delta " + delta + ", 1 thread");
+        assertValidTree(graph, expected, stepping.tree(expected.source(), pool),
+            "delta " + delta + ", 4 threads");
+      }
+      assertValidTree(graph, expected, searcher.shortestPathTree(JHU, pool), "searcher");
+    } finally {
+      single.shutdown();
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("large frontiers are relaxed in parallel with the same result")
+  public void matchesDijkstraOnLargeFrontiers() {
+    // a grid of one-way and two-way roads, wide enough that every bucket
+    // holds hundreds of vertices
+    CsrGraph.Builder<String, String> builder = new CsrGraph.Builder<>();
+    int side = 120;
+    for (int i = 0; i < side * side; i++) {
+      builder.insert("v" + i);
+    }
+    Random random = new Random(3);
+    for (int r = 0; r < side; r++) {
+      for (int c = 0; c < side; c++) {
+        int v = r * side + c;
+        if (c + 1 < side) {
+          builder.insert(v, v + 1, "e", 1 + random.nextInt(20));
+          builder.insert(v + 1, v, "e", 1 + random.nextInt(20));
+        }
+        if (r + 1 < side) {
+          builder.insert(v, v + side, "e", 1 + random.nextInt(20));
+        }
+      }
+    }
+    WeightedGraph<String, String> graph = builder.build();
+    ShortestPathTree expected =
+        new DynamicShortestPathTree(graph, graph.vertex(side / 2)).toTree();
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      for (double delta : new double[]{0.5, 4.0, 30.0}) {
+        assertValidTree(graph, expected,
+            new DeltaStepping(graph, delta).tree(expected.source(), pool), "delta " + delta);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("gaps in vertex ids, unreachable vertices and zero weights are handled")
+  public void handlesSparseIdsAndZeroWeights() {
+    WeightedGraph<String, String> graph = new SparseGraph<>();
+    Vertex<String> a = graph.insert("a");
+    Vertex<String> gone = graph.insert("gone");
+    Vertex<String> b = graph.insert("b");
+    Vertex<String> c = graph.insert("c");
+    Vertex<String> alone = graph.insert("alone");
+    graph.insert(a, b, "ab", 0.0);
+    graph.insert(b, c, "bc", 2.5);
+    graph.insert(a, c, "ac", 3.0);
+    graph.remove(gone);
+    ShortestPathTree tree = new DeltaStepping(graph).tree(graph.id(a));
+    assertEquals(0.0, tree.distance(graph.id(b)));
+    assertEquals(2.5, tree.distance(graph.id(c)));
+    assertArrayEquals(new int[]{graph.id(a), graph.id(b), graph.id(c)},
+        tree.pathTo(graph.id(c)));
+    assertFalse(tree.reached(graph.id(alone)));
+    assertFalse(tree.reached(1));
+  }
+
+  @Test
+  @DisplayName("bad deltas, negative weights and unknown sources are rejected")
+  public void rejectsBadInput() {
+    WeightedGraph<String, String> graph = new SparseGraph<>();
+    Vertex<String> a = graph.insert("a");
+    Vertex<String> b = graph.insert("b");
+    graph.insert(a, b, "ab", 1e9);
+    assertThrows(IllegalArgumentException.class, () -> new DeltaStepping(graph, 0.0));
+    assertThrows(IllegalArgumentException.class, () -> new DeltaStepping(graph, Double.NaN));
+    assertThrows(IllegalArgumentException.class, () -> new DeltaStepping(graph, 1e-3));
+    DeltaStepping stepping = new DeltaStepping(graph);
+    assertThrows(IllegalArgumentException.class, () -> stepping.tree(2));
+    assertThrows(IllegalArgumentException.class, () -> stepping.tree(-1));
+    graph.insert(b, a, "ba", -1.0);
+    assertThrows(IllegalArgumentException.class, () -> new DeltaStepping(graph));
+  }
+}
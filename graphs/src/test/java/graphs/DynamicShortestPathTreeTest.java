@@ -0,0 +1,130 @@
+package graphs;
+
+import graphs.graph.Edge;
+import graphs.graph.SparseGraph;
+import graphs.graph.Vertex;
+import graphs.graph.WeightedGraph;
+import graphs.spp.DynamicShortestPathTree;
+import graphs.spp.ShortestPathTree;
+import graphs.spp.StreetSearcher;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicShortestPathTreeTest {
+
+  private static final String JHU = "-76.6175,39.3296";
+  private static final String DRUID_LAKE = "-76.6383,39.3206";
+  private static final String INNER_HARBOR = "-76.6107,39.2866";
+
+  private static File data;
+
+  @BeforeAll
+  public static void findData() {
+    StreetSearcher.VERBOSE = false;
+    data = new File(Config.class.getResource("/baltimore.streets.txt").getFile());
+  }
+
+  // helper method: every distance of tree matches a search from scratch
+  private static void assertMatchesSearch(StreetSearcher searcher, DynamicShortestPathTree tree,
+                                          String message) {
+    double[] expected = searcher.shortestPathTree(JHU).distances();
+    double[] actual = tree.toTree().distances();
+    assertEquals(expected.length, actual.length, message);
+    for (int id = 0; id < expected.length; id++) {
+      assertEquals(expected[id], actual[id], 1e-6, message + " at " + id);
+    }
+  }
+
+  @Test
+  @DisplayName("closures, reopenings and length changes match a search from scratch")
+  public void updatesMatchSearch() throws FileNotFoundException {
+    WeightedGraph<String, String> graph = Config.getGraph();
+    StreetSearcher searcher = Config.getStreetSearcher(graph, "dijkstra");
+    searcher.loadNetwork(data);
+    DynamicShortestPathTree tree = searcher.dynamicShortestPathTree(JHU);
+    Vertex<String> druidLake = graph.vertex(searcher.vertexId(DRUID_LAKE));
+    Vertex<String> innerHarbor = graph.vertex(searcher.vertexId(INNER_HARBOR));
+    assertEquals(8818.5187, tree.distance(druidLake), 1e-4);
+
+    Random random = new Random(7);
+    List<Edge<String>> closed = new ArrayList<>();
+    List<Double> closedLength = new ArrayList<>();
+    for (int step = 0; step < 40; step++) {
+      // mostly roads on the tree, since those are the ones that matter
+      List<Edge<String>> path = tree.path(random.nextBoolean() ? druidLake : innerHarbor);
+      Edge<String> road = path.get(random.nextInt(path.size()));
+      switch (random.nextInt(4)) {
+        case 0:
+          closedLength.add(graph.weight(road));
+          closed.add(road);
+          tree.remove(road);
+          break;
+        case 1:
+          tree.weight(road, graph.weight(road) * (1 + random.nextDouble()));
+          break;
+        case 2:
+          tree.weight(road, graph.weight(road) * random.nextDouble());
+          break;
+        default:
+          if (!closed.isEmpty()) {
+            int i = random.nextInt(closed.size());
+            Edge<String> old = closed.remove(i);
+            tree.insert(graph.from(old), graph.to(old), old.get(), closedLength.remove(i));
+          }
+      }
+      assertTrue(tree.touched() < graph.vertexIdBound(), "step " + step);
+      assertMatchesSearch(searcher, tree, "step " + step);
+    }
+  }
+
+  @Test
+  @DisplayName("closing the only road makes the end unreachable")
+  public void removeDisconnects() {
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    Vertex<String> a = graph.insert("a");
+    Vertex<String> b = graph.insert("b");
+    Vertex<String> c = graph.insert("c");
+    Edge<String> ab = graph.insert(a, b, "a-b", 1.0);
+    graph.insert(b, c, "b-c", 2.0);
+    DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, a);
+    assertEquals(3.0, tree.distance(c));
+    assertEquals(List.of(ab, tree.road(c)), tree.path(c));
+
+    tree.remove(ab);
+    assertEquals(2, tree.touched());
+    assertEquals(Double.POSITIVE_INFINITY, tree.distance(b));
+    assertEquals(Double.POSITIVE_INFINITY, tree.distance(c));
+    assertNull(tree.path(c));
+    assertNull(tree.road(b));
+
+    Edge<String> ac = tree.insert(a, c, "a-c", 5.0);
+    assertEquals(5.0, tree.distance(c));
+    assertEquals(Double.POSITIVE_INFINITY, tree.distance(b));
+    assertEquals(List.of(ac), tree.path(c));
+    assertTrue(tree.path(a).isEmpty());
+  }
+
+  @Test
+  @DisplayName("changes made straight to the graph are picked up")
+  public void outsideChangesRebuild() {
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    Vertex<String> a = graph.insert("a");
+    Vertex<String> b = graph.insert("b");
+    Edge<String> ab = graph.insert(a, b, "a-b", 4.0);
+    DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, a);
+    graph.weight(ab, 1.5);
+    assertEquals(1.5, tree.distance(b));
+    Vertex<String> c = graph.insert("c");
+    graph.insert(b, c, "b-c", 1.0);
+    assertEquals(2.5, tree.distance(c));
+  }
+}
@@ -4,6 +4,7 @@ import exceptions.InsertionException;
 import exceptions.PositionException;
 import exceptions.RemovalException;
 import graphs.graph.Edge;
+import graphs.graph.EdgeCursor;
 import graphs.graph.Graph;
 import graphs.graph.Vertex;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -54,6 +61,15 @@ public abstract class GraphTest {
     }
   }
 
+  @Test
+  @DisplayName("insert(v) accepts an element again after its vertex is removed")
+  public void insertVertexAfterRemove() {
+    Vertex<String> v1 = graph.insert("v");
+    graph.remove(v1);
+    Vertex<String> v2 = graph.insert("v");
+    assertEquals("v", v2.get());
+  }
+
   // Edge<E> insert(Vertex<V> from, Vertex<V> to, E e)
   @Test
   @DisplayName("insert(U, V, e) returns an edge with given data")
@@ -139,6 +155,17 @@ public abstract class GraphTest {
     }
   }
 
+  @Test
+  @DisplayName("insert(v, w, e) accepts an edge again after it is removed")
+  public void insertEdgeAfterRemove() {
+    Vertex<String> v = graph.insert("v");
+    Vertex<String> w = graph.insert("w");
+    Edge<String> e1 = graph.insert(v, w, "e1");
+    graph.remove(e1);
+    Edge<String> e2 = graph.insert(v, w, "e2");
+    assertEquals(w, graph.to(e2));
+  }
+
   // V remove(Vertex<V> v)
   @Test
   @DisplayName("remove(v) returns the data from the removed vertex")
@@ -261,6 +288,69 @@ public abstract class GraphTest {
     assertEquals(0, count);
   }
 
+  @Test
+  @DisplayName("edges() is a view that follows inserts and removes")
+  public void edgesIsAView() {
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    Iterable<Edge<String>> edges = graph.edges();
+    Edge<String> e1 = graph.insert(v1, v2, "e1");
+    Edge<String> e2 = graph.insert(v2, v1, "e2");
+    ArrayList<Edge<String>> edgesList = new ArrayList<>();
+    edges.forEach(edgesList::add);
+    assertEquals(2, edgesList.size());
+    assertTrue(edgesList.containsAll(List.of(e1, e2)));
+    graph.remove(e1);
+    edgesList.clear();
+    edges.forEach(edgesList::add);
+    assertEquals(List.of(e2), edgesList);
+  }
+
+  @Test
+  @DisplayName("vertexCount() and edgeCount() follow inserts and removes")
+  public void countsFollowChanges() {
+    assertEquals(0, graph.vertexCount());
+    assertEquals(0, graph.edgeCount());
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    Vertex<String> v3 = graph.insert("v3");
+    Edge<String> e1 = graph.insert(v1, v2, "e1");
+    graph.insert(v2, v1, "e2");
+    assertEquals(3, graph.vertexCount());
+    assertEquals(2, graph.edgeCount());
+    assertThrows(InsertionException.class, () -> graph.insert(v1, v2, "e3"));
+    assertEquals(2, graph.edgeCount());
+    graph.remove(e1);
+    graph.remove(v3);
+    assertEquals(2, graph.vertexCount());
+    assertEquals(1, graph.edgeCount());
+  }
+
+  @Test
+  @DisplayName("edges() can be streamed in parallel")
+  public void edgesSplitForParallelStreams() {
+    Vertex<String> lonely = graph.insert("lonely");
+    List<Vertex<String>> vertices = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      vertices.add(graph.insert("v" + i));
+    }
+    Set<Edge<String>> expected = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      for (int j = 1; j <= i % 4; j++) {
+        expected.add(graph.insert(vertices.get(i), vertices.get((i + j) % 100), i + "-" + j));
+      }
+    }
+    graph.remove(lonely); // leaves a hole in the ids
+    Spliterator<Edge<String>> edges = graph.edges().spliterator();
+    assertNotNull(edges.trySplit());
+    Set<Edge<String>> streamed = StreamSupport.stream(graph.edges().spliterator(), true)
+        .collect(Collectors.toSet());
+    assertEquals(expected, streamed);
+    assertEquals(expected.size(), graph.edgeCount());
+    assertEquals(expected.size(),
+        StreamSupport.stream(graph.edges().spliterator(), true).count());
+  }
+
   // Iterable<Edge<E>> outgoing(Vertex<V> v)
   @Test
   @DisplayName("outgoing(v) returns all outgoing edges from the specified vertex")
@@ -371,6 +461,66 @@ public abstract class GraphTest {
     }
   }
 
+  @Test
+  @DisplayName("incoming(v) no longer returns an edge after it is removed")
+  public void incomingUpdatedAfterEdgeRemoval() {
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    Vertex<String> v3 = graph.insert("v3");
+    Edge<String> e1 = graph.insert(v1, v3, "e1");
+    Edge<String> e2 = graph.insert(v2, v3, "e2");
+    graph.remove(e1);
+    ArrayList<Edge<String>> incomingEdgesList = new ArrayList<>();
+    for (Edge<String> edge : graph.incoming(v3)) {
+      incomingEdgesList.add(edge);
+    }
+    assertEquals(1, incomingEdgesList.size());
+    assert(incomingEdgesList.contains(e2));
+  }
+  @Test
+  @DisplayName("remove(v) succeeds once the incoming edges are removed")
+  public void removeVertexAfterIncomingEdgesRemoved() {
+    Vertex<String> v = graph.insert("v");
+    Vertex<String> w = graph.insert("w");
+    Edge<String> e = graph.insert(v, w, "e");
+    try {
+      graph.remove(w);
+      fail("The expected exception was not thrown");
+    } catch (RemovalException ex) {
+      // w still has an incoming edge
+    }
+    graph.remove(e);
+    assertEquals("w", graph.remove(w));
+  }
+
+  // int outDegree(Vertex<V> v), int inDegree(Vertex<V> v)
+  @Test
+  @DisplayName("outDegree(v) and inDegree(v) count edges at the vertex")
+  public void degreesCountIncidentEdges() {
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    Vertex<String> v3 = graph.insert("v3");
+    graph.insert(v1, v2, "e1");
+    graph.insert(v1, v3, "e2");
+    Edge<String> e3 = graph.insert(v2, v3, "e3");
+    assertEquals(2, graph.outDegree(v1));
+    assertEquals(0, graph.inDegree(v1));
+    assertEquals(2, graph.inDegree(v3));
+    graph.remove(e3);
+    assertEquals(0, graph.outDegree(v2));
+    assertEquals(1, graph.inDegree(v3));
+  }
+  @Test
+  @DisplayName("inDegree(v) throws PositionException if vertex position is invalid")
+  public void inDegreeThrowsPositionException() {
+    try {
+      graph.inDegree(null);
+      fail("The expected exception was not thrown.");
+    } catch (PositionException e) {
+      return;
+    }
+  }
+
   // Vertex<V> from(Edge<E> e)
   @Test
   @DisplayName("from(e) returns the start vertex of the specified edge")
@@ -537,6 +687,128 @@ public abstract class GraphTest {
     }
   }
 
+  // id(v), vertex(id), vertexIdBound()
+  @Test
+  @DisplayName("id(v) numbers vertices densely and vertex(id) maps back")
+  public void testIdsAreDense() {
+    assertEquals(0, graph.vertexIdBound());
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    Vertex<String> v3 = graph.insert("v3");
+    assertEquals(3, graph.vertexIdBound());
+    boolean[] seen = new boolean[3];
+    for (Vertex<String> v : List.of(v1, v2, v3)) {
+      int id = graph.id(v);
+      assertFalse(seen[id]);
+      seen[id] = true;
+      assertEquals(v, graph.vertex(id));
+    }
+  }
+
+  @Test
+  @DisplayName("id(v) stays the same while other vertices come and go")
+  public void testIdsAreStable() {
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    int id1 = graph.id(v1);
+    graph.remove(v2);
+    graph.insert("v3");
+    graph.insert(v1, graph.insert("v4"), "e1");
+    assertEquals(id1, graph.id(v1));
+    assertEquals(v1, graph.vertex(id1));
+  }
+
+  @Test
+  @DisplayName("id of a removed vertex is reused before vertexIdBound() grows")
+  public void testIdsAreReused() {
+    graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    int id2 = graph.id(v2);
+    graph.remove(v2);
+    Vertex<String> v3 = graph.insert("v3");
+    assertEquals(id2, graph.id(v3));
+    assertEquals(v3, graph.vertex(id2));
+    assertEquals(2, graph.vertexIdBound());
+  }
+
+  @Test
+  @DisplayName("id(v) and vertex(id) throw PositionException if invalid")
+  public void testIdThrowsException() {
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    int id2 = graph.id(v2);
+    graph.remove(v2);
+    assertThrows(PositionException.class, () -> graph.id(null));
+    assertThrows(PositionException.class, () -> graph.id(v2));
+    assertThrows(PositionException.class, () -> graph.vertex(id2));
+    assertThrows(PositionException.class, () -> graph.vertex(-1));
+    assertThrows(PositionException.class, () -> graph.vertex(graph.vertexIdBound()));
+    Graph<String, String> other = createGraph();
+    Vertex<String> foreign = other.insert("v1");
+    assertThrows(PositionException.class, () -> graph.id(foreign));
+    assertEquals(v1, graph.vertex(graph.id(v1)));
+  }
+
+  // version()
+  @Test
+  @DisplayName("version() goes up with every insert and remove, not with labels")
+  public void testVersionCountsChanges() {
+    long version = graph.version();
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    Edge<String> e1 = graph.insert(v1, v2, "e1");
+    assertTrue(graph.version() > version);
+    version = graph.version();
+    graph.label(v1, "label");
+    graph.label(e1, "label");
+    graph.clearLabels();
+    assertEquals(version, graph.version());
+    graph.remove(e1);
+    assertTrue(graph.version() > version);
+    version = graph.version();
+    graph.remove(v2);
+    assertTrue(graph.version() > version);
+  }
+
+  // cursor()
+  @Test
+  @DisplayName("cursor() visits the same edges as outgoing() and incoming()")
+  public void testCursorMatchesIterables() {
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    Vertex<String> v3 = graph.insert("v3");
+    Edge<String> e1 = graph.insert(v1, v2, "e1");
+    Edge<String> e2 = graph.insert(v1, v3, "e2");
+    Edge<String> e3 = graph.insert(v3, v2, "e3");
+    EdgeCursor<String> cursor = graph.cursor();
+    ArrayList<Edge<String>> out = new ArrayList<>();
+    for (cursor.outgoing(graph.id(v1)); cursor.next(); ) {
+      assertEquals(graph.id(graph.to(cursor.edge())), cursor.vertex());
+      assertEquals(1.0, cursor.weight());
+      out.add(cursor.edge());
+    }
+    assertEquals(List.of(e1, e2), out);
+    ArrayList<Edge<String>> in = new ArrayList<>();
+    for (cursor.incoming(graph.id(v2)); cursor.next(); ) {
+      assertEquals(graph.id(graph.from(cursor.edge())), cursor.vertex());
+      in.add(cursor.edge());
+    }
+    assertEquals(List.of(e1, e3), in);
+    cursor.outgoing(graph.id(v2));
+    assertFalse(cursor.next());
+  }
+
+  @Test
+  @DisplayName("cursor() throws PositionException for an unused id")
+  public void testCursorThrowsException() {
+    Vertex<String> v1 = graph.insert("v1");
+    EdgeCursor<String> cursor = graph.cursor();
+    int id = graph.id(v1);
+    graph.remove(v1);
+    assertThrows(PositionException.class, () -> cursor.outgoing(id));
+    assertThrows(PositionException.class, () -> cursor.incoming(-1));
+  }
+
   // clearLabels()
   @Test
   @DisplayName("clearLabels() sets all vertex and edge labels to null")
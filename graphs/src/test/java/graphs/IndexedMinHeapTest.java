@@ -0,0 +1,81 @@
+package graphs;
+
+import graphs.spp.IndexedMinHeap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedMinHeapTest {
+
+  @Test
+  @DisplayName("poll() returns ids in key order")
+  public void pollReturnsIdsInKeyOrder() {
+    IndexedMinHeap heap = new IndexedMinHeap(5);
+    heap.insert(3, 30.0);
+    heap.insert(0, 10.0);
+    heap.insert(4, 5.0);
+    heap.insert(1, 20.0);
+    assertEquals(4, heap.size());
+    assertEquals(4, heap.poll());
+    assertEquals(0, heap.poll());
+    assertEquals(1, heap.poll());
+    assertEquals(3, heap.poll());
+    assertTrue(heap.isEmpty());
+  }
+
+  @Test
+  @DisplayName("decreaseKey() moves an id forward")
+  public void decreaseKeyMovesIdForward() {
+    IndexedMinHeap heap = new IndexedMinHeap(3, 2);
+    heap.insert(0, 10.0);
+    heap.insert(1, 20.0);
+    heap.insert(2, 30.0);
+    heap.decreaseKey(2, 1.0);
+    assertEquals(1.0, heap.key(2));
+    assertEquals(2, heap.peek());
+    assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 50.0));
+  }
+
+  @Test
+  @DisplayName("contains() tracks inserted and polled ids")
+  public void containsTracksIds() {
+    IndexedMinHeap heap = new IndexedMinHeap(2);
+    heap.insert(1, 1.0);
+    assertTrue(heap.contains(1));
+    assertFalse(heap.contains(0));
+    assertThrows(IllegalArgumentException.class, () -> heap.insert(1, 2.0));
+    heap.poll();
+    assertFalse(heap.contains(1));
+    assertThrows(NoSuchElementException.class, heap::poll);
+    assertThrows(NoSuchElementException.class, () -> heap.decreaseKey(1, 0.0));
+  }
+
+  @Test
+  @DisplayName("random inserts and decreases come out sorted")
+  public void randomOperationsComeOutSorted() {
+    Random random = new Random(42);
+    int n = 1000;
+    IndexedMinHeap heap = new IndexedMinHeap(n, 4);
+    double[] keys = new double[n];
+    for (int id = 0; id < n; id++) {
+      keys[id] = random.nextDouble() * 1000;
+      heap.insert(id, keys[id]);
+    }
+    for (int i = 0; i < n; i++) {
+      int id = random.nextInt(n);
+      keys[id] = keys[id] * random.nextDouble();
+      heap.decreaseKey(id, keys[id]);
+    }
+    double[] sorted = keys.clone();
+    Arrays.sort(sorted);
+    for (int i = 0; i < n; i++) {
+      int id = heap.poll();
+      assertEquals(sorted[i], keys[id]);
+    }
+  }
+}
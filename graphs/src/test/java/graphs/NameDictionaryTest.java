@@ -0,0 +1,68 @@
+package graphs;
+
+import graphs.spp.NameDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameDictionaryTest {
+
+  private NameDictionary names;
+
+  @BeforeEach
+  public void setupDictionary() {
+    names = new NameDictionary();
+  }
+
+  @Test
+  @DisplayName("intern() gives dense ids in first-seen order")
+  public void internGivesDenseIds() {
+    assertEquals(0, names.intern("-76.6254,39.3373"));
+    assertEquals(1, names.intern("39256:W_UNIVERSITY_PKWY"));
+    assertEquals(0, names.intern("-76.6254,39.3373"));
+    assertEquals(2, names.size());
+    assertEquals("39256:W_UNIVERSITY_PKWY", names.get(1));
+  }
+
+  @Test
+  @DisplayName("get() returns the first String interned for a name")
+  public void getSharesOneString() {
+    String first = new String("MAIN_ST");
+    names.intern(first);
+    int id = names.intern(new String("MAIN_ST"));
+    assertSame(first, names.get(id));
+  }
+
+  @Test
+  @DisplayName("find() does not add names")
+  public void findDoesNotAdd() {
+    names.intern("a");
+    assertEquals(0, names.find("a"));
+    assertEquals(-1, names.find("b"));
+    assertEquals(-1, names.find(null));
+    assertEquals(1, names.size());
+  }
+
+  @Test
+  @DisplayName("ids survive the table growing")
+  public void idsSurviveGrowth() {
+    for (int i = 0; i < 10000; i++) {
+      assertEquals(i, names.intern("name" + i));
+    }
+    for (int i = 0; i < 10000; i++) {
+      assertEquals(i, names.find("name" + i));
+      assertEquals("name" + i, names.get(i));
+    }
+    assertEquals("\u00C5lesund", names.get(names.intern("\u00C5lesund")));
+  }
+
+  @Test
+  @DisplayName("get() throws IndexOutOfBoundsException for unknown ids")
+  public void getThrowsForUnknownId() {
+    names.intern("a");
+    assertThrows(IndexOutOfBoundsException.class, () -> names.get(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> names.get(-1));
+  }
+}
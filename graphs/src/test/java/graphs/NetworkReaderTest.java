@@ -0,0 +1,187 @@
+package graphs;
+
+import graphs.spp.NetworkReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NetworkReaderTest {
+
+  @TempDir
+  Path dir;
+
+  private File write(String contents) throws IOException {
+    Path file = dir.resolve("network.txt");
+    Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+    return file.toFile();
+  }
+
+  private static List<String[]> readAll(File file) throws FileNotFoundException {
+    List<String[]> lines = new ArrayList<>();
+    NetworkReader.read(file, (from, to, distance, road) -> {
+      lines.add(new String[]{from, to, Double.toString(distance), road});
+      return true;
+    });
+    return lines;
+  }
+
+  @Test
+  @DisplayName("read() splits lines like String.split(\" \")")
+  public void readSplitsLines() throws IOException {
+    File file = write("a,1 b,2 21.5510 1:MAIN_ST\r\n\nb,2 c,3 7 2:ELM_ST extra\nc,3 a,1 1e3 3:OAK_ST");
+    List<String[]> lines = readAll(file);
+    assertEquals(3, lines.size());
+    assertArrayEquals(new String[]{"a,1", "b,2", "21.551", "1:MAIN_ST"}, lines.get(0));
+    assertArrayEquals(new String[]{"b,2", "c,3", "7.0", "2:ELM_ST"}, lines.get(1));
+    assertArrayEquals(new String[]{"c,3", "a,1", "1000.0", "3:OAK_ST"}, lines.get(2));
+  }
+
+  @Test
+  @DisplayName("read() makes one String per distinct endpoint")
+  public void readReusesEndpointNames() throws IOException {
+    File file = write("a,1 b,2 1 r1\nb,2 a,1 1 r2\n");
+    List<String[]> lines = readAll(file);
+    assertSame(lines.get(0)[0], lines.get(1)[1]);
+    assertSame(lines.get(0)[1], lines.get(1)[0]);
+  }
+
+  @Test
+  @DisplayName("read() makes one String per distinct road name, ASCII or not")
+  public void readReusesRoadNames() throws IOException {
+    File file = write("a,1 b,2 1 MAIN_ST\nb,2 c,3 1 MAIN_ST\n"
+        + "c,3 d,4 1 \u00C5S_V\u00C4G\nd,4 a,1 1 \u00C5S_V\u00C4G\n");
+    List<String[]> lines = readAll(file);
+    assertSame(lines.get(0)[3], lines.get(1)[3]);
+    assertSame(lines.get(2)[3], lines.get(3)[3]);
+    assertEquals("\u00C5S_V\u00C4G", lines.get(2)[3]);
+  }
+
+  @Test
+  @DisplayName("read() returns the number of roads the handler added")
+  public void readCountsAddedRoads() throws IOException {
+    File file = write("a b 1 r1\nb c 1 r2\nc a 1 r3\n");
+    int added = NetworkReader.read(file, (from, to, distance, road) -> !road.equals("r2"));
+    assertEquals(2, added);
+  }
+
+  @Test
+  @DisplayName("read() parses distances exactly like Double.parseDouble()")
+  public void readParsesDistancesLikeParseDouble() throws IOException {
+    List<String> numbers = new ArrayList<>(List.of(
+        "0", "-0.0", "0.05", "5.", "133.363", "+2.5", "1E-5", "3e+2", "1.7976931348623157e308",
+        "4.9e-324", "123456789012345678901234", "0.1000000000000000055511151231257827",
+        "9007199254740993", "1e23", "NaN", "-Infinity", "0x1p3"));
+    Random random = new Random(11);
+    for (int i = 0; i < 5000; i++) {
+      String number = Long.toString(random.nextLong() >>> (1 + random.nextInt(63)));
+      int point = random.nextInt(number.length() + 1);
+      numbers.add(number.substring(0, point) + "." + number.substring(point));
+    }
+    StringBuilder contents = new StringBuilder();
+    for (String number : numbers) {
+      contents.append("a b ").append(number).append(" r\n");
+    }
+    List<Double> distances = new ArrayList<>();
+    NetworkReader.read(write(contents.toString()), (from, to, distance, road) -> {
+      distances.add(distance);
+      return true;
+    });
+    for (int i = 0; i < numbers.size(); i++) {
+      assertEquals(Double.parseDouble(numbers.get(i)), distances.get(i), 0.0, numbers.get(i));
+    }
+  }
+
+  @Test
+  @DisplayName("read() on a pool passes on the same roads in the same order")
+  public void parallelReadMatchesSequentialRead() throws IOException {
+    List<String> lines = Files.readAllLines(
+        new File(Config.class.getResource("/baltimore.streets.txt").getFile()).toPath());
+    File file = write(String.join("\r\n", lines)); // no final newline
+    List<String[]> expected = readAll(file);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      List<String[]> actual = new ArrayList<>();
+      int added = NetworkReader.read(file, pool, (from, to, distance, road) -> {
+        actual.add(new String[]{from, to, Double.toString(distance), road});
+        return actual.size() % 2 == 0;
+      });
+      assertEquals(lines.size(), expected.size());
+      assertEquals(expected.size(), actual.size());
+      assertEquals(expected.size() / 2, added);
+      for (int i = 0; i < expected.size(); i++) {
+        assertArrayEquals(expected.get(i), actual.get(i));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("read() on a pool makes one String per distinct name across chunks")
+  public void parallelReadReusesNamesAcrossChunks() throws IOException {
+    StringBuilder contents = new StringBuilder();
+    for (int i = 0; i < 20000; i++) { // a few chunks of 64 KB
+      contents.append(i % 2 == 0 ? "a,1 b,2 1 MAIN_ST\n" : "b,2 a,1 1 MAIN_ST\n");
+    }
+    File file = write(contents.toString());
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      List<String[]> lines = new ArrayList<>();
+      NetworkReader.read(file, pool, (from, to, distance, road) -> {
+        lines.add(new String[]{from, to, road});
+        return true;
+      });
+      String[] first = lines.get(0);
+      String[] last = lines.get(lines.size() - 1);
+      assertSame(first[0], last[1]);
+      assertSame(first[1], last[0]);
+      assertSame(first[2], last[2]);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("read() on a pool throws NumberFormatException for a bad distance")
+  public void parallelReadThrowsExceptionForBadDistance() throws IOException {
+    StringBuilder contents = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      contents.append("a b ").append(i == 15000 ? "x" : "1").append(" r\n");
+    }
+    File file = write(contents.toString());
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertThrows(NumberFormatException.class,
+          () -> NetworkReader.read(file, pool, (from, to, distance, road) -> true));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("read() throws NumberFormatException for a bad distance")
+  public void readThrowsExceptionForBadDistance() throws IOException {
+    File file = write("a b 1.2.3 r\n");
+    assertThrows(NumberFormatException.class, () -> readAll(file));
+  }
+
+  @Test
+  @DisplayName("read() throws FileNotFoundException for a missing file")
+  public void readThrowsExceptionForMissingFile() {
+    File file = dir.resolve("missing.txt").toFile();
+    assertThrows(FileNotFoundException.class, () -> readAll(file));
+  }
+}
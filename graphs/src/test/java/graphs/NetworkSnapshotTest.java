@@ -0,0 +1,131 @@
+package graphs;
+
+import graphs.graph.Edge;
+import graphs.spp.NetworkSnapshot;
+import graphs.spp.Route;
+import graphs.spp.StreetSearcher;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NetworkSnapshotTest {
+
+  private static final String[][] PAIRS = {
+      {"-76.6175,39.3296", "-76.6383,39.3206"},
+      {"-76.6214,39.3212", "-76.6383,39.3206"},
+      {"-76.6107,39.2866", "-76.6175,39.3296"},
+      {"-76.6383,39.3206", "-76.6107,39.2866"}};
+
+  @TempDir
+  Path dir;
+
+  private static File data;
+
+  @BeforeAll
+  public static void findData() {
+    StreetSearcher.VERBOSE = false;
+    data = new File(Config.class.getResource("/baltimore.streets.txt").getFile());
+  }
+
+  private static List<String> roadNames(Route route) {
+    List<String> names = new ArrayList<>();
+    for (Edge<String> road : route.roads()) {
+      names.add(road.get());
+    }
+    return names;
+  }
+
+  private File save() throws IOException {
+    StreetSearcher text = Config.getStreetSearcher(Config.getGraph(), "dijkstra-p2p");
+    text.loadNetwork(data);
+    File snapshot = dir.resolve("baltimore.snet").toFile();
+    text.saveSnapshot(snapshot);
+    return snapshot;
+  }
+
+  @Test
+  @DisplayName("isSnapshot() tells snapshots from text files")
+  public void isSnapshotChecksMagic() throws IOException {
+    assertTrue(NetworkSnapshot.isSnapshot(save()));
+    assertFalse(NetworkSnapshot.isSnapshot(data));
+  }
+
+  @Test
+  @DisplayName("a saved snapshot loads into the same network")
+  public void snapshotLoadsSameNetwork() throws IOException {
+    File snapshot = save();
+    for (String name : new String[]{"dijkstra-p2p", "dijkstra-radix", "astar", "bidirectional",
+        "ch"}) {
+      StreetSearcher text = Config.getStreetSearcher(Config.getGraph(), name);
+      text.loadNetwork(data);
+      StreetSearcher sparse = Config.getStreetSearcher(Config.getGraph(), name);
+      sparse.loadNetwork(snapshot);
+      StreetSearcher compact = Config.getStreetSearcher(Config.getGraph(), name);
+      compact.loadCompactNetwork(snapshot);
+      StreetSearcher offHeap = Config.getStreetSearcher(Config.getGraph(), name);
+      offHeap.loadOffHeapNetwork(snapshot);
+      assertEquals(text.numLoaded, sparse.numLoaded);
+      assertEquals(text.numLoaded, compact.numLoaded);
+      assertEquals(text.numLoaded, offHeap.numLoaded);
+      for (String[] pair : PAIRS) {
+        Route expected = text.route(pair[0], pair[1]);
+        assertEquals(expected.distance(), sparse.route(pair[0], pair[1]).distance(), name);
+        assertEquals(expected.distance(), compact.route(pair[0], pair[1]).distance(), name);
+        assertEquals(roadNames(expected), roadNames(sparse.route(pair[0], pair[1])), name);
+        assertEquals(roadNames(expected), roadNames(compact.route(pair[0], pair[1])), name);
+        assertEquals(expected.distance(), offHeap.route(pair[0], pair[1]).distance(), name);
+        assertEquals(roadNames(expected), roadNames(offHeap.route(pair[0], pair[1])), name);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("a snapshot saved from a compact network is the same file")
+  public void compactNetworkSavesSameSnapshot() throws IOException {
+    File fromText = save();
+    StreetSearcher compact = Config.getStreetSearcher(Config.getGraph(), "dijkstra-p2p");
+    compact.loadCompactNetwork(fromText);
+    File fromCompact = dir.resolve("compact.snet").toFile();
+    compact.saveSnapshot(fromCompact);
+    assertArrayEquals(Files.readAllBytes(fromText.toPath()),
+        Files.readAllBytes(fromCompact.toPath()));
+  }
+
+  @Test
+  @DisplayName("loading a snapshot of another version throws IllegalArgumentException")
+  public void otherVersionIsRejected() throws IOException {
+    File snapshot = dir.resolve("future.snet").toFile();
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(snapshot))) {
+      out.writeInt(NetworkSnapshot.MAGIC);
+      out.writeInt(NetworkSnapshot.VERSION + 1);
+    }
+    StreetSearcher searcher = Config.getStreetSearcher(Config.getGraph());
+    assertThrows(IllegalArgumentException.class, () -> searcher.loadNetwork(snapshot));
+  }
+
+  @Test
+  @DisplayName("loading a truncated snapshot throws IllegalArgumentException")
+  public void truncatedSnapshotIsRejected() throws IOException {
+    File snapshot = dir.resolve("short.snet").toFile();
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(snapshot))) {
+      out.writeInt(NetworkSnapshot.MAGIC);
+      out.writeInt(NetworkSnapshot.VERSION);
+      out.writeInt(10);
+    }
+    StreetSearcher searcher = Config.getStreetSearcher(Config.getGraph());
+    assertThrows(IllegalArgumentException.class, () -> searcher.loadCompactNetwork(snapshot));
+    assertThrows(IllegalArgumentException.class, () -> searcher.loadOffHeapNetwork(snapshot));
+  }
+}
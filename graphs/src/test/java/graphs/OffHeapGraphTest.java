@@ -0,0 +1,209 @@
+package graphs;
+
+import exceptions.PositionException;
+import graphs.graph.CsrGraph;
+import graphs.graph.Edge;
+import graphs.graph.EdgeCursor;
+import graphs.graph.OffHeapGraph;
+import graphs.graph.SparseGraph;
+import graphs.graph.Vertex;
+import graphs.graph.WeightedGraph;
+import graphs.spp.Route;
+import graphs.spp.StreetSearcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapGraphTest {
+
+  private OffHeapGraph graph;
+
+  // v1 -> v2 (e1), v1 -> v3 (e2), v2 -> v3 (e3)
+  @BeforeEach
+  public void setupGraph() {
+    CsrGraph.Builder<String, String> builder = new CsrGraph.Builder<>();
+    int v1 = builder.insert("v1");
+    int v2 = builder.insert("v2");
+    int v3 = builder.insert("v3");
+    builder.insert(v1, v2, "e1", 1.0);
+    builder.insert(v1, v3, "e2", 2.0);
+    builder.insert(v2, v3, "e3", 3.0);
+    graph = OffHeapGraph.copyOf(builder.build());
+  }
+
+  private static <T> ArrayList<T> toList(Iterable<T> items) {
+    ArrayList<T> list = new ArrayList<>();
+    for (T item : items) {
+      list.add(item);
+    }
+    return list;
+  }
+
+  @Test
+  @DisplayName("copyOf() keeps vertex ids, edge order, names and weights")
+  public void copyKeepsLayout() {
+    assertEquals(3, graph.vertexCount());
+    assertEquals(3, graph.edgeCount());
+    Vertex<String> first = graph.vertex(0);
+    assertEquals("v1", first.get());
+    ArrayList<Edge<String>> out = toList(graph.outgoing(first));
+    assertEquals(2, out.size());
+    assertEquals("e1", out.get(0).get());
+    assertEquals("e2", out.get(1).get());
+    assertEquals(graph.vertex(1), graph.to(out.get(0)));
+    assertEquals(first, graph.from(out.get(1)));
+    assertEquals(2.0, graph.weight(out.get(1)));
+    assertEquals(2, toList(graph.incoming(graph.vertex(2))).size());
+    assertEquals(2, graph.inDegree(graph.vertex(2)));
+    assertEquals(toList(graph.edges()),
+        StreamSupport.stream(graph.edges().spliterator(), true).collect(Collectors.toList()));
+  }
+
+  @Test
+  @DisplayName("copyOf() closes up ids freed in a SparseGraph")
+  public void copyClosesIdGaps() {
+    WeightedGraph<String, String> sparse = new SparseGraph<>();
+    Vertex<String> a = sparse.insert("a");
+    Vertex<String> gone = sparse.insert("gone");
+    Vertex<String> b = sparse.insert("b");
+    sparse.insert(a, b, "ab", 4.0);
+    sparse.remove(gone);
+    OffHeapGraph copy = OffHeapGraph.copyOf(sparse);
+    assertEquals(2, copy.vertexIdBound());
+    assertEquals("b", copy.vertex(1).get());
+    assertEquals(4.0, copy.weight(copy.edge(0)));
+    assertEquals(copy.vertex(1), copy.to(copy.edge(0)));
+  }
+
+  @Test
+  @DisplayName("positions are flyweights that compare equal by id")
+  public void positionsCompareById() {
+    assertEquals(graph.vertex(1), graph.vertex(1));
+    assertEquals(graph.vertex(1).hashCode(), graph.vertex(1).hashCode());
+    assertNotEquals(graph.vertex(1), graph.vertex(2));
+    assertEquals(graph.edge(2), toList(graph.incoming(graph.vertex(2))).get(1));
+    assertEquals(1, graph.id(graph.vertex(1)));
+    assertEquals(2, graph.id(graph.edge(2)));
+  }
+
+  @Test
+  @DisplayName("find() and byName() look vertices up in the off-heap index")
+  public void findsVerticesByName() {
+    assertEquals(0, graph.find("v1"));
+    assertEquals(2, graph.find("v3"));
+    assertEquals(-1, graph.find("v4"));
+    assertEquals(-1, graph.find(null));
+    Map<String, Vertex<String>> byName = graph.byName();
+    assertEquals(3, byName.size());
+    assertEquals(graph.vertex(1), byName.get("v2"));
+    assertTrue(byName.containsKey("v3"));
+    assertFalse(byName.containsKey("v4"));
+    assertNull(byName.get("v4"));
+    assertEquals(graph.vertex(2), byName.entrySet().stream()
+        .filter(e -> e.getKey().equals("v3")).findFirst().orElseThrow().getValue());
+  }
+
+  @Test
+  @DisplayName("OffHeapGraph is immutable but can be labeled and weighted")
+  public void graphIsImmutable() {
+    Vertex<String> vertex = graph.vertex(0);
+    Edge<String> edge = graph.edge(0);
+
+    assertThrows(UnsupportedOperationException.class, () -> graph.insert("x"));
+    assertThrows(UnsupportedOperationException.class, () -> graph.remove(edge));
+    assertThrows(UnsupportedOperationException.class,
+        () -> graph.insert(vertex, graph.vertex(2), "f", 2.0));
+    long version = graph.version();
+    graph.weight(edge, 3.0);
+    assertEquals(3.0, graph.weight(graph.edge(0)));
+    assertTrue(graph.version() > version);
+    graph.label(vertex, "label");
+    graph.label(edge, 4.0);
+    assertEquals("label", graph.label(graph.vertex(0)));
+    assertEquals(4.0, graph.label(graph.edge(0)));
+    graph.clearLabels();
+    assertNull(graph.label(vertex));
+    assertNull(graph.label(edge));
+  }
+
+  @Test
+  @DisplayName("cursor() visits the same edges as outgoing() and incoming()")
+  public void cursorMatchesIterables() {
+    EdgeCursor<String> cursor = graph.cursor();
+    for (int v = 0; v < graph.vertexCount(); v++) {
+      ArrayList<Edge<String>> out = new ArrayList<>();
+      for (cursor.outgoing(v); cursor.next(); ) {
+        assertEquals(graph.id(graph.to(cursor.edge())), cursor.vertex());
+        assertEquals(graph.weight(cursor.edge()), cursor.weight());
+        out.add(cursor.edge());
+      }
+      assertEquals(toList(graph.outgoing(graph.vertex(v))), out);
+      ArrayList<Edge<String>> in = new ArrayList<>();
+      for (cursor.incoming(v); cursor.next(); ) {
+        assertEquals(graph.id(graph.from(cursor.edge())), cursor.vertex());
+        in.add(cursor.edge());
+      }
+      assertEquals(toList(graph.incoming(graph.vertex(v))), in);
+    }
+    assertThrows(PositionException.class, () -> cursor.outgoing(3));
+  }
+
+  @Test
+  @DisplayName("positions from another graph are rejected")
+  public void foreignPositionsThrowPositionException() {
+    OffHeapGraph other = OffHeapGraph.copyOf(graph);
+    assertThrows(PositionException.class, () -> graph.outgoing(other.vertex(0)));
+    assertThrows(PositionException.class, () -> graph.weight(other.edge(0)));
+    assertThrows(PositionException.class, () -> graph.outgoing(null));
+    assertThrows(PositionException.class, () -> graph.vertex(3));
+  }
+
+  @Test
+  @DisplayName("loadOffHeapNetwork() loads the same network as loadNetwork()")
+  public void offHeapNetworkMatchesSparseNetwork() throws FileNotFoundException {
+    StreetSearcher.VERBOSE = false;
+    File data = new File(Config.class.getResource("/baltimore.streets.txt").getFile());
+    StreetSearcher sparse = Config.getStreetSearcher(Config.getGraph());
+    sparse.loadNetwork(data);
+    StreetSearcher offHeap = Config.getStreetSearcher(Config.getGraph());
+    offHeap.loadOffHeapNetwork(data);
+    assertEquals(sparse.numLoaded, offHeap.numLoaded);
+    String start = "-76.6175,39.3296";
+    String end = "-76.6383,39.3206";
+    assertEquals(sparse.route(start, end).distance(), offHeap.route(start, end).distance());
+  }
+
+  @Test
+  @DisplayName("searching an off-heap network allocates nothing per road relaxed")
+  public void offHeapSearchDoesNotAllocatePerRoad() throws FileNotFoundException {
+    StreetSearcher.VERBOSE = false;
+    File data = new File(Config.class.getResource("/baltimore.streets.txt").getFile());
+    StreetSearcher searcher = Config.getStreetSearcher(Config.getGraph(), "dijkstra");
+    searcher.loadOffHeapNetwork(data);
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    String start = "-76.6175,39.3296";
+    String end = "-76.6383,39.3206";
+    searcher.route(start, end); // pools the search context
+    long allocated = Long.MAX_VALUE;
+    for (int i = 0; i < 3; i++) { // least of a few runs, in case the JIT steps in
+      long before = threads.getCurrentThreadAllocatedBytes();
+      Route route = searcher.route(start, end);
+      allocated = Math.min(allocated, threads.getCurrentThreadAllocatedBytes() - before);
+      assertTrue(route.found());
+    }
+    // only the route itself is allocated: less than a byte per vertex settled,
+    // where an Edge per road relaxed would be several times that
+    assertTrue(allocated < searcher.numSettled, allocated + " bytes");
+  }
+}
@@ -0,0 +1,99 @@
+package graphs;
+
+import graphs.spp.QueueStrategy;
+import graphs.spp.RadixHeap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RadixHeapTest {
+
+  @Test
+  @DisplayName("poll() returns ids in key order")
+  public void pollReturnsIdsInKeyOrder() {
+    RadixHeap heap = new RadixHeap(5, 100);
+    heap.insert(3, 30.0);
+    heap.insert(0, 10.0);
+    heap.insert(4, 5.0);
+    heap.insert(1, Double.POSITIVE_INFINITY);
+    assertEquals(4, heap.size());
+    assertEquals(4, heap.peek());
+    assertEquals(4, heap.poll());
+    assertEquals(0, heap.poll());
+    heap.decreaseKey(1, 20.0);
+    assertEquals(20.0, heap.key(1));
+    assertEquals(1, heap.poll());
+    assertEquals(3, heap.poll());
+    assertTrue(heap.isEmpty());
+  }
+
+  @Test
+  @DisplayName("keys below the last one polled are rejected until clear()")
+  public void keysMustNotGoBelowLastPolled() {
+    RadixHeap heap = new RadixHeap(3, 1);
+    heap.insert(0, 10.0);
+    heap.insert(1, 20.0);
+    assertEquals(0, heap.poll());
+    assertThrows(IllegalArgumentException.class, () -> heap.insert(2, 9.0));
+    assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 5.0));
+    assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 30.0));
+    assertThrows(IllegalArgumentException.class, () -> heap.insert(1, 20.0));
+    assertThrows(NoSuchElementException.class, () -> heap.decreaseKey(0, 1.0));
+    heap.clear();
+    assertFalse(heap.contains(1));
+    heap.insert(2, 1.0);
+    assertEquals(2, heap.poll());
+    assertThrows(NoSuchElementException.class, heap::poll);
+    assertThrows(IllegalArgumentException.class, () -> new RadixHeap(1, 0.0));
+  }
+
+  @Test
+  @DisplayName("strategy() rounds road lengths to whole units")
+  public void strategyRoundsLengths() {
+    QueueStrategy strategy = RadixHeap.strategy(100);
+    assertEquals(21.55, strategy.roadWeight(21.5510));
+    assertEquals(133.36, strategy.roadWeight(133.363));
+    assertTrue(strategy.create(4) instanceof RadixHeap);
+    assertEquals(21.5510, QueueStrategy.HEAP.roadWeight(21.5510));
+  }
+
+  @Test
+  @DisplayName("a Dijkstra-like run of inserts and decreases comes out sorted")
+  public void monotoneOperationsComeOutSorted() {
+    Random random = new Random(42);
+    int n = 1000;
+    RadixHeap heap = new RadixHeap(n, 100);
+    double[] keys = new double[n];
+    boolean[] polled = new boolean[n];
+    double last = 0;
+    heap.insert(0, 0.0);
+    while (!heap.isEmpty()) {
+      int id = heap.poll();
+      assertTrue(Math.rint(keys[id] * 100) >= Math.rint(last * 100));
+      last = keys[id];
+      polled[id] = true;
+      for (int k = 0; k < 5; k++) { // relax a few random roads
+        int next = random.nextInt(n);
+        double key = Math.rint((last + random.nextDouble() * 50) * 100) / 100;
+        if (polled[next]) {
+          continue;
+        } else if (!heap.contains(next)) {
+          heap.insert(next, key);
+          keys[next] = key;
+        } else if (key < keys[next]) {
+          heap.decreaseKey(next, key);
+          keys[next] = key;
+        }
+      }
+    }
+    int reached = 0;
+    for (boolean p : polled) {
+      reached += p ? 1 : 0;
+    }
+    assertTrue(reached > n / 2);
+  }
+}
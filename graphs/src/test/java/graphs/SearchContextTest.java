@@ -0,0 +1,61 @@
+package graphs;
+
+import graphs.spp.SearchContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchContextTest {
+
+  @Test
+  @DisplayName("a new context has nothing reached or settled")
+  public void newContextIsEmpty() {
+    SearchContext context = new SearchContext(3);
+    for (int id = 0; id < 3; id++) {
+      assertFalse(context.isReached(id));
+      assertFalse(context.isSettled(id));
+      assertFalse(context.isTarget(id));
+      assertEquals(Double.POSITIVE_INFINITY, context.distance(id));
+      assertEquals(-1, context.predecessor(id));
+    }
+    assertTrue(context.queue().isEmpty());
+  }
+
+  @Test
+  @DisplayName("reset() forgets the previous query")
+  public void resetForgetsPreviousQuery() {
+    SearchContext context = new SearchContext(3);
+    context.reach(1, 4.5, -1);
+    context.settle(1);
+    assertTrue(context.target(2));
+    assertFalse(context.target(2)); // already a target
+    context.reach(2, 6.0, 1);
+    context.queue().insert(2, 1.0);
+    assertEquals(4.5, context.distance(1));
+    assertTrue(context.isSettled(1));
+    assertEquals(1, context.predecessor(2));
+
+    context.reset(3);
+    assertFalse(context.isReached(1));
+    assertFalse(context.isSettled(1));
+    assertFalse(context.isTarget(2));
+    assertEquals(Double.POSITIVE_INFINITY, context.distance(1));
+    assertEquals(-1, context.predecessor(2));
+    assertTrue(context.queue().isEmpty());
+    assertFalse(context.queue().contains(2));
+  }
+
+  @Test
+  @DisplayName("reset() grows the context for a larger network")
+  public void resetGrowsCapacity() {
+    SearchContext context = new SearchContext(2);
+    context.reach(0, 1.0, -1);
+    context.reset(5);
+    assertFalse(context.isReached(0));
+    context.reach(4, 2.0, -1);
+    context.queue().insert(4, 2.0);
+    assertEquals(2.0, context.distance(4));
+    assertEquals(4, context.queue().poll());
+  }
+}
@@ -1,7 +1,14 @@
 package graphs;
 
+import exceptions.PositionException;
+import graphs.graph.Edge;
 import graphs.graph.Graph;
 import graphs.graph.SparseGraph;
+import graphs.graph.Vertex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class SparseGraphTest extends GraphTest {
 
@@ -9,4 +16,41 @@ public class SparseGraphTest extends GraphTest {
   protected Graph<String, String> createGraph() {
     return new SparseGraph<>();
   }
+
+  @Test
+  @DisplayName("insert(from, to, e, weight) returns an edge with that weight")
+  public void canGetWeightAfterInsert() {
+    SparseGraph<String, String> weighted = new SparseGraph<>();
+    Vertex<String> v1 = weighted.insert("v1");
+    Vertex<String> v2 = weighted.insert("v2");
+    Edge<String> e1 = weighted.insert(v1, v2, "v1-v2", 2.5);
+    Edge<String> e2 = weighted.insert(v2, v1, "v2-v1");
+    assertEquals(2.5, weighted.weight(e1));
+    assertEquals(1.0, weighted.weight(e2));
+    assertNull(weighted.label(e1));
+  }
+
+  @Test
+  @DisplayName("weight(e, weight) changes the weight of an edge")
+  public void canChangeWeight() {
+    SparseGraph<String, String> weighted = new SparseGraph<>();
+    Vertex<String> v1 = weighted.insert("v1");
+    Vertex<String> v2 = weighted.insert("v2");
+    Edge<String> e1 = weighted.insert(v1, v2, "v1-v2", 2.5);
+    long version = weighted.version();
+    weighted.weight(e1, 7.0);
+    assertEquals(7.0, weighted.weight(e1));
+    assertTrue(weighted.version() > version);
+  }
+
+  @Test
+  @DisplayName("weight(e) throws PositionException if e is invalid")
+  public void weightThrowsExceptionForInvalidEdge() {
+    SparseGraph<String, String> weighted = new SparseGraph<>();
+    SparseGraph<String, String> other = new SparseGraph<>();
+    Edge<String> foreign = other.insert(other.insert("a"), other.insert("b"), "a-b", 1.0);
+    assertThrows(PositionException.class, () -> weighted.weight(null));
+    assertThrows(PositionException.class, () -> weighted.weight(foreign));
+    assertThrows(PositionException.class, () -> weighted.weight(null, 1.0));
+  }
 }
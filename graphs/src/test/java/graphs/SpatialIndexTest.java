@@ -0,0 +1,115 @@
+package graphs;
+
+import graphs.graph.SparseGraph;
+import graphs.graph.WeightedGraph;
+import graphs.spp.Coordinates;
+import graphs.spp.SpatialIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpatialIndexTest {
+
+  private static final int N = 2000;
+
+  private Coordinates coordinates;
+  private SpatialIndex index;
+
+  // N random points around Baltimore, on a grid fine enough for ties
+  @BeforeEach
+  public void setupIndex() {
+    WeightedGraph<String, String> graph = new SparseGraph<>();
+    Set<String> names = new HashSet<>();
+    Random random = new Random(7);
+    while (graph.vertexCount() < N) {
+      String name = String.format(Locale.ROOT, "%.3f,%.3f",
+          -76.7 + random.nextInt(200) / 1000.0, 39.2 + random.nextInt(200) / 1000.0);
+      if (names.add(name)) {
+        graph.insert(name);
+      }
+    }
+    coordinates = Coordinates.of(graph);
+    index = new SpatialIndex(coordinates);
+  }
+
+  // ids sorted by distance to the point, then by id
+  private int[] linearScan(double lon, double lat) {
+    return IntStream.range(0, N).boxed()
+        .sorted(Comparator.comparingDouble((Integer id) -> distance(id, lon, lat))
+            .thenComparing(id -> id))
+        .mapToInt(id -> id).toArray();
+  }
+
+  private double distance(int id, double lon, double lat) {
+    return Coordinates.greatCircle(lon, lat, coordinates.longitude(id), coordinates.latitude(id));
+  }
+
+  @Test
+  @DisplayName("nearest() finds the same vertices as a linear scan")
+  public void nearestMatchesLinearScan() {
+    Random random = new Random(11);
+    for (int q = 0; q < 100; q++) {
+      double lon = -76.75 + random.nextDouble() * 0.3;
+      double lat = 39.15 + random.nextDouble() * 0.3;
+      int[] expected = linearScan(lon, lat);
+      int[] found = index.nearest(lon, lat, 10);
+      assertEquals(10, found.length);
+      for (int i = 0; i < 10; i++) {
+        assertEquals(distance(expected[i], lon, lat), distance(found[i], lon, lat), 1e-6);
+      }
+      assertEquals(distance(expected[0], lon, lat),
+          distance(index.nearest(lon, lat), lon, lat), 1e-6);
+    }
+  }
+
+  @Test
+  @DisplayName("within() finds every vertex in the radius, nearest first")
+  public void withinMatchesLinearScan() {
+    Random random = new Random(13);
+    for (int q = 0; q < 50; q++) {
+      double lon = -76.7 + random.nextDouble() * 0.2;
+      double lat = 39.2 + random.nextDouble() * 0.2;
+      double meters = random.nextDouble() * 1500;
+      int[] expected = Arrays.stream(linearScan(lon, lat))
+          .filter(id -> distance(id, lon, lat) <= meters).toArray();
+      int[] found = index.within(lon, lat, meters);
+      assertEquals(expected.length, found.length);
+      int[] sortedFound = found.clone();
+      int[] sortedExpected = expected.clone();
+      Arrays.sort(sortedFound);
+      Arrays.sort(sortedExpected);
+      assertArrayEquals(sortedExpected, sortedFound);
+      for (int i = 1; i < found.length; i++) {
+        assertTrue(distance(found[i - 1], lon, lat) <= distance(found[i], lon, lat) + 1e-6);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("k larger than the index returns every vertex; k = 0 returns none")
+  public void nearestHandlesLargeAndZeroK() {
+    assertEquals(N, index.nearest(-76.6, 39.3, N + 10).length);
+    assertEquals(0, index.nearest(-76.6, 39.3, 0).length);
+    assertThrows(IllegalArgumentException.class, () -> index.nearest(-76.6, 39.3, -1));
+    assertThrows(IllegalArgumentException.class, () -> index.nearest(Double.NaN, 39.3));
+  }
+
+  @Test
+  @DisplayName("an empty index finds nothing")
+  public void emptyIndexFindsNothing() {
+    SpatialIndex empty = new SpatialIndex(Coordinates.of(new SparseGraph<String, String>()));
+    assertEquals(0, empty.size());
+    assertEquals(-1, empty.nearest(0, 0));
+    assertEquals(0, empty.within(0, 0, 1e7).length);
+  }
+}
@@ -0,0 +1,457 @@
+package graphs;
+
+import graphs.graph.Edge;
+import graphs.graph.Vertex;
+import graphs.graph.WeightedGraph;
+import graphs.spp.Coordinates;
+import graphs.spp.Route;
+import graphs.spp.ShortestPathTree;
+import graphs.spp.StreetSearcher;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import performance.Networks;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreetSearcherTest {
+
+  private static final String JHU = "-76.6175,39.3296";
+  private static final String DRUID_LAKE = "-76.6383,39.3206";
+  private static final String SEVEN_ELEVEN = "-76.6214,39.3212";
+  private static final String INNER_HARBOR = "-76.6107,39.2866";
+
+  private static final String[] SEARCHERS =
+      {"dijkstra", "dijkstra-p2p", "astar", "bidirectional", "ch"};
+
+  private static File data;
+
+  @BeforeAll
+  public static void findData() {
+    StreetSearcher.VERBOSE = false;
+    data = new File(Config.class.getResource("/baltimore.streets.txt").getFile());
+  }
+
+  private static StreetSearcher load(String name) throws FileNotFoundException {
+    StreetSearcher searcher = Config.getStreetSearcher(Config.getGraph(), name);
+    searcher.loadNetwork(data);
+    return searcher;
+  }
+
+  private static List<String[]> randomPairs(int count, long seed) throws FileNotFoundException {
+    List<String> names = Networks.endpointNames(data);
+    Random random = new Random(seed);
+    List<String[]> pairs = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      pairs.add(new String[]{names.get(random.nextInt(names.size())),
+          names.get(random.nextInt(names.size()))});
+    }
+    return pairs;
+  }
+
+  // helper method: a searcher's route() agrees with plain Dijkstra on random
+  // pairs, on a pair with no path and on a start equal to the end; its
+  // roads must lead from the start to the end and add up to the distance
+  private static void assertMatchesDijkstra(String name) throws FileNotFoundException {
+    StreetSearcher dijkstra = load("dijkstra");
+    WeightedGraph<String, String> graph = Config.getGraph();
+    StreetSearcher searcher = Config.getStreetSearcher(graph, name);
+    searcher.loadNetwork(data);
+    ShortestPathTree tree = dijkstra.shortestPathTree(JHU);
+    int unreachable = 0;
+    while (tree.reached(unreachable)) {
+      unreachable++;
+    }
+    List<String[]> pairs = randomPairs(40, 11);
+    pairs.add(new String[]{JHU, dijkstra.vertexName(unreachable)});
+    pairs.add(new String[]{dijkstra.vertexName(unreachable), JHU});
+    pairs.add(new String[]{JHU, JHU});
+    for (String[] pair : pairs) {
+      String message = name + " from " + pair[0] + " to " + pair[1];
+      Route expected = dijkstra.route(pair[0], pair[1]);
+      Route route = searcher.route(pair[0], pair[1]);
+      assertEquals(expected.found(), route.found(), message);
+      assertEquals(expected.distance(), route.distance(), 1e-6, message);
+      if (!route.found()) {
+        continue;
+      }
+      int at = searcher.vertexId(pair[0]);
+      double length = 0.0;
+      for (Edge<String> road : route.roads()) {
+        assertEquals(at, graph.id(graph.from(road)), message);
+        at = graph.id(graph.to(road));
+        length += graph.weight(road);
+      }
+      assertEquals(searcher.vertexId(pair[1]), at, message);
+      assertEquals(route.distance(), length, 1e-6, message);
+    }
+  }
+
+  private static List<String> roadNames(Route route) {
+    List<String> names = new ArrayList<>();
+    for (Edge<String> road : route.roads()) {
+      names.add(road.get());
+    }
+    return names;
+  }
+
+  @Test
+  @DisplayName("route() finds the same distance with every searcher")
+  public void routeDistanceMatchesAcrossSearchers() throws FileNotFoundException {
+    for (String name : SEARCHERS) {
+      StreetSearcher searcher = load(name);
+      Route route = searcher.route(JHU, DRUID_LAKE);
+      assertTrue(route.found(), name);
+      assertEquals(8818.5187, route.distance(), 1e-4, name);
+      assertEquals(JHU, route.start());
+      assertEquals(DRUID_LAKE, route.end());
+      assertFalse(route.roads().isEmpty(), name);
+      route = searcher.route(INNER_HARBOR, JHU);
+      assertEquals(16570.4909, route.distance(), 1e-4, name);
+    }
+  }
+
+  @Test
+  @DisplayName("dijkstra-p2p finds the same paths and distances as the full search")
+  public void pointToPointMatchesFullSearch() throws FileNotFoundException {
+    assertMatchesDijkstra("dijkstra-p2p");
+    StreetSearcher full = load("dijkstra");
+    StreetSearcher pointToPoint = load("dijkstra-p2p");
+    for (String[] pair : randomPairs(40, 5)) {
+      Route expected = full.route(pair[0], pair[1]);
+      Route route = pointToPoint.route(pair[0], pair[1]);
+      assertEquals(expected.distance(), route.distance());
+      if (expected.found()) {
+        assertEquals(roadNames(expected), roadNames(route));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("astar finds the same distances as Dijkstra, and none where there is no path")
+  public void aStarMatchesDijkstra() throws FileNotFoundException {
+    assertMatchesDijkstra("astar");
+  }
+
+  @Test
+  @DisplayName("bidirectional finds the same distances as Dijkstra, none where there is no path")
+  public void bidirectionalMatchesDijkstra() throws FileNotFoundException {
+    assertMatchesDijkstra("bidirectional");
+  }
+
+  @Test
+  @DisplayName("ch finds the same distances as Dijkstra, none where there is no path")
+  public void contractionHierarchyMatchesDijkstra() throws FileNotFoundException {
+    assertMatchesDijkstra("ch");
+  }
+
+  @Test
+  @DisplayName("dijkstra-radix keeps lengths to a hundredth and finds the same roads")
+  public void radixSearcherRoundsLengths() throws FileNotFoundException {
+    StreetSearcher heap = load("dijkstra-p2p");
+    StreetSearcher radix = load("dijkstra-radix");
+    for (String[] pair : new String[][]{{JHU, DRUID_LAKE}, {INNER_HARBOR, JHU},
+        {SEVEN_ELEVEN, INNER_HARBOR}}) {
+      Route expected = heap.route(pair[0], pair[1]);
+      Route route = radix.route(pair[0], pair[1]);
+      assertEquals(roadNames(expected), roadNames(route));
+      assertEquals(expected.distance(), route.distance(), 0.005 * route.roads().size());
+      assertEquals(Math.rint(route.distance() * 100), route.distance() * 100, 1e-6);
+    }
+    ShortestPathTree tree = radix.shortestPathTree(JHU);
+    assertEquals(radix.route(JHU, DRUID_LAKE).distance(),
+        tree.distance(radix.vertexId(DRUID_LAKE)), 1e-9);
+  }
+
+  @Test
+  @DisplayName("route() from an endpoint to itself has no roads")
+  public void routeToItselfIsEmpty() throws FileNotFoundException {
+    Route route = load("dijkstra-p2p").route(JHU, JHU);
+    assertTrue(route.found());
+    assertEquals(0.0, route.distance());
+    assertTrue(route.roads().isEmpty());
+  }
+
+  @Test
+  @DisplayName("route() throws IllegalArgumentException for an unknown endpoint")
+  public void routeThrowsExceptionForUnknownEndpoint() throws FileNotFoundException {
+    StreetSearcher searcher = load("dijkstra-p2p");
+    assertThrows(IllegalArgumentException.class, () -> searcher.route(JHU, "0,0"));
+    assertThrows(IllegalArgumentException.class, () -> searcher.route("0,0", JHU));
+  }
+
+  @Test
+  @DisplayName("repeated route() calls allocate the same small amount each time")
+  public void repeatedRoutesAllocateFlat() throws FileNotFoundException {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    for (String name : SEARCHERS) {
+      StreetSearcher searcher = load(name);
+      long before = threads.getCurrentThreadAllocatedBytes();
+      searcher.route(INNER_HARBOR, JHU); // sizes the pooled search state
+      long first = threads.getCurrentThreadAllocatedBytes() - before;
+      long least = Long.MAX_VALUE;
+      long most = 0;
+      for (int i = 0; i < 10; i++) {
+        before = threads.getCurrentThreadAllocatedBytes();
+        searcher.route(INNER_HARBOR, JHU);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        least = Math.min(least, allocated);
+        most = Math.max(most, allocated);
+      }
+      // later searches only allocate the route they return
+      assertTrue(most <= 2 * least, name + ": " + least + " to " + most + " bytes");
+      assertTrue(10 * most < first, name + ": " + most + " of " + first + " bytes");
+    }
+  }
+
+  @Test
+  @DisplayName("routes() returns the same routes as route(), in order")
+  public void routesMatchesRoute() throws FileNotFoundException {
+    List<String[]> pairs = new ArrayList<>();
+    pairs.add(new String[]{JHU, DRUID_LAKE});
+    pairs.add(new String[]{SEVEN_ELEVEN, DRUID_LAKE});
+    pairs.add(new String[]{JHU, INNER_HARBOR});
+    pairs.add(new String[]{INNER_HARBOR, JHU});
+    pairs.add(new String[]{JHU, JHU});
+    pairs.add(new String[]{JHU, DRUID_LAKE});
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (String name : SEARCHERS) {
+        StreetSearcher searcher = load(name);
+        List<Route> routes = searcher.routes(pairs, pool);
+        assertEquals(pairs.size(), routes.size(), name);
+        for (int i = 0; i < pairs.size(); i++) {
+          Route expected = searcher.route(pairs.get(i)[0], pairs.get(i)[1]);
+          Route actual = routes.get(i);
+          assertEquals(expected.start(), actual.start(), name);
+          assertEquals(expected.end(), actual.end(), name);
+          assertEquals(expected.distance(), actual.distance(), 1e-6, name);
+          assertEquals(expected.roads().size(), actual.roads().size(), name);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("route() called from many threads at once matches sequential route()")
+  public void concurrentRoutesMatchSequentialRoutes() throws Exception {
+    List<String[]> pairs = randomPairs(24, 7);
+    ExecutorService threads = Executors.newFixedThreadPool(4);
+    try {
+      for (String name : SEARCHERS) {
+        StreetSearcher searcher = load(name);
+        List<Route> expected = new ArrayList<>();
+        for (String[] pair : pairs) {
+          expected.add(searcher.route(pair[0], pair[1]));
+        }
+        // every thread routes every pair, starting at different pairs
+        CyclicBarrier start = new CyclicBarrier(4);
+        List<Future<List<Route>>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+          final int offset = t * pairs.size() / 4;
+          results.add(threads.submit(() -> {
+            start.await();
+            Route[] routes = new Route[pairs.size()];
+            for (int i = 0; i < pairs.size(); i++) {
+              int k = (offset + i) % pairs.size();
+              routes[k] = searcher.route(pairs.get(k)[0], pairs.get(k)[1]);
+            }
+            return Arrays.asList(routes);
+          }));
+        }
+        for (Future<List<Route>> result : results) {
+          List<Route> routes = result.get();
+          for (int i = 0; i < pairs.size(); i++) {
+            assertEquals(expected.get(i).distance(), routes.get(i).distance(), name);
+            assertEquals(expected.get(i).found(), routes.get(i).found(), name);
+            if (expected.get(i).found()) {
+              assertEquals(roadNames(expected.get(i)), roadNames(routes.get(i)), name);
+            }
+          }
+        }
+      }
+    } finally {
+      threads.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("loadNetwork() on a pool loads the same network")
+  public void parallelLoadMatchesSequentialLoad() throws FileNotFoundException {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      StreetSearcher sequential = load("dijkstra-p2p");
+      StreetSearcher parallel = Config.getStreetSearcher(Config.getGraph(), "dijkstra-p2p");
+      parallel.loadNetwork(data, pool);
+      StreetSearcher compact = Config.getStreetSearcher(Config.getGraph(), "dijkstra-p2p");
+      compact.loadCompactNetwork(data, pool);
+      assertEquals(sequential.numLoaded, parallel.numLoaded);
+      assertEquals(sequential.numLoaded, compact.numLoaded);
+      Route expected = sequential.route(INNER_HARBOR, JHU);
+      assertEquals(roadNames(expected), roadNames(parallel.route(INNER_HARBOR, JHU)));
+      assertEquals(roadNames(expected), roadNames(compact.route(INNER_HARBOR, JHU)));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("routes() throws IllegalArgumentException for an unknown endpoint")
+  public void routesThrowsExceptionForUnknownEndpoint() throws FileNotFoundException {
+    StreetSearcher searcher = load("dijkstra-p2p");
+    List<String[]> pairs = new ArrayList<>();
+    pairs.add(new String[]{JHU, DRUID_LAKE});
+    pairs.add(new String[]{JHU, "0,0"});
+    assertThrows(IllegalArgumentException.class, () -> searcher.routes(pairs));
+  }
+
+  @Test
+  @DisplayName("shortestPathTree() has the distances and paths route() finds")
+  public void shortestPathTreeMatchesRoute() throws FileNotFoundException {
+    StreetSearcher searcher = load("dijkstra-p2p");
+    ShortestPathTree tree = searcher.shortestPathTree(JHU);
+    int jhu = searcher.vertexId(JHU);
+    assertEquals(jhu, tree.source());
+    assertEquals(0.0, tree.distance(jhu));
+    assertEquals(-1, tree.predecessor(jhu));
+    assertArrayEquals(new int[]{jhu}, tree.pathTo(jhu));
+    for (String end : new String[]{DRUID_LAKE, SEVEN_ELEVEN, INNER_HARBOR}) {
+      Route route = searcher.route(JHU, end);
+      int id = searcher.vertexId(end);
+      assertTrue(tree.reached(id));
+      assertEquals(route.distance(), tree.distance(id), 1e-6, end);
+      int[] path = tree.pathTo(id);
+      assertEquals(route.roads().size() + 1, path.length, end);
+      assertEquals(JHU, searcher.vertexName(path[0]));
+      assertEquals(end, searcher.vertexName(path[path.length - 1]));
+    }
+  }
+
+  @Test
+  @DisplayName("distanceMatrix() matches route() for every start and end")
+  public void distanceMatrixMatchesRoute() throws FileNotFoundException {
+    List<String> starts = Arrays.asList(JHU, INNER_HARBOR, SEVEN_ELEVEN);
+    List<String> ends = Arrays.asList(DRUID_LAKE, JHU, DRUID_LAKE);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      StreetSearcher searcher = load("ch");
+      double[][] matrix = searcher.distanceMatrix(starts, ends, pool);
+      assertEquals(starts.size(), matrix.length);
+      for (int i = 0; i < starts.size(); i++) {
+        assertEquals(ends.size(), matrix[i].length);
+        for (int j = 0; j < ends.size(); j++) {
+          Route route = searcher.route(starts.get(i), ends.get(j));
+          assertEquals(route.distance(), matrix[i][j], 1e-6, i + "," + j);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("shortestPathTree() and distanceMatrix() reject unknown endpoints")
+  public void treeThrowsExceptionForUnknownEndpoint() throws FileNotFoundException {
+    StreetSearcher searcher = load("dijkstra");
+    assertThrows(IllegalArgumentException.class, () -> searcher.shortestPathTree("0,0"));
+    assertThrows(IllegalArgumentException.class,
+        () -> searcher.distanceMatrix(Arrays.asList(JHU), Arrays.asList("0,0")));
+  }
+
+  @Test
+  @DisplayName("route() by coordinates snaps both ends to the nearest endpoint")
+  public void routeByCoordinatesSnapsEndpoints() throws FileNotFoundException {
+    StreetSearcher searcher = load("astar");
+    assertEquals(JHU, searcher.nearestEndpoint(-76.6175, 39.3296));
+    assertEquals(JHU, searcher.nearestEndpoint(-76.61752, 39.32961));
+    Route route = searcher.route(-76.61752, 39.32961, -76.63831, 39.32059);
+    assertEquals(JHU, route.start());
+    assertEquals(DRUID_LAKE, route.end());
+    assertEquals(searcher.route(JHU, DRUID_LAKE).distance(), route.distance());
+  }
+
+  @Test
+  @DisplayName("nearestEndpoints() and endpointsWithin() agree with a linear scan")
+  public void nearestEndpointsMatchLinearScan() throws FileNotFoundException {
+    WeightedGraph<String, String> graph = Config.getGraph();
+    StreetSearcher searcher = Config.getStreetSearcher(graph, "dijkstra");
+    searcher.loadNetwork(data);
+    List<String> names = new ArrayList<>();
+    for (Vertex<String> v : graph.vertices()) {
+      names.add(v.get());
+    }
+    Random random = new Random(17);
+    for (int q = 0; q < 20; q++) {
+      double lon = -76.70 + random.nextDouble() * 0.15;
+      double lat = 39.25 + random.nextDouble() * 0.12;
+      names.sort(Comparator.comparingDouble(name -> meters(lon, lat, name)));
+      List<String> nearest = searcher.nearestEndpoints(lon, lat, 5);
+      assertEquals(5, nearest.size());
+      for (int i = 0; i < 5; i++) {
+        assertEquals(meters(lon, lat, names.get(i)), meters(lon, lat, nearest.get(i)), 1e-6);
+      }
+      assertEquals(meters(lon, lat, names.get(0)),
+          meters(lon, lat, searcher.nearestEndpoint(lon, lat)), 1e-6);
+      double radius = random.nextDouble() * 500;
+      List<String> within = searcher.endpointsWithin(lon, lat, radius);
+      Set<String> expected = new HashSet<>();
+      for (String name : names) {
+        if (meters(lon, lat, name) <= radius) {
+          expected.add(name);
+        }
+      }
+      assertEquals(expected, new HashSet<>(within));
+      assertEquals(expected.size(), within.size());
+      for (int i = 1; i < within.size(); i++) {
+        assertTrue(meters(lon, lat, within.get(i - 1)) <= meters(lon, lat, within.get(i)),
+            "nearest first");
+      }
+    }
+  }
+
+  private static double meters(double lon, double lat, String name) {
+    double[] lonLat = Coordinates.parse(name);
+    return Coordinates.greatCircle(lon, lat, lonLat[0], lonLat[1]);
+  }
+
+  @Test
+  @DisplayName("nearestEndpoint() sees changes to the graph that keep its size")
+  public void nearestEndpointFollowsGraphChanges() throws FileNotFoundException {
+    WeightedGraph<String, String> graph = Config.getGraph();
+    StreetSearcher searcher = Config.getStreetSearcher(graph, "dijkstra");
+    searcher.loadNetwork(data);
+    double lon = -76.62;
+    double lat = 39.31;
+    Vertex<String> far = graph.insert("-70.0000,30.0000");
+    assertNotEquals("-76.6200,39.3100", searcher.nearestEndpoint(lon, lat));
+    graph.remove(far); // the same number of endpoints once one is inserted
+    graph.insert("-76.6200,39.3100");
+    assertEquals("-76.6200,39.3100", searcher.nearestEndpoint(lon, lat));
+  }
+
+  @Test
+  @DisplayName("nearestEndpoint() throws IllegalStateException without coordinates")
+  public void nearestEndpointNeedsCoordinates() {
+    StreetSearcher searcher = Config.getStreetSearcher(Config.getGraph());
+    assertThrows(IllegalStateException.class, () -> searcher.nearestEndpoint(0, 0));
+  }
+}
@@ -1,7 +1,9 @@
 package performance;
 
 import graphs.Config;
-import graphs.graph.Graph;
+import graphs.graph.WeightedGraph;
+import graphs.spp.ContractionHierarchy;
+import graphs.spp.ContractionHierarchyStreetSearcher;
 import graphs.spp.StreetSearcher;
 import performance.profiler.GcProfiler;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -15,6 +17,7 @@ import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.runner.Runner;
@@ -23,16 +26,28 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
-@State(Scope.Benchmark)
 public class JmhRuntimeTest {
 
-  private File data;
-  private HashMap<String, String[]> endpoints;
-  private Graph<String, String> graph;
-  private StreetSearcher sst;
+  private static final Map<String, String[]> ENDPOINTS = new HashMap<>();
+
+  static {
+    ENDPOINTS.put("JHU to Druid Lake", new String[]{"-76.6175,39.3296", "-76.6383,39.3206"});
+    ENDPOINTS.put("7-11 to Druid Lake", new String[]{"-76.6214,39.3212", "-76.6383,39.3206"});
+    ENDPOINTS.put("Inner Harbor to JHU", new String[]{"-76.6107,39.2866", "-76.6175,39.3296"});
+  }
 
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
@@ -43,41 +58,330 @@ public class JmhRuntimeTest {
     new Runner(opt).run();
   }
 
-  @Setup(Level.Invocation)
-  public void setUp() {
-    StreetSearcher.VERBOSE = false;
-
-    endpoints = new HashMap<>();
-    endpoints.put("JHU to Druid Lake", new String[]{"-76.6175,39.3296", "-76.6383,39.3206"});
-    endpoints.put("7-11 to Druid Lake", new String[]{"-76.6214,39.3212", "-76.6383,39.3206"});
-    endpoints.put("Inner Harbor to JHU", new String[]{"-76.6107,39.2866", "-76.6175,39.3296"});
+  @Benchmark
+  @Fork(value = 2, warmups = 2)
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 10)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @BenchmarkMode(Mode.AverageTime)
+  public void findShortestPath(Blackhole blackhole, BenchmarkState state) {
+    state.sst.findShortestPath(ENDPOINTS.get(state.endPointKey)[0],
+        ENDPOINTS.get(state.endPointKey)[1]);
+    blackhole.consume(state.graph);
+    blackhole.consume(state.sst);
+  }
 
-    data = new File(Config.class.getResource("/" + "baltimore.streets.txt").getFile());
+  @Benchmark
+  @Fork(value = 1, warmups = 1)
+  @Warmup(iterations = 3)
+  @Measurement(iterations = 5)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @BenchmarkMode(Mode.AverageTime)
+  public void route(Blackhole blackhole, RouteState state) {
+    blackhole.consume(state.sst.route(state.start, state.end));
+  }
 
-    graph = Config.getGraph();
-    sst = Config.getStreetSearcher(graph);
+  @Benchmark
+  @Fork(value = 1, warmups = 1)
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 5)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @BenchmarkMode(Mode.SingleShotTime)
+  public void preprocessContractionHierarchy(Blackhole blackhole, HierarchyState state) {
+    ContractionHierarchyStreetSearcher ch = new ContractionHierarchyStreetSearcher(Config.getGraph());
     try {
-      sst.loadNetwork(data);
+      ch.loadNetwork(state.data);
     } catch (FileNotFoundException e) {
       e.printStackTrace();
     }
+    state.last = ch.getHierarchy();
+    blackhole.consume(ch);
   }
 
   @Benchmark
-  @Fork(value = 2, warmups = 2)
+  @Fork(value = 1, warmups = 1)
   @Warmup(iterations = 2)
-  @Measurement(iterations = 10)
+  @Measurement(iterations = 5)
   @OutputTimeUnit(TimeUnit.MILLISECONDS)
   @BenchmarkMode(Mode.AverageTime)
-  public void findShortestPath(Blackhole blackhole, BenchmarkState state) {
-    sst.findShortestPath(endpoints.get(state.endPointKey)[0], endpoints.get(state.endPointKey)[1]);
-    blackhole.consume(graph);
-    blackhole.consume(sst);
+  public void routeBatch(Blackhole blackhole, BatchState state) {
+    blackhole.consume(state.sst.routes(state.pairs));
+  }
+
+  @Benchmark
+  @Fork(value = 1, warmups = 1)
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 5)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @BenchmarkMode(Mode.AverageTime)
+  public void distanceMatrix(Blackhole blackhole, MatrixState state) {
+    blackhole.consume(state.sst.distanceMatrix(state.starts, state.ends));
+  }
+
+  @Benchmark
+  @Fork(value = 1, warmups = 1)
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 5)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @BenchmarkMode(Mode.AverageTime)
+  public void snapToNearestEndpoint(Blackhole blackhole, SnapState state) {
+    for (double[] point : state.points) {
+      blackhole.consume(state.sst.nearestEndpoint(point[0], point[1]));
+    }
+  }
+
+  @Benchmark
+  @Fork(value = 1, warmups = 1)
+  @Warmup(iterations = 3)
+  @Measurement(iterations = 5)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @BenchmarkMode(Mode.AverageTime)
+  public void dijkstraTree(Blackhole blackhole, TiledNetwork network) {
+    blackhole.consume(network.sst.shortestPathTree(network.start));
+  }
+
+  @Benchmark
+  @Fork(value = 1, warmups = 1)
+  @Warmup(iterations = 3)
+  @Measurement(iterations = 5)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @BenchmarkMode(Mode.AverageTime)
+  public void deltaSteppingTree(Blackhole blackhole, TiledNetwork network, ThreadPool threads) {
+    blackhole.consume(network.sst.shortestPathTree(network.start, threads.pool));
+  }
+
+  // Baltimore (tiles = 1), or tiles x tiles copies of it side by side with
+  // every 50th endpoint joined to its copy in the next tile by a road of 300 length units
+  @State(Scope.Benchmark)
+  public static class TiledNetwork {
+    @Param({"1", "64"})
+    public int tiles;
+
+    public StreetSearcher sst;
+    public String start = "-76.6175,39.3296";
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+      File data = Networks.BALTIMORE;
+      if (tiles > 1) {
+        data = File.createTempFile("tiled", ".streets.txt");
+        data.deleteOnExit();
+        writeTiles(Networks.BALTIMORE, data, (int) Math.round(Math.sqrt(tiles)));
+      }
+      sst = Networks.load("dijkstra-p2p", "compact", data);
+      sst.shortestPathTree(start, ForkJoinPool.commonPool()); // copy for delta-stepping
+    }
+
+    // helper method: copy every road of data into side x side tiles
+    private static void writeTiles(File data, File out, int side) throws IOException {
+      List<String[]> roads = new ArrayList<>();
+      Scanner input = new Scanner(data);
+      while (input.hasNextLine()) {
+        roads.add(input.nextLine().split(" "));
+      }
+      input.close();
+      try (PrintWriter writer = new PrintWriter(out, "UTF-8")) {
+        for (int tx = 0; tx < side; tx++) {
+          for (int ty = 0; ty < side; ty++) {
+            for (int i = 0; i < roads.size(); i++) {
+              String[] road = roads.get(i);
+              String from = shift(road[0], tx, ty);
+              writer.println(from + " " + shift(road[1], tx, ty) + " " + road[2] + " "
+                  + road[3] + "@" + tx + "_" + ty);
+              if (i % 50 == 0 && tx + 1 < side) {
+                writer.println(from + " " + shift(road[0], tx + 1, ty) + " 300.0 TILE_EW");
+              }
+              if (i % 50 == 0 && ty + 1 < side) {
+                writer.println(from + " " + shift(road[0], tx, ty + 1) + " 300.0 TILE_NS");
+              }
+            }
+          }
+        }
+      }
+    }
+
+    // helper method: endpoint name moved by whole tiles (the network
+    // spans less than 0.07 degrees of longitude and 0.09 of latitude)
+    private static String shift(String name, int tx, int ty) {
+      String[] lonLat = name.split(",");
+      return String.format(Locale.ROOT, "%.4f,%.4f",
+          Double.parseDouble(lonLat[0]) + 0.07 * tx, Double.parseDouble(lonLat[1]) + 0.09 * ty);
+    }
+  }
+
+  // A pool of some number of threads, for scaling runs
+  @State(Scope.Benchmark)
+  public static class ThreadPool {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    public ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      pool.shutdown();
+    }
+  }
+
+  // GPS points near endpoints of the network, to snap to the nearest one
+  @State(Scope.Benchmark)
+  public static class SnapState {
+    @Param({"1000"})
+    public int numPoints;
+
+    public StreetSearcher sst;
+    public List<double[]> points;
+
+    @Setup(Level.Trial)
+    public void setUp() throws FileNotFoundException {
+      sst = Networks.load("dijkstra-p2p", "sparse", Networks.BALTIMORE);
+      sst.nearestEndpoint(-76.6175, 39.3296); // build the index outside the measurement
+
+      List<String> names = Networks.endpointNames(Networks.BALTIMORE);
+      Random random = new Random(42);
+      points = new ArrayList<>();
+      for (int i = 0; i < numPoints; i++) { // endpoints with up to ~50 m of GPS noise
+        String[] lonLat = names.get(random.nextInt(names.size())).split(",");
+        double lon = Double.parseDouble(lonLat[0]) + (random.nextDouble() - 0.5) * 1e-3;
+        double lat = Double.parseDouble(lonLat[1]) + (random.nextDouble() - 0.5) * 1e-3;
+        points.add(new double[]{lon, lat});
+      }
+    }
+  }
+
+  // Starts and ends for a matrix the same size as the routeBatch batch
+  @State(Scope.Benchmark)
+  public static class MatrixState {
+    @Param({"50"})
+    public int origins;
+
+    @Param({"40"})
+    public int endsPerOrigin;
+
+    public StreetSearcher sst;
+    public List<String> starts;
+    public List<String> ends;
+
+    @Setup(Level.Trial)
+    public void setUp() throws FileNotFoundException {
+      sst = Networks.load("dijkstra", "sparse", Networks.BALTIMORE);
+
+      List<String> names = Networks.endpointNames(Networks.BALTIMORE);
+      Random random = new Random(42);
+      starts = new ArrayList<>();
+      for (int i = 0; i < origins; i++) {
+        starts.add(names.get(random.nextInt(names.size())));
+      }
+      ends = new ArrayList<>();
+      for (int j = 0; j < endsPerOrigin; j++) {
+        ends.add(names.get(random.nextInt(names.size())));
+      }
+    }
+  }
+
+  // A network loaded once, and a batch of pairs where many share a start
+  @State(Scope.Benchmark)
+  public static class BatchState {
+    @Param({"dijkstra-p2p", "dijkstra-radix", "astar", "bidirectional", "ch"})
+    public String searcher;
+
+    @Param({"50"})
+    public int origins;
+
+    @Param({"40"})
+    public int endsPerOrigin;
+
+    public StreetSearcher sst;
+    public List<String[]> pairs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws FileNotFoundException {
+      sst = Networks.load(searcher, "sparse", Networks.BALTIMORE);
+
+      List<String> names = Networks.endpointNames(Networks.BALTIMORE);
+      Random random = new Random(42);
+      pairs = new ArrayList<>();
+      for (int i = 0; i < origins; i++) {
+        String start = names.get(random.nextInt(names.size()));
+        for (int j = 0; j < endsPerOrigin; j++) {
+          pairs.add(new String[]{start, names.get(random.nextInt(names.size()))});
+        }
+      }
+      Collections.shuffle(pairs, random);
+    }
+  }
+
+  // A network loaded once per trial, so route() times the query alone and
+  // the GC profiler's gc.alloc.rate.norm is the allocation of one query
+  @State(Scope.Benchmark)
+  public static class RouteState {
+    @Param({"JHU to Druid Lake", "Inner Harbor to JHU"})
+    public String endPointKey;
+
+    @Param({"dijkstra-p2p", "dijkstra-radix", "astar", "bidirectional", "ch"})
+    public String searcher;
+
+    @Param({"sparse", "offheap"})
+    public String network;
+
+    public StreetSearcher sst;
+    public String start;
+    public String end;
+
+    @Setup(Level.Trial)
+    public void setUp() throws FileNotFoundException {
+      sst = Networks.load(searcher, network, Networks.BALTIMORE);
+      start = ENDPOINTS.get(endPointKey)[0];
+      end = ENDPOINTS.get(endPointKey)[1];
+    }
+  }
+
+  // Reports what the preprocessing benchmark built
+  @State(Scope.Benchmark)
+  public static class HierarchyState {
+    public File data = Networks.BALTIMORE;
+    public ContractionHierarchy last;
+
+    @TearDown(Level.Trial)
+    public void report() {
+      if (last != null) {
+        System.out.printf("%nContraction hierarchy: %d shortcuts, last preprocessing took %d ms%n",
+            last.shortcutCount(), last.preprocessingMillis());
+      }
+    }
   }
 
   @State(Scope.Benchmark)
   public static class BenchmarkState {
     @Param({"JHU to Druid Lake", "7-11 to Druid Lake", "Inner Harbor to JHU"})
     public String endPointKey;
+
+    // "dijkstra" settles the whole graph, "dijkstra-p2p" stops at the end,
+    // "dijkstra-radix" does the same with a radix heap over lengths kept
+    // to a hundredth of a unit,
+    // "astar" also uses the coordinates to head towards the end,
+    // "bidirectional" searches from both ends at once; "ch" is benchmarked
+    // by route(), whose RouteState builds the hierarchy once per trial
+    @Param({"dijkstra", "dijkstra-p2p", "dijkstra-radix", "astar", "bidirectional"})
+    public String searcher;
+
+    public WeightedGraph<String, String> graph;
+    public StreetSearcher sst;
+
+    // a fresh network for every call; only findShortestPath uses this state
+    @Setup(Level.Invocation)
+    public void setUp() {
+      graph = Config.getGraph();
+      try {
+        sst = Networks.load(graph, searcher, "sparse", Networks.BALTIMORE);
+      } catch (FileNotFoundException e) {
+        e.printStackTrace();
+      }
+    }
   }
 }
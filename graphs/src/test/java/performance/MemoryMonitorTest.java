@@ -1,10 +1,18 @@
 package performance;
 
 import graphs.Config;
-import graphs.graph.Graph;
+import graphs.graph.Vertex;
+import graphs.graph.WeightedGraph;
+import graphs.spp.NameDictionary;
 import graphs.spp.StreetSearcher;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
 
 public class MemoryMonitorTest {
 
@@ -18,6 +26,7 @@ public class MemoryMonitorTest {
     System.out.println("~~~ MemoryMonitorTest ~~~");
     System.out.println(config);
     MemoryMonitorTest.loadNetworkAndFindShortestPath();
+    MemoryMonitorTest.mapNetworkAndFindShortestPath();
     System.out.println("~~~~~~     END     ~~~~~~");
   }
 
@@ -25,7 +34,7 @@ public class MemoryMonitorTest {
   private static void loadNetworkAndFindShortestPath() {
     reportUsedMemory();
     System.out.println("Instantiating empty Graph data structure");
-    Graph<String, String> graph = Config.getGraph();
+    WeightedGraph<String, String> graph = Config.getGraph();
     System.out.println("Instantiating empty StreetSearcher object");
     StreetSearcher streetSearcher = Config.getStreetSearcher(graph);
     reportUsedMemory();
@@ -36,6 +45,7 @@ public class MemoryMonitorTest {
       System.out.println("Finding the shortest path");
       streetSearcher.findShortestPath(config.from, config.to);
       reportUsedMemory();
+      indexEndpointNames(graph);
       streetSearcher = null;
       graph = null;
       System.out.println("Setting objects to null (so GC does its thing!)");
@@ -45,6 +55,58 @@ public class MemoryMonitorTest {
     }
   }
 
+  // The endpoint index StreetSearcher used to keep (a HashMap) against
+  // the NameDictionary it keeps now, with one int per name for the vertex
+  private static void indexEndpointNames(WeightedGraph<String, String> graph) {
+    System.out.println("Indexing endpoint names in a HashMap");
+    Map<String, Vertex<String>> map = new HashMap<>();
+    for (Vertex<String> v : graph.vertices()) {
+      map.put(v.get(), v);
+    }
+    reportUsedMemory();
+    System.out.printf("\t%d names\n", map.size());
+    System.out.println("Indexing endpoint names in a NameDictionary");
+    NameDictionary names = new NameDictionary();
+    int[] vertexIds = new int[graph.vertexIdBound()];
+    for (Vertex<String> v : graph.vertices()) {
+      vertexIds[names.intern(v.get())] = graph.id(v);
+    }
+    reportUsedMemory();
+    System.out.printf("\t%d names, %d ids\n", names.size(), vertexIds.length);
+  }
+
+  // PRE: config != null
+  // Same again with the network off the heap, mapped from a snapshot
+  private static void mapNetworkAndFindShortestPath() {
+    try {
+      File snapshot = File.createTempFile("network", ".snet");
+      snapshot.deleteOnExit();
+      StreetSearcher streetSearcher = Config.getStreetSearcher(Config.getGraph());
+      streetSearcher.loadCompactNetwork(config.data);
+      streetSearcher.saveSnapshot(snapshot);
+      streetSearcher = null;
+      System.out.println("Saved a snapshot of the network");
+      reportUsedMemory();
+      streetSearcher = Config.getStreetSearcher(Config.getGraph());
+      System.out.println("Mapping the snapshot off the heap");
+      streetSearcher.loadOffHeapNetwork(snapshot);
+      reportUsedMemory();
+      reportBufferMemory();
+      System.out.println("Finding the shortest path");
+      streetSearcher.findShortestPath(config.from, config.to);
+      reportUsedMemory();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private static void reportBufferMemory() {
+    for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+      System.out.printf("\tOff-heap %s buffers: %.2f KB\n", pool.getName(),
+          (double) pool.getMemoryUsed() / KB);
+    }
+  }
+
   private static void reportUsedMemory() {
     double last = usedMemory;
     usedMemory = (double) MemoryMonitor.getReallyUsedMemory() / KB;
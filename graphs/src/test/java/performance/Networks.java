@@ -0,0 +1,87 @@
+package performance;
+
+import graphs.Config;
+import graphs.graph.WeightedGraph;
+import graphs.spp.StreetSearcher;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Networks and endpoints shared by the benchmarks and tests that run on
+ * the Baltimore data.
+ */
+public final class Networks {
+
+  /* The network the benchmarks run on */
+  public static final File BALTIMORE =
+      new File(Config.class.getResource("/baltimore.streets.txt").getFile());
+
+  private Networks() {
+  }
+
+  /**
+   * Load a network quietly into a new searcher over Config.getGraph().
+   *
+   * @param searcher name of the searcher, as for Config.getStreetSearcher().
+   * @param network  "sparse" (loadNetwork()), "compact" (loadCompactNetwork())
+   *                 or "offheap" (loadOffHeapNetwork()).
+   * @param data     network file.
+   * @return the searcher, with the network loaded.
+   * @throws FileNotFoundException if data cannot be opened.
+   */
+  public static StreetSearcher load(String searcher, String network, File data)
+      throws FileNotFoundException {
+    return load(Config.getGraph(), searcher, network, data);
+  }
+
+  /**
+   * Load a network quietly into a new searcher over a given graph.
+   *
+   * @param graph    empty graph the sparse network is loaded into.
+   * @param searcher name of the searcher, as for Config.getStreetSearcher().
+   * @param network  as for load(searcher, network, data).
+   * @param data     network file.
+   * @return the searcher, with the network loaded.
+   * @throws FileNotFoundException if data cannot be opened.
+   */
+  public static StreetSearcher load(WeightedGraph<String, String> graph, String searcher,
+                                    String network, File data) throws FileNotFoundException {
+    StreetSearcher.VERBOSE = false;
+    StreetSearcher sst = Config.getStreetSearcher(graph, searcher);
+    switch (network) {
+      case "sparse":
+        sst.loadNetwork(data);
+        break;
+      case "compact":
+        sst.loadCompactNetwork(data);
+        break;
+      case "offheap":
+        sst.loadOffHeapNetwork(data);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown network: " + network);
+    }
+    return sst;
+  }
+
+  /**
+   * The first endpoint of every line of a data file, so endpoints that
+   * start many roads come up more often when picked at random.
+   *
+   * @param data network file.
+   * @return endpoint names, one per line.
+   * @throws FileNotFoundException if data cannot be opened.
+   */
+  public static List<String> endpointNames(File data) throws FileNotFoundException {
+    List<String> names = new ArrayList<>();
+    Scanner input = new Scanner(data);
+    while (input.hasNextLine()) {
+      names.add(input.nextLine().split(" ")[0]);
+    }
+    input.close();
+    return names;
+  }
+}
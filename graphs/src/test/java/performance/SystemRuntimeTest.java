@@ -1,10 +1,16 @@
 package performance;
 
 import graphs.Config;
-import graphs.graph.Graph;
+import graphs.graph.Edge;
+import graphs.graph.WeightedGraph;
+import graphs.spp.DynamicShortestPathTree;
 import graphs.spp.StreetSearcher;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class SystemRuntimeTest {
 
@@ -16,13 +22,16 @@ public class SystemRuntimeTest {
     System.out.println("~~~ SystemRuntimeTest ~~~");
     System.out.println(config);
     SystemRuntimeTest.loadNetwork();
+    SystemRuntimeTest.loadNetworkInParallel();
+    SystemRuntimeTest.loadSnapshot();
     SystemRuntimeTest.findShortestPath();
+    SystemRuntimeTest.updateShortestPathTree();
     System.out.println("~~~~~~     END     ~~~~~~");
   }
 
   // PRE: config != null
   private static void loadNetwork() {
-    Graph<String, String> graph = Config.getGraph();
+    WeightedGraph<String, String> graph = Config.getGraph();
     StreetSearcher streetSearcher = Config.getStreetSearcher(graph);
     try {
       long startTime, stopTime, elapsedTime;
@@ -31,14 +40,64 @@ public class SystemRuntimeTest {
       stopTime = System.currentTimeMillis();
       elapsedTime = stopTime - startTime;
       System.out.printf("Loading network took %d milliseconds.\n", elapsedTime);
+      double megabytes = config.data.length() / (1024.0 * 1024.0);
+      System.out.printf("Loading network read %.2f MB at %.1f MB/s.\n",
+          megabytes, megabytes / (Math.max(elapsedTime, 1) / 1000.0));
     } catch (FileNotFoundException e) {
       e.printStackTrace();
     }
   }
 
+  // PRE: config != null
+  private static void loadNetworkInParallel() {
+    WeightedGraph<String, String> graph = Config.getGraph();
+    StreetSearcher streetSearcher = Config.getStreetSearcher(graph);
+    try {
+      long startTime, stopTime, elapsedTime;
+      startTime = System.currentTimeMillis();
+      streetSearcher.loadNetwork(config.data, ForkJoinPool.commonPool());
+      stopTime = System.currentTimeMillis();
+      elapsedTime = stopTime - startTime;
+      double megabytes = config.data.length() / (1024.0 * 1024.0);
+      System.out.printf("Loading network in parallel (%d threads) took %d milliseconds"
+              + " (%.1f MB/s).\n", ForkJoinPool.getCommonPoolParallelism(), elapsedTime,
+          megabytes / (Math.max(elapsedTime, 1) / 1000.0));
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+  }
+
+  // PRE: config != null
+  private static void loadSnapshot() {
+    try {
+      StreetSearcher text = Config.getStreetSearcher(Config.getGraph());
+      text.loadNetwork(config.data);
+      File snapshot = File.createTempFile("network", ".snet");
+      snapshot.deleteOnExit();
+      text.saveSnapshot(snapshot);
+
+      long startTime, stopTime, elapsedTime;
+      startTime = System.currentTimeMillis();
+      Config.getStreetSearcher(Config.getGraph()).loadNetwork(snapshot);
+      stopTime = System.currentTimeMillis();
+      elapsedTime = stopTime - startTime;
+      System.out.printf("Loading network from a %.2f MB snapshot took %d milliseconds.\n",
+          snapshot.length() / (1024.0 * 1024.0), elapsedTime);
+
+      startTime = System.currentTimeMillis();
+      Config.getStreetSearcher(Config.getGraph()).loadCompactNetwork(snapshot);
+      stopTime = System.currentTimeMillis();
+      elapsedTime = stopTime - startTime;
+      System.out.printf("Loading compact network from the snapshot took %d milliseconds.\n",
+          elapsedTime);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
   // PRE: config != null
   private static void findShortestPath() {
-    Graph<String, String> graph = Config.getGraph();
+    WeightedGraph<String, String> graph = Config.getGraph();
     StreetSearcher streetSearcher = Config.getStreetSearcher(graph);
     try {
       long startTime, stopTime, elapsedTime;
@@ -52,4 +111,44 @@ public class SystemRuntimeTest {
       e.printStackTrace();
     }
   }
+
+  // PRE: config != null
+  private static void updateShortestPathTree() {
+    WeightedGraph<String, String> graph = Config.getGraph();
+    StreetSearcher streetSearcher = Config.getStreetSearcher(graph);
+    try {
+      long startTime, stopTime, elapsedTime;
+      streetSearcher.loadNetwork(config.data);
+      startTime = System.nanoTime();
+      DynamicShortestPathTree tree = streetSearcher.dynamicShortestPathTree(config.from);
+      stopTime = System.nanoTime();
+      elapsedTime = stopTime - startTime;
+      System.out.printf("Building a shortest path tree took %d microseconds.\n",
+          elapsedTime / 1000);
+
+      // close every road to the end, then reopen them in turn
+      List<Edge<String>> roads = tree.path(graph.vertex(streetSearcher.vertexId(config.to)));
+      double[] lengths = new double[roads.size()];
+      long touched = 0;
+      startTime = System.nanoTime();
+      for (int i = 0; i < roads.size(); i++) {
+        lengths[i] = graph.weight(roads.get(i));
+        tree.remove(roads.get(i));
+        touched += tree.touched();
+      }
+      for (int i = 0; i < roads.size(); i++) {
+        Edge<String> road = roads.get(i);
+        tree.insert(graph.from(road), graph.to(road), road.get(), lengths[i]);
+        touched += tree.touched();
+      }
+      stopTime = System.nanoTime();
+      elapsedTime = stopTime - startTime;
+      System.out.printf("Closing and reopening %d roads took %d microseconds each"
+              + " (%d of %d vertices searched again on average).\n", roads.size(),
+          elapsedTime / 1000 / (2 * roads.size()), touched / (2 * roads.size()),
+          graph.vertexIdBound());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+  }
 }
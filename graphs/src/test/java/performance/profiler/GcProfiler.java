@@ -330,10 +330,11 @@ public class GcProfiler implements InternalProfiler {
       if (getBytes != null || allocationNotAvailable) {
         return getBytes;
       }
-      ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
       try {
-        getBytes = threadMXBean.getClass().getMethod("getThreadAllocatedBytes", long[].class);
-        getBytes.setAccessible(true);
+        // through the exported interface: newer JDKs refuse setAccessible on
+        // the implementation class
+        getBytes = Class.forName("com.sun.management.ThreadMXBean")
+            .getMethod("getThreadAllocatedBytes", long[].class);
       } catch (Throwable e) { // To avoid jmh failure in case of incompatible JDK and/or inaccessible method
         getBytes = null;
         allocationNotAvailable = true;